@@ -0,0 +1,19 @@
+#!/bin/sh
+# Roda a simulação com flags da JVM ajustadas para mesas grandes.
+#   ./jantar.sh [unica|garcom|livre] [monitor|listrada|atomica|chandy|fragmentada|alternativa|grafo] [filosofos]
+#   ./jantar.sh reproduzir <log>   (painel e linha do tempo de um log gravado com -Djantar.log=<log>)
+#   ./jantar.sh servidor [n] [porta] e ./jantar.sh cliente [host:]porta <de> <até> em outras JVMs
+#                                  (garfos num processo, filósofos em vários, via loopback)
+#   ./jantar.sh compartilhada <arquivo> <n> <de> <até>   (várias JVMs numa mesa em arquivo mapeado)
+# Propriedades da simulação (-Djantar.segundos, -Djantar.threads=virtual, ...) vão em JANTAR_OPTS;
+# -Djantar.simulado=true roda em tempo virtual (SimuladorEventos), sem uma thread por filósofo
+# (qualquer motor menos grafo).
+#
+# -Xss256k              pilhas menores: muitas threads de plataforma (uma por filósofo)
+# -Xms/-Xmx iguais      sem redimensionar o heap no meio da medição
+# -XX:+AlwaysPreTouch   páginas do heap tocadas na partida, não durante a simulação
+# -XX:+UseParallelGC    pausas curtas o bastante aqui e menos barreiras no caminho quente que o G1
+# -XX:-UseCounterDecay  o JIT não "esfria" métodos enquanto as threads dormem em pensar/comer
+DIR=$(dirname "$0")
+JVM_OPTS=${JVM_OPTS:-"-Xss256k -Xms2g -Xmx2g -XX:+AlwaysPreTouch -XX:+UseParallelGC -XX:-UseCounterDecay"}
+exec java $JVM_OPTS $JANTAR_OPTS -jar "$DIR/target/jantar.jar" "$@"
@@ -0,0 +1,317 @@
+package Jantar.app;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import Jantar.CargaDeTrabalho;
+import Jantar.Filosofos;
+import Jantar.GravadorEventos;
+import Jantar.JanelaDeslizante;
+import Jantar.LeitorEventos;
+import Jantar.Mesa;
+import Jantar.MesaCompartilhada;
+import Jantar.MesaDeJantar;
+import Jantar.MesaRemota;
+import Jantar.MetricasAoVivo;
+import Jantar.Motores;
+import Jantar.PerfilGarfos;
+import Jantar.RelatorioDaMesa;
+import Jantar.ServidorGarfos;
+import Jantar.SimuladorEventos;
+
+public class Main {
+    private static final int PORTA_PADRAO = 7_070;
+    private static final int FOLGA_SERVIDOR_SEGUNDOS = 60; // clientes partem depois do servidor
+
+    public static void main(String[] args) {
+        // args[0] opcional: política de admissão (unica | garcom | livre; o motor chandy só aceita livre)
+        //                   ou "reproduzir <arquivo>": relê um log de -Djantar.log e refaz o painel
+        // args[1] opcional: motor dos garfos, um dos nomes de Motores.nomes()
+        //                   (monitor | listrada | atomica | chandy | fragmentada | alternativa | grafo)
+        // args[2] opcional: número de filósofos (ou -Djantar.filosofos=N)
+        // -Djantar.fragmentos=K: fragmentos da mesa fragmentada (padrão 2 x núcleos, até 64 garfos cada)
+        // -Djantar.grafo=anel|aleatorio:R:K: conflitos do motor grafo (K recursos de R por assento)
+        //                                  e -Djantar.grafo.aquisicao=cas|ordenada (padrão cas)
+        // -Djantar.espera=adaptativa|bloqueante: gira/cede antes de bloquear por garfo (padrão adaptativa)
+        // -Djantar.prazo.ms=P: modo justo do motor monitor; quem espera mais que P ms tem a vez
+        // -Djantar.lote=K, -Djantar.lote.quantum.ms=Q: até K refeições por aquisição dos garfos (ou Q ms)
+        // -Djantar.pensar=dist[:ms], -Djantar.comer=dist[:ms]: uniforme | exponencial | pareto | rajada | zero
+        //                             com a média em ms (padrão uniforme:50); -Djantar.semente=S (padrão 42)
+        // -Djantar.segundos=S: duração da simulação (padrão 10)
+        // -Djantar.threads=plataforma|virtual: uma thread de plataforma por filósofo (padrão)
+        //                                       ou uma thread virtual por filósofo
+        // -Djantar.simulado=true: tempo virtual (SimuladorEventos), numa thread só e sem dormir;
+        //                         jantar.segundos passa a ser o tempo simulado (todos os motores
+        //                         menos grafo, que não tem política simulada)
+        // -Djantar.metricas.porta=P: métricas ao vivo em http://127.0.0.1:P/metrics (Prometheus);
+        //                            o MBean Jantar:type=MetricasAoVivo fica sempre no JMX
+        //                            (amostra a cada -Djantar.metricas.intervalo.ms, padrão 1000)
+        // -Djantar.relatorio=true|false: uma linha por janela de -Djantar.janela.ms (padrão 1000) com
+        //                               refeições/s, esperas/s, spread, parados e starvation (padrão true)
+        // -Djantar.perfil=true: contenção por garfo (posses, tempo de posse, bloqueios, passagens) no painel,
+        //                      -Djantar.perfil.csv=arquivo também grava um CSV por garfo; acima de 1024
+        //                      garfos perfila 1 em 16 (ou 1 em -Djantar.perfil.amostra=K, potência de 2)
+        // -Djantar.log=arquivo: grava todos os eventos num log binário mapeado em memória
+        //                       (até -Djantar.log.eventos registros de 24 bytes, padrão 4M)
+        // Mesa em várias JVMs (garfos num ServidorGarfos, filósofos nos clientes, via loopback):
+        //   servidor [n] [porta]           só os garfos; termina quando o último cliente sai
+        //                                  (ou jantar.segundos + 60 s); porta padrão 7070
+        //   cliente [host:]porta <de> <até> filósofos de..até (1..n) desta JVM, por jantar.segundos
+        // Mesa em várias JVMs sem servidor (garfos e contadores num arquivo mapeado, CAS direto):
+        //   compartilhada <arquivo> <n> <de> <até>  cada JVM com a sua faixa de assentos
+        if (args.length > 0 && "reproduzir".equals(args[0])) {
+            reproduzir(Path.of(args.length > 1 ? args[1] : "jantar.log"));
+            return;
+        }
+        if (args.length > 0 && "servidor".equals(args[0])) {
+            servir(args.length > 1 ? Integer.parseInt(args[1])
+                    : Integer.getInteger("jantar.filosofos", Mesa.NR_FILOSOFOS_PADRAO),
+                    args.length > 2 ? Integer.parseInt(args[2]) : PORTA_PADRAO);
+            return;
+        }
+        if (args.length > 0 && "compartilhada".equals(args[0])) {
+            if (args.length < 5) {
+                System.err.println("Uso: compartilhada <arquivo> <n> <de> <até>   (assentos de 1 a n, inclusive)");
+                System.exit(2);
+            }
+            int n = Integer.parseInt(args[2]), de = Integer.parseInt(args[3]), ate = Integer.parseInt(args[4]);
+            MesaCompartilhada mesa = new MesaCompartilhada(Path.of(args[1]), n, de - 1, ate - de + 1);
+            jantar(mesa, de - 1, ate, Mesa.ADMISSAO_LIVRE, "compartilhada");
+            return;
+        }
+        if (args.length > 0 && "cliente".equals(args[0])) {
+            if (args.length < 4) {
+                System.err.println("Uso: cliente [host:]porta <de> <até>   (assentos de 1 a N, inclusive)");
+                System.exit(2);
+            }
+            cliente(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        int admissao = args.length > 0 ? Mesa.admissaoPorNome(args[0]) : Mesa.ADMISSAO_GARCOM;
+        String motor = args.length > 1 ? args[1] : "monitor";
+        int nrFilosofos = args.length > 2 ? Integer.parseInt(args[2])
+                : Integer.getInteger("jantar.filosofos", Mesa.NR_FILOSOFOS_PADRAO);
+        if (Boolean.getBoolean("jantar.simulado")) {
+            simular(motor, nrFilosofos, admissao);
+            return;
+        }
+        MesaDeJantar mesa = Motores.criar(motor, nrFilosofos, admissao);
+        jantar(mesa, 0, nrFilosofos, admissao, motor);
+    }
+
+    // Roda os filósofos [primeiro, fim) da mesa por jantar.segundos e imprime o painel
+    private static void jantar(MesaDeJantar mesa, int primeiro, int fim, int admissao, String motor) {
+        int nrFilosofos = mesa.getNrFilosofos();
+        CargaDeTrabalho carga = CargaDeTrabalho.dasPropriedades();
+        boolean virtuais = "virtual".equals(System.getProperty("jantar.threads", "plataforma"));
+        Thread[] threads = virtuais ? null : new Thread[fim - primeiro];
+        ExecutorService executor = virtuais ? Executors.newVirtualThreadPerTaskExecutor() : null;
+
+        System.out.println("========================================");
+        System.out.println(" JANTAR DOS FILÓSOFOS - INICIANDO");
+        System.out.println("========================================\n");
+
+        System.out.println("Motor dos garfos:     " + mesa.nomeMotor());
+        System.out.println("Política de admissão: " + mesa.nomeAdmissao());
+        System.out.println("Espera por garfo:     " + mesa.nomeEspera());
+        System.out.println("Filósofos à mesa:     " + nrFilosofos);
+        if (fim - primeiro != nrFilosofos)
+            System.out.println("Assentos nesta JVM:   " + (primeiro + 1) + ".." + fim);
+        System.out.println("Carga:                " + carga.descricao());
+        System.out.println("Threads:              " + (virtuais ? "virtuais" : "de plataforma"));
+        MetricasAoVivo metricas = new MetricasAoVivo(mesa);
+        System.out.println("Métricas (JMX):       " + metricas.iniciar());
+        JanelaDeslizante janelas = metricas.getJanelas();
+        if (Boolean.parseBoolean(System.getProperty("jantar.relatorio", "true")))
+            janelas.iniciar(System.out);
+        ServidorMetricas servidor = null;
+        Integer porta = Integer.getInteger("jantar.metricas.porta");
+        if (porta != null) {
+            try {
+                servidor = new ServidorMetricas(metricas, porta);
+                System.out.println("Métricas (HTTP):      http://127.0.0.1:" + servidor.porta() + "/metrics");
+            } catch (IOException e) {
+                System.err.println("Endpoint de métricas não iniciado: " + e.getMessage());
+            }
+        }
+        String log = System.getProperty("jantar.log");
+        GravadorEventos gravador = null;
+        if (log != null) {
+            gravador = new GravadorEventos(Path.of(log), nrFilosofos, admissao, motor, mesa.isGarfosDoAnel());
+            mesa.setGravador(gravador);
+            System.out.println("Log de eventos:       " + log);
+        }
+        String csvPerfil = System.getProperty("jantar.perfil.csv");
+        PerfilGarfos perfil = null;
+        if (csvPerfil != null || Boolean.getBoolean("jantar.perfil")) {
+            perfil = PerfilGarfos.paraMesa(mesa);
+            mesa.setPerfil(perfil);
+            System.out.println("Perfil dos garfos:    " + perfil.getPerfilados() + " garfos"
+                    + (perfil.getAmostra() > 1 ? " (1 em " + perfil.getAmostra() + ")" : ""));
+        }
+        System.out.println();
+        System.out.println("ESTADO INICIAL:");
+        mesa.imprimeEstadosFilosofos();
+        mesa.imprimeGarfos();
+        System.out.println();
+
+        long inicio = System.nanoTime();
+        for (int filosofo = primeiro; filosofo < fim; ++filosofo) {
+            Filosofos f = new Filosofos("Filosofo_" + filosofo, mesa, filosofo, carga);
+            if (virtuais) {
+                executor.execute(f);
+            } else {
+                threads[filosofo - primeiro] = new Thread(f, f.getNome());
+                threads[filosofo - primeiro].start();
+            }
+        }
+
+        int tempoExecucao = Integer.getInteger("jantar.segundos", 10) * 1000;
+        try {
+            System.out.println("Simulação rodando por " + tempoExecucao / 1000 + " segundos...\n");
+            Thread.sleep(tempoExecucao);
+            janelas.encerrar(); // as janelas param aqui, antes de derrubar as threads
+            if (perfil != null)
+                perfil.encerrar();
+            System.out.println("\n========================================");
+            System.out.println(" TEMPO ESGOTADO - ENCERRANDO");
+            System.out.println("========================================\n");
+
+            if (virtuais) {
+                executor.shutdownNow(); // interrompe todas as threads virtuais
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            } else {
+                for (Thread t : threads) {
+                    t.interrupt();
+                }
+                for (Thread t : threads) {
+                    t.join(1000L);
+                }
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            if (mesa instanceof MesaRemota remota)
+                remota.fechar(); // o servidor solta os garfos de quem ficou com eles
+            if (mesa instanceof MesaCompartilhada compartilhada)
+                compartilhada.fechar(); // devolve os assentos no arquivo
+            if (servidor != null)
+                servidor.parar();
+            metricas.encerrar();
+            if (gravador != null)
+                gravador.fechar();
+
+            mesa.imprimirEstatisticasFinais();
+            System.out.printf("%nVazão: %.1f refeições/s (%d refeições em %.1f s, threads %s)%n",
+                    mesa.getTotalRefeicoes() / segundos, mesa.getTotalRefeicoes(), segundos,
+                    virtuais ? "virtuais" : "de plataforma");
+            if (perfil != null && csvPerfil != null) {
+                try {
+                    perfil.escreverCsv(Path.of(csvPerfil));
+                    System.out.println("Perfil dos garfos gravado em " + csvPerfil);
+                } catch (IOException e) {
+                    System.err.println("Não foi possível gravar o perfil dos garfos: " + e.getMessage());
+                }
+            }
+            if (gravador != null && gravador.getDescartados() > 0)
+                System.out.printf("Log de eventos cheio: %d eventos descartados (aumente -Djantar.log.eventos)%n",
+                        gravador.getDescartados());
+        } catch (InterruptedException e) {
+            System.err.println("Simulação interrompida!");
+        }
+
+        System.out.println("\n========================================");
+        System.out.println(" PROGRAMA FINALIZADO");
+        System.out.println("========================================");
+        System.exit(0);
+    }
+
+    // Só os garfos da mesa; os filósofos vêm de outras JVMs (modo cliente)
+    private static void servir(int nrFilosofos, int porta) {
+        long segundos = Integer.getInteger("jantar.segundos", 10) + FOLGA_SERVIDOR_SEGUNDOS;
+        System.out.println("========================================");
+        System.out.println(" JANTAR DOS FILÓSOFOS - SERVIDOR DE GARFOS");
+        System.out.println("========================================\n");
+        try {
+            ServidorGarfos servidor = new ServidorGarfos(nrFilosofos, porta);
+            System.out.println("Porta (loopback):     " + servidor.getPorta());
+            System.out.println("Filósofos à mesa:     " + nrFilosofos);
+            System.out.println("Aguardando clientes por até " + segundos + " segundos...\n");
+            servidor.executar(segundos * 1_000_000_000L);
+            servidor.fechar();
+            System.out.println();
+            servidor.getMesa().imprimirEstatisticasFinais();
+        } catch (IOException e) {
+            System.err.println("Servidor de garfos: " + e.getMessage());
+        }
+
+        System.out.println("\n========================================");
+        System.out.println(" PROGRAMA FINALIZADO");
+        System.out.println("========================================");
+        System.exit(0);
+    }
+
+    // Filósofos de..até (1..n) desta JVM, com os garfos de um servidor
+    private static void cliente(String endereco, int de, int ate) {
+        int doisPontos = endereco.lastIndexOf(':');
+        String host = doisPontos < 0 ? "localhost" : endereco.substring(0, doisPontos);
+        int porta = Integer.parseInt(doisPontos < 0 ? endereco : endereco.substring(doisPontos + 1));
+        MesaRemota mesa;
+        try {
+            mesa = MesaRemota.conectar(host, porta, de - 1, ate - de + 1);
+        } catch (IOException e) {
+            System.err.println("Não foi possível conectar ao servidor de garfos " + endereco + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        jantar(mesa, de - 1, ate, Mesa.ADMISSAO_LIVRE, "remoto");
+    }
+
+    // Mesmo jantar em tempo virtual: mesma carga, mesma política de garfos, mesmo painel
+    private static void simular(String motor, int nrFilosofos, int admissao) {
+        CargaDeTrabalho carga = CargaDeTrabalho.dasPropriedades();
+        SimuladorEventos simulador = new SimuladorEventos(motor, nrFilosofos, admissao, carga);
+        RelatorioDaMesa mesa = simulador.getMesa();
+        long segundos = Integer.getInteger("jantar.segundos", 10);
+
+        System.out.println("========================================");
+        System.out.println(" JANTAR DOS FILÓSOFOS - SIMULAÇÃO");
+        System.out.println("========================================\n");
+
+        System.out.println("Motor dos garfos:     " + mesa.nomeMotor());
+        System.out.println("Política de admissão: " + mesa.nomeAdmissao());
+        System.out.println("Filósofos à mesa:     " + nrFilosofos);
+        System.out.println("Carga:                " + carga.descricao());
+        System.out.println("Tempo simulado:       " + segundos + " s\n");
+
+        simulador.executar(segundos * 1_000_000_000L);
+        double reais = simulador.getNanosReais() / 1e9;
+
+        mesa.imprimirEstatisticasFinais();
+        System.out.printf("%nVazão: %.1f refeições/s simulados (%d refeições, %d eventos em %.2f s reais)%n",
+                mesa.getTotalRefeicoes() / (double) segundos, mesa.getTotalRefeicoes(), simulador.getEventos(),
+                reais);
+
+        System.out.println("\n========================================");
+        System.out.println(" PROGRAMA FINALIZADO");
+        System.out.println("========================================");
+        System.exit(0);
+    }
+
+    // Painel e linha do tempo dos garfos refeitos a partir de um log binário, sem rodar a mesa
+    private static void reproduzir(Path arquivo) {
+        LeitorEventos leitor = new LeitorEventos(arquivo);
+        System.out.println("========================================");
+        System.out.println(" JANTAR DOS FILÓSOFOS - REPRODUÇÃO");
+        System.out.println("========================================\n");
+        System.out.println("Log de eventos:       " + arquivo);
+        System.out.println("Motor gravado:        " + leitor.getMotor());
+        System.out.println("Filósofos à mesa:     " + leitor.getNrFilosofos() + "\n");
+
+        RelatorioDaMesa mesa = leitor.reproduzir();
+        mesa.imprimirEstatisticasFinais();
+        System.out.println();
+        leitor.imprimirLinhasDoTempo();
+    }
+}
@@ -0,0 +1,49 @@
+package Jantar.app;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import Jantar.MetricasAoVivo;
+
+// Endpoint HTTP local (só loopback) com as métricas ao vivo em texto do Prometheus: GET /metrics.
+// Cada pedido monta o texto na thread do HttpServer, longe das threads dos filósofos.
+final class ServidorMetricas {
+    private final HttpServer servidor;
+
+    ServidorMetricas(MetricasAoVivo metricas, int porta) throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta), 0);
+        servidor.createContext("/metrics", troca -> responder(troca, metricas));
+        servidor.start();
+    }
+
+    private static void responder(HttpExchange troca, MetricasAoVivo metricas) throws IOException {
+        try {
+            if (!"GET".equals(troca.getRequestMethod())) {
+                troca.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] corpo = metricas.textoPrometheus().getBytes(StandardCharsets.UTF_8);
+            troca.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            troca.sendResponseHeaders(200, corpo.length);
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(corpo);
+            }
+        } finally {
+            troca.close();
+        }
+    }
+
+    int porta() {
+        return servidor.getAddress().getPort();
+    }
+
+    void parar() {
+        servidor.stop(0);
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Aplicação de linha de comando que roda a simulação.
+ */
+module JantarDosFilosofos.app {
+	requires JantarDosFilosofos;
+	requires jdk.httpserver; // endpoint /metrics (ServidorMetricas)
+}
@@ -0,0 +1,99 @@
+package Jantar.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import Jantar.GrafoConflitos;
+import Jantar.Mesa;
+import Jantar.MesaGrafo;
+
+// Motor grafo (MesaGrafo) com milhares de recursos, comparando as duas aquisições:
+//
+//   java -jar target/benchmarks.jar GrafoBench -t 4 -p grafo=esparso,denso
+//
+// grafo=anel     -> pedido i usa i e i+1 (mesma disputa da MesaBench, para referência)
+// grafo=esparso  -> cada pedido sorteia porPedidoEsparso recursos (poucos conflitos, uma palavra
+//                   de 64 bits por recurso na prática)
+// grafo=denso    -> cada pedido sorteia porPedidoDenso recursos (muitos conflitos e quase uma
+//                   palavra por recurso: mede o custo do rollback do CAS contra a espera em ordem)
+// -t N           -> N threads nos assentos 0..N-1; exige N <= pedidos
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GrafoBench {
+	@Param({ "anel", "esparso", "denso" })
+	public String grafo;
+
+	@Param({ "cas", "ordenada" })
+	public String aquisicao;
+
+	@Param({ "4096" })
+	public int recursos;
+
+	@Param({ "1024" })
+	public int pedidos;
+
+	@Param({ "4" })
+	public int porPedidoEsparso;
+
+	@Param({ "64" })
+	public int porPedidoDenso;
+
+	@Param({ "0" })
+	public int trabalhoComer;
+
+	@Param({ "0" })
+	public int trabalhoPensar;
+
+	MesaGrafo mesa;
+
+	@Setup(Level.Trial)
+	public void montar() {
+		GrafoConflitos g = switch (grafo) {
+		case "anel" -> GrafoConflitos.anel(pedidos);
+		case "esparso" -> GrafoConflitos.aleatorio(pedidos, recursos, porPedidoEsparso, 42L);
+		case "denso" -> GrafoConflitos.aleatorio(pedidos, recursos, porPedidoDenso, 42L);
+		default -> throw new IllegalArgumentException("Grafo desconhecido: " + grafo);
+		};
+		mesa = new MesaGrafo(g, Mesa.ADMISSAO_LIVRE, MesaGrafo.aquisicaoPorNome(aquisicao));
+		mesa.desligarRastro();
+	}
+
+	@State(Scope.Thread)
+	public static class Assento {
+		int pedido;
+
+		@Setup(Level.Trial)
+		public void sentar(GrafoBench bench, ThreadParams params) {
+			if (params.getThreadCount() > bench.pedidos)
+				throw new IllegalStateException(
+						"Mais threads (" + params.getThreadCount() + ") que pedidos (" + bench.pedidos + ")");
+			pedido = params.getThreadIndex();
+		}
+	}
+
+	@Benchmark
+	public void refeicao(Assento assento) throws InterruptedException {
+		mesa.pegarGarfos(assento.pedido);
+		Blackhole.consumeCPU(trabalhoComer);
+		mesa.returningGarfos(assento.pedido);
+		Blackhole.consumeCPU(trabalhoPensar);
+	}
+}
@@ -0,0 +1,129 @@
+package Jantar.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import Jantar.Mesa;
+import Jantar.MesaDeJantar;
+import Jantar.Motores;
+import Jantar.PerfilGarfos;
+
+// Mede o custo de sincronização das mesas, sem os sleep() do Filosofos:
+// pensar/comer viram Blackhole.consumeCPU(tokens), e 0 tokens = nenhum trabalho.
+//
+//   java -jar target/benchmarks.jar MesaBench -t 4 -p filosofos=5,64 -prof gc
+//
+// refeicao    -> refeições/s (ciclo completo entrar/pegar/comer/devolver/sair/pensar)
+// pegarGarfos -> percentis de latência só de entrarNoRefeitorio + pegarGarfos
+// -t N        -> N threads nos assentos 0..N-1 (vizinhos, logo disputam garfos); exige N <= filosofos
+// -prof gc    -> taxa de alocação (gc.alloc.rate.norm = bytes por refeição)
+// -p perfil=1,16 -> custo do PerfilGarfos (1 = todos os garfos, K = 1 em K; 0 = desligado)
+// A alternativa só tem espera bloqueante (setEspera recusa a adaptativa), então fica fora da
+// matriz padrão: -p motor=alternativa -p espera=bloqueante
+// O chandy recusa o mordomo: com -p admissao=garcom ou unica, tire-o de -p motor
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MesaBench {
+	@Param({ "monitor", "listrada", "atomica", "chandy", "fragmentada" })
+	public String motor;
+
+	@Param({ "5", "64", "1024" })
+	public int filosofos;
+
+	@Param({ "livre" })
+	public String admissao;
+
+	@Param({ "adaptativa", "bloqueante" })
+	public String espera;
+
+	// Prazo de justiça em µs (0 = modo injusto); só o motor monitor aceita > 0:
+	// -p motor=monitor -p prazo=0,1000 mede o custo do modo justo
+	@Param({ "0" })
+	public long prazo;
+
+	@Param({ "0" })
+	public int perfil;
+
+	@Param({ "0" })
+	public int trabalhoComer;
+
+	@Param({ "0" })
+	public int trabalhoPensar;
+
+	MesaDeJantar mesa;
+
+	@Setup(Level.Trial)
+	public void montar() {
+		MesaDeJantar m = Motores.criar(motor, filosofos, Mesa.admissaoPorNome(admissao));
+		m.desligarRastro();
+		// espera e prazo são ajustes dos motores derivados da Mesa (todos os do @Param motor)
+		Mesa ajustes = (Mesa) m;
+		ajustes.setEspera(Mesa.esperaPorNome(espera));
+		ajustes.setPrazoJustica(TimeUnit.MICROSECONDS.toNanos(prazo));
+		if (perfil > 0)
+			m.setPerfil(new PerfilGarfos(filosofos, filosofos, perfil));
+		mesa = m;
+	}
+
+	@State(Scope.Thread)
+	public static class Assento {
+		int filosofo;
+
+		@Setup(Level.Trial)
+		public void sentar(MesaBench bench, ThreadParams params) {
+			if (params.getThreadCount() > bench.filosofos)
+				throw new IllegalStateException(
+						"Mais threads (" + params.getThreadCount() + ") que assentos (" + bench.filosofos + ")");
+			filosofo = params.getThreadIndex();
+		}
+	}
+
+	// Segura os garfos entre o fim de pegarGarfos e o TearDown da invocação (fora da medição)
+	@State(Scope.Thread)
+	public static class Posse {
+		@TearDown(Level.Invocation)
+		public void devolver(MesaBench bench, Assento assento) {
+			Blackhole.consumeCPU(bench.trabalhoComer);
+			bench.mesa.returningGarfos(assento.filosofo);
+			bench.mesa.sairDoRefeitorio();
+			Blackhole.consumeCPU(bench.trabalhoPensar);
+		}
+	}
+
+	@Benchmark
+	public void refeicao(Assento assento) throws InterruptedException {
+		mesa.entrarNoRefeitorio(assento.filosofo);
+		mesa.pegarGarfos(assento.filosofo);
+		Blackhole.consumeCPU(trabalhoComer);
+		mesa.returningGarfos(assento.filosofo);
+		mesa.sairDoRefeitorio();
+		Blackhole.consumeCPU(trabalhoPensar);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void pegarGarfos(Assento assento, Posse posse) throws InterruptedException {
+		mesa.entrarNoRefeitorio(assento.filosofo);
+		mesa.pegarGarfos(assento.filosofo);
+	}
+}
@@ -0,0 +1,158 @@
+package Jantar;
+
+import java.util.SplittableRandom;
+
+// Gerador de carga: quanto tempo (em ns) cada filósofo pensa e come.
+// Cada assento tem seu próprio SplittableRandom, derivado da semente mestre e do número do
+// assento, então a sequência de um filósofo não depende de quem criou primeiro a thread e
+// o gerador não é disputado entre threads (ao contrário do Math.random(), que é global).
+// Mesma semente + mesmas distribuições = mesmos tempos por assento em qualquer execução.
+public final class CargaDeTrabalho {
+	// Distribuições
+	public static final int UNIFORME = 1; // [0, 2 x média)
+	public static final int EXPONENCIAL = 2; // sem memória, média dada
+	public static final int PARETO = 3; // cauda pesada (alfa 1,5), mesma média
+	public static final int RAJADA = 4; // liga/desliga: 10 tempos curtos e 1 longo, mesma média
+	public static final int ZERO = 5; // sem espera (estresse puro da mesa)
+
+	static final double ALFA_PARETO = 1.5;
+	static final double TETO_PARETO = 1_000; // corta a cauda em 1000 x a média
+	static final int TAMANHO_RAJADA = 10;
+	static final long SEMENTE_PADRAO = 42L;
+	static final String PADRAO = "uniforme:50"; // o antigo Math.random() * 100 ms
+
+	private static final long GAMA = 0x9E3779B97F4A7C15L;
+
+	private final long semente;
+	private final int distPensar;
+	private final long mediaPensar; // ns
+	private final int distComer;
+	private final long mediaComer; // ns
+
+	public CargaDeTrabalho(long semente, int distPensar, long mediaPensarNanos, int distComer, long mediaComerNanos) {
+		if (mediaPensarNanos < 0 || mediaComerNanos < 0)
+			throw new IllegalArgumentException("Média negativa na carga de trabalho");
+		this.semente = semente;
+		this.distPensar = validar(distPensar);
+		this.mediaPensar = mediaPensarNanos;
+		this.distComer = validar(distComer);
+		this.mediaComer = mediaComerNanos;
+	}
+
+	// -Djantar.semente=S, -Djantar.pensar=dist[:média_ms], -Djantar.comer=dist[:média_ms]
+	public static CargaDeTrabalho dasPropriedades() {
+		String pensar = System.getProperty("jantar.pensar", PADRAO);
+		String comer = System.getProperty("jantar.comer", PADRAO);
+		return new CargaDeTrabalho(Long.getLong("jantar.semente", SEMENTE_PADRAO), distribuicaoPorNome(nome(pensar)),
+				mediaNanos(pensar), distribuicaoPorNome(nome(comer)), mediaNanos(comer));
+	}
+
+	public static int distribuicaoPorNome(String nome) {
+		return switch (nome.toLowerCase()) {
+		case "uniforme" -> UNIFORME;
+		case "exponencial" -> EXPONENCIAL;
+		case "pareto" -> PARETO;
+		case "rajada" -> RAJADA;
+		case "zero" -> ZERO;
+		default -> throw new IllegalArgumentException("Distribuição desconhecida: " + nome);
+		};
+	}
+
+	private static int validar(int dist) {
+		if (dist < UNIFORME || dist > ZERO)
+			throw new IllegalArgumentException("Distribuição desconhecida: " + dist);
+		return dist;
+	}
+
+	private static String nome(String especificacao) {
+		int i = especificacao.indexOf(':');
+		return i < 0 ? especificacao : especificacao.substring(0, i);
+	}
+
+	// "exponencial:2.5" -> 2,5 ms; sem média, usa 50 ms
+	private static long mediaNanos(String especificacao) {
+		int i = especificacao.indexOf(':');
+		double ms = i < 0 ? 50 : Double.parseDouble(especificacao.substring(i + 1));
+		return Math.round(ms * 1_000_000);
+	}
+
+	public long getSemente() {
+		return semente;
+	}
+
+	public String descricao() {
+		return "pensar " + descrever(distPensar, mediaPensar) + ", comer " + descrever(distComer, mediaComer)
+				+ ", semente " + semente;
+	}
+
+	private static String descrever(int dist, long media) {
+		String nome = switch (dist) {
+		case UNIFORME -> "uniforme";
+		case EXPONENCIAL -> "exponencial";
+		case PARETO -> "pareto";
+		case RAJADA -> "rajada";
+		default -> "zero";
+		};
+		return dist == ZERO ? nome : nome + " " + HistogramaLatencia.formatar(media);
+	}
+
+	// Gerador do assento: usado só pela thread do filósofo, então não precisa de sincronização
+	public Gerador gerador(int filosofo) {
+		return new Gerador(this, new SplittableRandom(misturar(semente + GAMA * (filosofo + 1))));
+	}
+
+	// Finalizador do MurmurHash3: espalha sementes vizinhas por todo o ciclo do gerador
+	private static long misturar(long z) {
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return z ^ (z >>> 33);
+	}
+
+	public static final class Gerador {
+		private final CargaDeTrabalho carga;
+		private final SplittableRandom aleatorio;
+		private int rajadaPensar; // posição no ciclo liga/desliga
+		private int rajadaComer;
+
+		Gerador(CargaDeTrabalho carga, SplittableRandom aleatorio) {
+			this.carga = carga;
+			this.aleatorio = aleatorio;
+		}
+
+		public long proximoPensar() {
+			int posicao = rajadaPensar;
+			rajadaPensar = posicao == TAMANHO_RAJADA ? 0 : posicao + 1;
+			return sortear(carga.distPensar, carga.mediaPensar, posicao);
+		}
+
+		public long proximoComer() {
+			int posicao = rajadaComer;
+			rajadaComer = posicao == TAMANHO_RAJADA ? 0 : posicao + 1;
+			return sortear(carga.distComer, carga.mediaComer, posicao);
+		}
+
+		private long sortear(int dist, long media, int posicao) {
+			if (media == 0)
+				return 0;
+			return switch (dist) {
+			case UNIFORME -> (long) (aleatorio.nextDouble() * 2 * media);
+			case EXPONENCIAL -> exponencial(media);
+			case PARETO -> {
+				// x_m escolhido para a média ser `media`: E[X] = alfa * x_m / (alfa - 1)
+				double xm = media * (ALFA_PARETO - 1) / ALFA_PARETO;
+				double x = xm / Math.pow(1.0 - aleatorio.nextDouble(), 1.0 / ALFA_PARETO);
+				yield (long) Math.min(x, media * TETO_PARETO);
+			}
+			case RAJADA -> {
+				// (10 tempos de média/10 + 1 de 10 x média) / 11 = média
+				yield posicao < TAMANHO_RAJADA ? exponencial(media / 10) : exponencial(media * TAMANHO_RAJADA);
+			}
+			default -> 0;
+			};
+		}
+
+		private long exponencial(long media) {
+			return (long) (-media * Math.log(1.0 - aleatorio.nextDouble()));
+		}
+	}
+}
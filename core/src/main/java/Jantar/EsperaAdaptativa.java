@@ -0,0 +1,74 @@
+package Jantar;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Espera adaptativa antes de bloquear: gira (Thread.onSpinWait), depois cede (Thread.yield)
+// e só então devolve o controle ao motor, que estaciona (await/park) como antes.
+//
+// O orçamento vem da média móvel (EWMA, peso 1/8) de quanto tempo cada garfo fica em uso:
+// refeições curtas valem um giro de até ~2x a média; refeições longas vão direto para o
+// bloqueio, porque girar só queimaria CPU. Com um único núcleo girar nunca ajuda (quem
+// segura o garfo não roda enquanto giramos), então sobra só o yield.
+final class EsperaAdaptativa {
+	static final long NANOS_POR_GIRO = 40; // custo aproximado de um onSpinWait
+	static final int MAX_GIROS = 4_096;
+	static final long LIMITE_GIRO_NANOS = 50_000; // acima disso não gira
+	static final long LIMITE_CEDER_NANOS = 1_000_000; // acima disso nem cede
+	static final int CEDENCIAS = 4;
+	static final boolean UM_NUCLEO = Runtime.getRuntime().availableProcessors() == 1;
+
+	private static final VarHandle CELULA = MethodHandles.arrayElementVarHandle(long[].class);
+
+	private final int nrGarfos;
+	private final int primeiro; // posseMedia[0] é o garfo `primeiro` (faixa local, ver Mesa)
+	private final long[] posseMedia; // EWMA em ns, por garfo
+
+	EsperaAdaptativa(int nrGarfos) {
+		this(nrGarfos, 0, nrGarfos);
+	}
+
+	// Só os `quantos` garfos a partir de `primeiro` (dando a volta no anel) têm média
+	EsperaAdaptativa(int nrGarfos, int primeiro, int quantos) {
+		this.nrGarfos = nrGarfos;
+		this.primeiro = primeiro;
+		posseMedia = new long[quantos];
+	}
+
+	private int indice(int garfo) {
+		int i = garfo - primeiro;
+		return i < 0 ? i + nrGarfos : i;
+	}
+
+	// Chamado por quem devolve os garfos, uma vez por garfo, com a duração da refeição
+	void registrarPosse(int garfo, long nanos) {
+		int i = indice(garfo);
+		long media = (long) CELULA.getOpaque(posseMedia, i);
+		CELULA.setOpaque(posseMedia, i, media + ((nanos - media) >> 3));
+	}
+
+	long media(int esq, int dir) {
+		return Math.max((long) CELULA.getOpaque(posseMedia, indice(esq)), (long) CELULA.getOpaque(posseMedia, indice(dir)));
+	}
+
+	// true se mesa.sondarGarfos deu certo durante o giro/yield
+	boolean girar(Mesa mesa, int filosofo, int esq, int dir) {
+		long media = media(esq, dir);
+		if (!UM_NUCLEO && media <= LIMITE_GIRO_NANOS) {
+			int giros = (int) Math.min(MAX_GIROS, Math.max(1, 2 * media / NANOS_POR_GIRO));
+			for (int i = 0; i < giros; i++) {
+				Thread.onSpinWait();
+				if (mesa.sondarGarfos(filosofo, esq, dir))
+					return true;
+			}
+		}
+		if (media <= LIMITE_CEDER_NANOS) {
+			for (int i = 0; i < CEDENCIAS; i++) {
+				Thread.yield();
+				if (mesa.sondarGarfos(filosofo, esq, dir))
+					return true;
+			}
+		}
+		return false;
+	}
+}
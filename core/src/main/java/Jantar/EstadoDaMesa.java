@@ -0,0 +1,355 @@
+package Jantar;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Estado, contabilidade, trace e painel comuns a toda mesa: estados dos assentos, garfos,
+// Metricas, Rastro, log binário e perfil. Não pega garfo nenhum: a Mesa (e os motores que
+// derivam dela) põe os filósofos para comer, e as mesas só de relatório (servidor de garfos,
+// simulação, reprodução de log) movem o estado por conta própria e mostram o mesmo painel.
+abstract class EstadoDaMesa implements RelatorioDaMesa {
+	public static final int PENSANDO = 1;
+	public static final int COMENDO = 2;
+	public static final int FOME = 3;
+	static final int MAX_TRACE = 50;
+	static final int MAX_COLUNAS_TRACE = 10; // filósofos/garfos mostrados por linha de trace
+	static final int MAX_LINHAS_PAINEL = 20; // filósofos listados por seção do painel final
+
+	// Políticas de admissão no refeitório (mordomo)
+	public static final int ADMISSAO_UNICA = 1; // um filósofo por vez (modo original, só para comparação)
+	public static final int ADMISSAO_GARCOM = 2; // mordomo clássico: no máximo N-1 filósofos à mesa
+	public static final int ADMISSAO_LIVRE = 3; // sem mordomo; garfos pegos em ordem/atomicamente
+
+	private static final VarHandle GARFO = MethodHandles.arrayElementVarHandle(boolean[].class);
+	private static final VarHandle ESTADO = MethodHandles.arrayElementVarHandle(int[].class);
+
+	final int nrFilosofos;
+	// Assentos que rodam nesta JVM, [primeiroLocal, fimLocal): a mesa inteira, ou a faixa de uma
+	// MesaRemota / MesaCompartilhada; o painel só lista esses. Tudo o que é por assento só cobre
+	// essa faixa: filosofos tem um estado por assento local e garfos os garfos deles (um a mais,
+	// o direito do último); indiceAssento/indiceGarfo traduzem os ids da mesa inteira
+	final int primeiroLocal;
+	final int fimLocal;
+	private final int nrGarfos;
+	final boolean[] garfos;
+	final int[] filosofos;
+	final Metricas metricas; // refeições e esperas por filósofo, sem trava
+	private volatile JanelaDeslizante janelas; // criada no primeiro uso (a faixa local vem das subclasses)
+	private final int admissao;
+
+	// Compartilhados por todos os motores (Mesa, MesaListrada, ...), que nem sempre usam o monitor da Mesa
+	final AtomicInteger execucoesDetalhadas = new AtomicInteger(); // passa de MAX_TRACE e para
+	private final AtomicInteger detalhesConcluidos = new AtomicInteger(); // ver detalheConcluido
+	final Rastro rastro;
+
+	// Modo em lote: com os garfos na mão o filósofo come até `lote` refeições seguidas
+	// (ou até o quantum acabar) antes de devolver; 1 = uma refeição por aquisição.
+	static final int LOTE_PADRAO = Integer.getInteger("jantar.lote", 1);
+	static final long QUANTUM_PADRAO_NANOS = Long.getLong("jantar.lote.quantum.ms", 0L) * 1_000_000L;
+	private volatile int lote = LOTE_PADRAO;
+	private volatile long quantumLoteNanos = QUANTUM_PADRAO_NANOS; // 0 = sem limite de tempo
+
+	// Log binário opcional de todos os eventos (null = desligado). Definido antes de as threads
+	// começarem (Thread.start publica o valor), então o caminho quente lê um campo comum.
+	private GravadorEventos gravador;
+	// Perfil de contenção por garfo (null = desligado); mesma regra de publicação do gravador
+	private PerfilGarfos perfil;
+
+	// nrGarfos != nrFilosofos só na MesaGrafo (um garfo por recurso do grafo); [primeiro, fim)
+	// são os assentos desta JVM
+	EstadoDaMesa(int nrFilosofos, int nrGarfos, int primeiro, int fim, int admissao, int atrasoTraceMs) {
+		if (nrFilosofos < 2)
+			throw new IllegalArgumentException("A mesa precisa de pelo menos 2 filósofos: " + nrFilosofos);
+		if (primeiro < 0 || fim <= primeiro || fim > nrFilosofos)
+			throw new IllegalArgumentException(
+					"Assentos fora da mesa de " + nrFilosofos + ": " + primeiro + ".." + (fim - 1));
+		if (admissao != ADMISSAO_UNICA && admissao != ADMISSAO_GARCOM && admissao != ADMISSAO_LIVRE)
+			throw new IllegalArgumentException("Política de admissão desconhecida: " + admissao);
+		this.nrFilosofos = nrFilosofos;
+		this.primeiroLocal = primeiro;
+		this.fimLocal = fim;
+		this.admissao = admissao;
+		this.nrGarfos = nrGarfos;
+		int locais = fim - primeiro;
+		int garfosLocais = locais == nrFilosofos ? nrGarfos : locais + 1;
+		this.garfos = new boolean[garfosLocais];
+		this.filosofos = new int[locais];
+		this.metricas = new Metricas(nrFilosofos, primeiro, fim);
+		this.rastro = new Rastro(primeiro, nrGarfos, locais, garfosLocais, Rastro.CAPACIDADE_PADRAO,
+				Rastro.POLITICA_PADRAO, atrasoTraceMs);
+		for (int i = 0; i < locais; ++i)
+			filosofos[i] = PENSANDO;
+		for (int g = 0; g < garfosLocais; ++g)
+			garfos[g] = true;
+	}
+
+	// Posição do assento em filosofos[] e do garfo em garfos[]; na mesa inteira, o próprio id
+	final int indiceAssento(int filosofo) {
+		return filosofo - primeiroLocal;
+	}
+
+	final int indiceGarfo(int garfo) {
+		int i = garfo - primeiroLocal;
+		return i < 0 ? i + nrFilosofos : i; // o direito do último assento da mesa é o garfo 0
+	}
+
+	// Converte o nome usado na linha de comando para a política de admissão
+	public static int admissaoPorNome(String nome) {
+		return switch (nome.toLowerCase()) {
+		case "unica" -> ADMISSAO_UNICA;
+		case "garcom" -> ADMISSAO_GARCOM;
+		case "livre" -> ADMISSAO_LIVRE;
+		default -> throw new IllegalArgumentException("Política de admissão desconhecida: " + nome);
+		};
+	}
+
+	public int getNrFilosofos() {
+		return nrFilosofos;
+	}
+
+	public int getAdmissao() {
+		return admissao;
+	}
+
+	public String nomeAdmissao() {
+		return switch (admissao) {
+		case ADMISSAO_UNICA -> "única (1 por vez)";
+		case ADMISSAO_GARCOM -> "garçom (N-1 = " + (nrFilosofos - 1) + ")";
+		case ADMISSAO_LIVRE -> "livre (sem mordomo)";
+		default -> "?";
+		};
+	}
+
+	// Linhas extras do motor nas estatísticas gerais (ex.: fragmentos da MesaFragmentada)
+	String[] detalhesMotor() {
+		return new String[0];
+	}
+
+	// Linhas do modo justo na análise de fairness (vazio fora do monitor com prazo)
+	String[] detalhesJustica() {
+		return new String[0];
+	}
+
+	// Benchmarks: nenhuma execução é detalhada, o Rastro não recebe eventos e a thread dele termina
+	public void desligarRastro() {
+		execucoesDetalhadas.set(MAX_TRACE + 1);
+		rastro.desligar();
+	}
+
+	public long getTotalRefeicoes() {
+		return metricas.getTotalRefeicoes();
+	}
+
+	public Metricas getMetricas() {
+		return metricas;
+	}
+
+	public Metricas.Instantaneo instantaneo() {
+		return metricas.instantaneo();
+	}
+
+	// Agregados por janela dos assentos locais; o relógio das janelas começa na criação
+	public JanelaDeslizante janelas() {
+		JanelaDeslizante j = janelas;
+		if (j == null) {
+			synchronized (metricas) {
+				j = janelas;
+				if (j == null)
+					janelas = j = new JanelaDeslizante(metricas, primeiroLocal, fimLocal);
+			}
+		}
+		return j;
+	}
+
+	// Até `refeicoes` por aquisição; quantumNanos > 0 também limita quanto tempo os garfos ficam na mão
+	public void setLote(int refeicoes, long quantumNanos) {
+		if (refeicoes < 1 || quantumNanos < 0)
+			throw new IllegalArgumentException("Lote inválido: " + refeicoes + " refeições, quantum " + quantumNanos);
+		this.lote = refeicoes;
+		this.quantumLoteNanos = quantumNanos;
+	}
+
+	public int getLote() {
+		return lote;
+	}
+
+	public long getQuantumLote() {
+		return quantumLoteNanos;
+	}
+
+	// Liga o log binário de eventos; chamar antes de iniciar os filósofos
+	public void setGravador(GravadorEventos gravador) {
+		this.gravador = gravador;
+	}
+
+	public GravadorEventos getGravador() {
+		return gravador;
+	}
+
+	// Liga o perfil de contenção por garfo; chamar antes de iniciar os filósofos
+	public void setPerfil(PerfilGarfos perfil) {
+		this.perfil = perfil;
+	}
+
+	public PerfilGarfos getPerfil() {
+		return perfil;
+	}
+
+	// ===== Contabilidade comum aos motores de garfos =====
+
+	// Uma espera = uma vez que o filósofo teve de bloquear (mordomo ou garfo)
+	void registrarEspera(int filosofo) {
+		metricas.registrarEspera(filosofo);
+		gravar(GravadorEventos.ESPERA, filosofo);
+		// só espera por garfo (com fome); a do mordomo vem antes de marcarFome
+		if (perfil != null && filosofos[indiceAssento(filosofo)] == FOME)
+			perfilEsperou(filosofo);
+	}
+
+	// FOME: marca o início da latência FOME → COMENDO
+	void marcarFome(int filosofo) {
+		metricas.marcarFome(filosofo);
+		gravar(GravadorEventos.FOME, filosofo);
+		filosofos[indiceAssento(filosofo)] = FOME;
+	}
+
+	// Chamado pelo dono dos garfos logo após passar a COMENDO
+	void registrarRefeicao(int filosofo, int esq, int dir) {
+		metricas.registrarRefeicao(filosofo); // também zera as esperas da rodada
+		gravar(GravadorEventos.COMECOU, filosofo);
+		perfilPegou(filosofo);
+
+		// Só enfileira o evento; a thread do Rastro é quem imprime (fora de qualquer trava da mesa)
+		if (execucoesDetalhadas.get() <= MAX_TRACE) {
+			int execucao = execucoesDetalhadas.incrementAndGet();
+			if (execucao <= MAX_TRACE) {
+				rastro.publicar(Rastro.COMECOU_COMER, filosofo, esq, dir, execucao, filosofos, garfos);
+				detalheConcluido();
+			} else if (execucao == MAX_TRACE + 1) {
+				rastro.publicar(Rastro.LIMITE, filosofo, esq, dir, execucao);
+				detalheConcluido();
+			}
+		}
+	}
+
+	// Uma das MAX_TRACE execuções detalhadas (ou o aviso de LIMITE) terminou de publicar. A
+	// última desliga o Rastro: depois do limite ninguém mais publica, e o consumidor imprime o
+	// que falta e termina em vez de acordar a cada 1 ms até o fim do programa
+	void detalheConcluido() {
+		if (detalhesConcluidos.incrementAndGet() == MAX_TRACE + 1)
+			rastro.desligar();
+	}
+
+	// Próxima refeição do lote, sem passar pela mesa (chamado por quem já está COMENDO)
+	public void registrarRefeicaoExtra(int filosofo) {
+		metricas.registrarRefeicaoExtra(filosofo);
+		gravar(GravadorEventos.EXTRA, filosofo);
+	}
+
+	void registrarDevolucao(int filosofo) {
+		gravar(GravadorEventos.DEVOLVEU, filosofo);
+		perfilDevolveu(filosofo);
+		if (execucoesDetalhadas.get() < MAX_TRACE) {
+			rastro.publicar(Rastro.TERMINOU, filosofo, Rastro.CONJUNTO, 0, 0); // a linha não mostra garfos
+		}
+	}
+
+	// Ganchos do PerfilGarfos, também usados pela MesaAlternativa (que não passa pelos registrar*)
+	void perfilPegou(int filosofo) {
+		PerfilGarfos p = perfil;
+		if (p != null)
+			p.pegou(this, filosofo);
+	}
+
+	void perfilDevolveu(int filosofo) {
+		PerfilGarfos p = perfil;
+		if (p != null)
+			p.devolveu(this, filosofo);
+	}
+
+	void perfilEsperou(int filosofo) {
+		PerfilGarfos p = perfil;
+		if (p != null)
+			p.esperou(this, filosofo);
+	}
+
+	// Sempre na thread do filósofo: o GravadorEventos conta com isso. O registro só tem dois
+	// campos de garfo: um assento com outro número de recursos (MesaGrafo) vai sem garfos
+	void gravar(int tipo, int filosofo) {
+		GravadorEventos g = gravador;
+		if (g == null)
+			return;
+		if (grauDoAssento(filosofo) == 2)
+			g.gravar(tipo, filosofo, recursoDoAssento(filosofo, 0), recursoDoAssento(filosofo, 1));
+		else
+			g.gravar(tipo, filosofo, GravadorEventos.SEM_GARFO, GravadorEventos.SEM_GARFO);
+	}
+
+	// ===== Leitura ao vivo (MetricasAoVivo): opaque, sem trava, só do lado de quem observa =====
+
+	public int[] contarEstados() {
+		int[] contagens = new int[FOME + 1];
+		for (int i = 0; i < filosofos.length; i++)
+			contagens[(int) ESTADO.getOpaque(filosofos, i)]++;
+		return contagens;
+	}
+
+	// Da mesa inteira (os ids vão até nrGarfos() - 1), mesmo quando garfos[] só cobre a faixa local
+	public int nrGarfos() {
+		return nrGarfos;
+	}
+
+	public boolean isGarfosDoAnel() {
+		return true;
+	}
+
+	public int garfosEmUso() {
+		int emUso = 0;
+		for (int i = 0; i < garfos.length; i++)
+			if (!(boolean) GARFO.getOpaque(garfos, i))
+				emUso++;
+		return emUso;
+	}
+
+	// Par de garfos do anel, para os motores que pegam esquerdo e direito
+	public final int garfoEsquerdo(int filosofo) {
+		return filosofo;
+	}
+
+	public final int garfoDireito(int filosofo) {
+		return (filosofo + 1) % nrFilosofos;
+	}
+
+	// Recursos que o assento segura ao comer: recursoDoAssento(f, 0 .. grauDoAssento(f) - 1).
+	// No anel, os garfos esquerdo e direito; a MesaGrafo devolve o conjunto do GrafoConflitos.
+	// Os ganchos comuns (log, perfil, espera adaptativa) só olham os recursos por aqui
+	int grauDoAssento(int filosofo) {
+		return 2;
+	}
+
+	int recursoDoAssento(int filosofo, int i) {
+		return i == 0 ? garfoEsquerdo(filosofo) : garfoDireito(filosofo);
+	}
+
+	// Garfos do assento para o painel (ROTAÇÃO DOS GARFOS)
+	String garfosDoAssento(int filosofo) {
+		return String.format("Garfo %d (esquerdo) e Garfo %d (direito)", garfoEsquerdo(filosofo),
+				garfoDireito(filosofo));
+	}
+
+	// === Impressão alinhada ===
+	public void imprimeEstadosFilosofos() {
+		System.out.println(Rastro.linhaEstados(filosofos, 0, Math.min(filosofos.length, MAX_COLUNAS_TRACE),
+				filosofos.length, primeiroLocal));
+	}
+
+	public void imprimeGarfos() {
+		System.out.println(Rastro.linhaGarfos(garfos, 0, Math.min(garfos.length, MAX_COLUNAS_TRACE), garfos.length,
+				primeiroLocal, nrGarfos));
+	}
+
+	public void imprimirEstatisticasFinais() {
+		new PainelEstatisticas(this).imprimir();
+	}
+}
@@ -0,0 +1,82 @@
+package Jantar;
+
+import java.util.concurrent.TimeUnit;
+
+// Runnable (e não mais Thread) para poder rodar tanto em threads de plataforma
+// quanto em threads virtuais; quem cria a thread é o Main.
+// Os tempos de pensar/comer (ns) vêm do gerador do próprio assento (CargaDeTrabalho).
+public class Filosofos implements Runnable {
+    final String nome;
+    MesaDeJantar mesa;
+    int filosofo;
+    final CargaDeTrabalho.Gerador carga;
+
+    public Filosofos(String nome, MesaDeJantar mesadejantar, int fil) {
+        this(nome, mesadejantar, fil, CargaDeTrabalho.dasPropriedades());
+    }
+
+    public Filosofos(String nome, MesaDeJantar mesadejantar, int fil, CargaDeTrabalho carga) {
+        this.nome = nome;
+        this.mesa = mesadejantar;
+        this.filosofo = fil;
+        this.carga = carga.gerador(fil);
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void run() {
+        try {
+            while (!Thread.interrupted()) {
+                pensar(carga.proximoPensar());
+
+                boolean entrou = false;
+                boolean pegou = false;
+                try {
+                    mesa.entrarNoRefeitorio(filosofo); // << agora passa o id
+                    entrou = true;
+                    mesa.pegarGarfos(filosofo);
+                    pegou = true;
+
+                    comer(carga.proximoComer());
+                    comerEmLote();
+                } finally {
+                    if (pegou) {
+                        mesa.returningGarfos(filosofo);
+                    }
+                    // só devolve a permissão que realmente pegou (senão o mordomo "ganha" vagas)
+                    if (entrou) {
+                        mesa.sairDoRefeitorio();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            System.out.println("Filósofo " + (filosofo + 1) + " interrompido e finalizando.");
+        }
+    }
+
+    // Modo em lote: segue comendo sem devolver os garfos, até o lote ou o quantum acabar
+    private void comerEmLote() throws InterruptedException {
+        int lote = mesa.getLote();
+        if (lote <= 1)
+            return;
+        long quantum = mesa.getQuantumLote();
+        long inicio = System.nanoTime();
+        for (int i = 1; i < lote; i++) {
+            if (quantum > 0 && System.nanoTime() - inicio >= quantum)
+                break;
+            mesa.registrarRefeicaoExtra(filosofo);
+            comer(carga.proximoComer());
+        }
+    }
+
+    // Tempo zero (carga "zero") não dorme; a interrupção é vista no início do laço
+    public void pensar(long nanos) throws InterruptedException { dormir(nanos); }
+    public void comer(long nanos)  throws InterruptedException { dormir(nanos); }
+
+    private static void dormir(long nanos) throws InterruptedException {
+        if (nanos > 0)
+            TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+}
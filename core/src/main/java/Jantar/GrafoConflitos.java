@@ -0,0 +1,177 @@
+package Jantar;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Quem precisa de quê numa mesa generalizada (filósofos bebedores): cada pedido (assento)
+// declara o conjunto de recursos de que precisa a cada refeição, e dois pedidos conflitam
+// quando dividem ao menos um recurso. O anel clássico é o caso em que o pedido i usa i e i+1.
+//
+// Tudo em vetores int no formato CSR (linhas comprimidas), sem objetos por pedido:
+//   recursos[inicio[p] .. inicio[p+1])                 recursos do pedido p, em ordem crescente
+//   usuarios[inicioUsuarios[r] .. inicioUsuarios[r+1]) pedidos que usam o recurso r
+//   conflitos[inicioConflitos[p] .. inicioConflitos[p+1]) pedidos que dividem algo com p
+public final class GrafoConflitos {
+	static final String PADRAO = System.getProperty("jantar.grafo", "anel");
+
+	final int nrPedidos;
+	final int nrRecursos;
+	final int[] inicio;
+	final int[] recursos;
+	final int[] inicioUsuarios;
+	final int[] usuarios;
+	final int[] inicioConflitos;
+	final int[] conflitos;
+	private final String descricao;
+
+	// inicio tem nrPedidos + 1 posições (inicio[0] = 0); as linhas são copiadas, ordenadas e
+	// sem repetição, então quem chama pode reaproveitar os vetores
+	public GrafoConflitos(int nrRecursos, int[] inicio, int[] recursos) {
+		this(nrRecursos, inicio, recursos, "CSR do usuário");
+	}
+
+	private GrafoConflitos(int nrRecursos, int[] inicio, int[] recursos, String descricao) {
+		int pedidos = inicio.length - 1;
+		if (pedidos < 2)
+			throw new IllegalArgumentException("O grafo precisa de pelo menos 2 pedidos: " + pedidos);
+		if (nrRecursos < 1 || inicio[0] != 0 || inicio[pedidos] > recursos.length)
+			throw new IllegalArgumentException("CSR de recursos inválido");
+		this.nrPedidos = pedidos;
+		this.nrRecursos = nrRecursos;
+		this.descricao = descricao;
+		this.inicio = new int[pedidos + 1];
+		int[] limpos = new int[inicio[pedidos]];
+		int n = 0;
+		for (int p = 0; p < pedidos; p++) {
+			if (inicio[p + 1] <= inicio[p])
+				throw new IllegalArgumentException("Pedido " + p + " sem recursos");
+			int[] linha = Arrays.copyOfRange(recursos, inicio[p], inicio[p + 1]);
+			Arrays.sort(linha);
+			for (int k = 0; k < linha.length; k++) {
+				if (linha[k] < 0 || linha[k] >= nrRecursos)
+					throw new IllegalArgumentException("Recurso fora do grafo no pedido " + p + ": " + linha[k]);
+				if (k == 0 || linha[k] != linha[k - 1])
+					limpos[n++] = linha[k];
+			}
+			this.inicio[p + 1] = n;
+		}
+		this.recursos = Arrays.copyOf(limpos, n);
+
+		// recurso -> pedidos (contagem e depois preenchimento)
+		inicioUsuarios = new int[nrRecursos + 1];
+		for (int i = 0; i < n; i++)
+			inicioUsuarios[this.recursos[i] + 1]++;
+		for (int r = 0; r < nrRecursos; r++)
+			inicioUsuarios[r + 1] += inicioUsuarios[r];
+		usuarios = new int[n];
+		int[] proximo = Arrays.copyOf(inicioUsuarios, nrRecursos);
+		for (int p = 0; p < pedidos; p++)
+			for (int i = this.inicio[p]; i < this.inicio[p + 1]; i++)
+				usuarios[proximo[this.recursos[i]]++] = p;
+
+		// pedido -> pedidos em conflito; `visto` marca com o pedido atual para não repetir vizinho
+		inicioConflitos = new int[pedidos + 1];
+		int[] visto = new int[pedidos];
+		Arrays.fill(visto, -1);
+		int[] saida = new int[Math.max(16, n)];
+		int total = 0;
+		for (int p = 0; p < pedidos; p++) {
+			visto[p] = p;
+			for (int i = this.inicio[p]; i < this.inicio[p + 1]; i++) {
+				int r = this.recursos[i];
+				for (int u = inicioUsuarios[r]; u < inicioUsuarios[r + 1]; u++) {
+					int outro = usuarios[u];
+					if (visto[outro] == p)
+						continue;
+					visto[outro] = p;
+					if (total == saida.length)
+						saida = Arrays.copyOf(saida, saida.length * 2);
+					saida[total++] = outro;
+				}
+			}
+			inicioConflitos[p + 1] = total;
+		}
+		conflitos = Arrays.copyOf(saida, total);
+	}
+
+	// O anel clássico: pedido i usa os recursos i e (i + 1) % n
+	public static GrafoConflitos anel(int n) {
+		int[] inicio = new int[n + 1];
+		int[] recursos = new int[2 * n];
+		for (int i = 0; i < n; i++) {
+			inicio[i + 1] = 2 * (i + 1);
+			recursos[2 * i] = i;
+			recursos[2 * i + 1] = (i + 1) % n;
+		}
+		return new GrafoConflitos(n, inicio, recursos, "anel");
+	}
+
+	// Cada pedido sorteia `porPedido` recursos distintos entre `nrRecursos`:
+	// porPedido pequeno perto de nrRecursos = grafo esparso; grande = denso
+	public static GrafoConflitos aleatorio(int pedidos, int nrRecursos, int porPedido, long semente) {
+		if (porPedido < 1 || porPedido > nrRecursos)
+			throw new IllegalArgumentException("Recursos por pedido inválido: " + porPedido + " de " + nrRecursos);
+		SplittableRandom aleatorio = new SplittableRandom(semente);
+		int[] inicio = new int[pedidos + 1];
+		int[] recursos = new int[pedidos * porPedido];
+		int[] sorteado = new int[nrRecursos];
+		Arrays.fill(sorteado, -1);
+		int n = 0;
+		for (int p = 0; p < pedidos; p++) {
+			for (int k = 0; k < porPedido;) {
+				int r = aleatorio.nextInt(nrRecursos);
+				if (sorteado[r] == p)
+					continue;
+				sorteado[r] = p;
+				recursos[n++] = r;
+				k++;
+			}
+			inicio[p + 1] = n;
+		}
+		return new GrafoConflitos(nrRecursos, inicio, recursos,
+				"aleatório, " + porPedido + " por pedido");
+	}
+
+	// -Djantar.grafo=anel | aleatorio:R:K (R recursos, K por pedido; semente em -Djantar.semente)
+	public static GrafoConflitos dasPropriedades(int pedidos) {
+		String[] partes = PADRAO.toLowerCase().split(":");
+		return switch (partes[0]) {
+		case "anel" -> anel(pedidos);
+		case "aleatorio" -> {
+			if (partes.length != 3)
+				throw new IllegalArgumentException("Use -Djantar.grafo=aleatorio:recursos:porPedido, não " + PADRAO);
+			yield aleatorio(pedidos, Integer.parseInt(partes[1]), Integer.parseInt(partes[2]),
+					Long.getLong("jantar.semente", 42L));
+		}
+		default -> throw new IllegalArgumentException("Grafo de conflitos desconhecido: " + PADRAO);
+		};
+	}
+
+	public int getNrPedidos() {
+		return nrPedidos;
+	}
+
+	public int getNrRecursos() {
+		return nrRecursos;
+	}
+
+	public int grau(int pedido) {
+		return inicio[pedido + 1] - inicio[pedido];
+	}
+
+	public int conflitosDe(int pedido) {
+		return inicioConflitos[pedido + 1] - inicioConflitos[pedido];
+	}
+
+	public double recursosPorPedido() {
+		return (double) recursos.length / nrPedidos;
+	}
+
+	public double conflitosPorPedido() {
+		return (double) conflitos.length / nrPedidos;
+	}
+
+	public String descricao() {
+		return descricao;
+	}
+}
@@ -0,0 +1,174 @@
+package Jantar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Log binário de eventos da mesa num arquivo mapeado em memória (MappedByteBuffer).
+// Registros de tamanho fixo (TAMANHO_REGISTRO = 24 bytes, little-endian):
+//   long instante (ns desde a abertura) | int filósofo | int tipo | int garfo esq | int garfo dir
+// O motor grafo pega um conjunto de recursos por assento, que não cabe aí: grava SEM_GARFO,
+// e o cabeçalho diz qual dos dois arranjos o log tem (GARFOS_ANEL ou GARFOS_CONJUNTO).
+// O cabeçalho ocupa os três primeiros registros (ver LeitorEventos).
+//
+// Cada filósofo reserva blocos de BLOCO registros com um único getAndAdd e preenche o bloco
+// sozinho (só a thread do assento grava eventos dele), então o custo por evento é um
+// nanoTime e cinco escritas na página mapeada. Os registros de um assento saem em ordem no
+// arquivo; entre assentos a ordem é por bloco, e quem relê ordena pelo instante quando precisa.
+// Quando o arquivo enche, todos param de gravar (inclusive no meio do bloco), para o fim do
+// log ser o mesmo instante para todos os assentos.
+// Sobras de bloco ficam zeradas (tipo 0) e são puladas na leitura, inclusive num arquivo de um
+// processo que morreu antes do fechar().
+public final class GravadorEventos {
+	// Tipos de evento
+	public static final int ENTRADA = 1; // pediu vaga ao mordomo
+	public static final int ENTROU = 2; // mordomo deixou entrar
+	public static final int FOME = 3; // começou a querer os garfos
+	public static final int ESPERA = 4; // teve de bloquear (mordomo ou garfo)
+	public static final int COMECOU = 5; // pegou os garfos e come
+	public static final int EXTRA = 6; // refeição seguinte do lote, sem soltar os garfos
+	public static final int DEVOLVEU = 7; // soltou os garfos
+
+	public static final int SEM_GARFO = -1; // campos de garfo de um motor fora do anel (grafo)
+
+	// Arranjo dos garfos no cabeçalho
+	static final int GARFOS_ANEL = 1; // esq/dir de cada registro são os garfos do anel
+	static final int GARFOS_CONJUNTO = 2; // conjunto de recursos por assento (grafo): SEM_GARFO
+
+	static final int TAMANHO_REGISTRO = 24;
+	static final int REGISTROS_CABECALHO = 3; // 72 bytes de cabeçalho
+	static final long MAGICO = 0x474C52544E414A4AL; // "JJANTRLG" em little-endian
+	static final int VERSAO = 2; // 2: arranjo dos garfos no cabeçalho e nome do motor com 32 bytes
+	static final int TAMANHO_NOME = 32;
+	static final int BLOCO = 64; // registros reservados por vez por filósofo
+	static final int BITS_SEGMENTO = 25; // 2^25 registros (768 MiB) por mapeamento
+	static final long CAPACIDADE_PADRAO = Long.getLong("jantar.log.eventos", 1L << 22);
+
+	private static final VarHandle CELULA = MethodHandles.arrayElementVarHandle(long[].class);
+	private static final int PASSO = 8; // longs por cursor = 64 bytes, sem compartilhamento falso
+	private static final int PROXIMO = 0;
+	private static final int LIMITE = 1;
+
+	private final Path arquivo;
+	private final FileChannel canal;
+	private final MappedByteBuffer[] segmentos;
+	private final long capacidade; // registros, contando o cabeçalho
+	private final int nrFilosofos;
+	private final long inicio = System.nanoTime();
+	private final AtomicLong reservados = new AtomicLong(REGISTROS_CABECALHO);
+	private final LongAdder descartados = new LongAdder();
+	private volatile boolean cheio; // o primeiro bloco negado para todos: o log termina junto para a mesa
+	private final long[] cursores; // por filósofo: próximo registro livre e fim do bloco
+
+	// garfosDoAnel = false no motor grafo (ver GARFOS_CONJUNTO)
+	public GravadorEventos(Path arquivo, int nrFilosofos, int admissao, String motor, boolean garfosDoAnel) {
+		this(arquivo, nrFilosofos, admissao, motor, garfosDoAnel, CAPACIDADE_PADRAO);
+	}
+
+	public GravadorEventos(Path arquivo, int nrFilosofos, int admissao, String motor, boolean garfosDoAnel,
+			long eventos) {
+		if (eventos < 1)
+			throw new IllegalArgumentException("Capacidade do log inválida: " + eventos);
+		this.arquivo = arquivo;
+		this.nrFilosofos = nrFilosofos;
+		this.capacidade = eventos + REGISTROS_CABECALHO;
+		this.cursores = new long[(nrFilosofos + 2) * PASSO];
+		try {
+			canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+			int n = (int) ((capacidade + (1L << BITS_SEGMENTO) - 1) >>> BITS_SEGMENTO);
+			segmentos = new MappedByteBuffer[n];
+			for (int s = 0; s < n; s++) {
+				long primeiro = (long) s << BITS_SEGMENTO;
+				long registros = Math.min(1L << BITS_SEGMENTO, capacidade - primeiro);
+				segmentos[s] = canal.map(FileChannel.MapMode.READ_WRITE, primeiro * TAMANHO_REGISTRO,
+						registros * TAMANHO_REGISTRO);
+				segmentos[s].order(ByteOrder.LITTLE_ENDIAN);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Não foi possível criar o log de eventos " + arquivo, e);
+		}
+		escreverCabecalho(admissao, garfosDoAnel ? GARFOS_ANEL : GARFOS_CONJUNTO);
+		escreverMotor(motor);
+	}
+
+	// ===== Escrita (thread do filósofo) =====
+
+	public void gravar(int tipo, int filosofo, int esq, int dir) {
+		if (cheio) {
+			descartados.increment();
+			return;
+		}
+		int c = (filosofo + 1) * PASSO;
+		long registro = (long) CELULA.getOpaque(cursores, c + PROXIMO);
+		if (registro == (long) CELULA.getOpaque(cursores, c + LIMITE)) {
+			registro = reservados.getAndAdd(BLOCO);
+			if (registro >= capacidade) {
+				cheio = true;
+				descartados.increment();
+				return;
+			}
+			CELULA.setOpaque(cursores, c + LIMITE, Math.min(registro + BLOCO, capacidade));
+		}
+		CELULA.setOpaque(cursores, c + PROXIMO, registro + 1);
+		MappedByteBuffer segmento = segmentos[(int) (registro >>> BITS_SEGMENTO)];
+		int pos = (int) (registro & ((1L << BITS_SEGMENTO) - 1)) * TAMANHO_REGISTRO;
+		segmento.putLong(pos, System.nanoTime() - inicio);
+		segmento.putInt(pos + 8, filosofo);
+		segmento.putInt(pos + 16, esq);
+		segmento.putInt(pos + 20, dir);
+		segmento.putInt(pos + 12, tipo); // por último: tipo != 0 marca o registro como completo
+	}
+
+	public long getDescartados() {
+		return descartados.sum();
+	}
+
+	public Path getArquivo() {
+		return arquivo;
+	}
+
+	// Grava o cabeçalho final e força as páginas para o disco; depois disso não grave mais
+	public void fechar() {
+		long usados = Math.min(reservados.get(), capacidade) - REGISTROS_CABECALHO;
+		MappedByteBuffer cabecalho = segmentos[0];
+		cabecalho.putLong(16, usados);
+		cabecalho.putLong(24, descartados.sum());
+		for (MappedByteBuffer s : segmentos)
+			s.force();
+		try {
+			canal.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Não foi possível fechar o log de eventos " + arquivo, e);
+		}
+	}
+
+	// Bytes 0..39: mágico | versão | filósofos | registros | descartados | admissão | arranjo dos
+	// garfos. Registros e descartados ficam 0 até o fechar()
+	private void escreverCabecalho(int admissao, int arranjo) {
+		MappedByteBuffer c = segmentos[0];
+		c.putLong(0, MAGICO);
+		c.putInt(8, VERSAO);
+		c.putInt(12, nrFilosofos);
+		c.putLong(16, 0L);
+		c.putLong(24, 0L);
+		c.putInt(32, admissao);
+		c.putInt(36, arranjo);
+	}
+
+	// Nome do motor (até TAMANHO_NOME bytes ASCII, o resto zerado) nos bytes 40..71; só para o
+	// painel da reprodução, o leitor não decide nada por ele
+	private void escreverMotor(String motor) {
+		MappedByteBuffer c = segmentos[0];
+		for (int i = 0; i < TAMANHO_NOME; i++)
+			c.put(40 + i, i < motor.length() && motor.charAt(i) < 128 ? (byte) motor.charAt(i) : 0);
+	}
+}
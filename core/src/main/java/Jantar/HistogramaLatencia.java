@@ -0,0 +1,176 @@
+package Jantar;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Histogramas de latência (ns) em baldes log-lineares, no estilo do HdrHistogram:
+// cada potência de 2 é dividida em SUB baldes iguais, então o erro relativo fica abaixo
+// de 1/SUB (6,25%) de 1 ns até MAX_NANOS, com um vetor fixo de BALDES contadores.
+//
+// Um objeto guarda vários histogramas (um por grupo) num único long[] pré-alocado; gravar
+// não aloca nada. Até MAX_GRUPOS assentos cada filósofo tem o seu (escrita simples, só o dono
+// escreve); acima disso os assentos dividem grupos (assento % MAX_GRUPOS) e a escrita passa
+// a ser atômica. Histogramas se somam balde a balde, então mesclar assentos é exato.
+public class HistogramaLatencia {
+	static final int SUB_BITS = 4;
+	static final int SUB = 1 << SUB_BITS; // baldes por potência de 2
+	static final int MAX_EXPOENTE = 36; // 2^37 ns ≈ 137 s; acima disso cai no último balde
+	static final int BALDES = (MAX_EXPOENTE - SUB_BITS + 2) * SUB;
+	static final long MAX_NANOS = (1L << (MAX_EXPOENTE + 1)) - 1;
+	static final int MAX_GRUPOS = 1024;
+
+	private static final int MAXIMO = BALDES; // posição extra por grupo: maior valor exato
+	private static final int PASSO = BALDES + 1;
+	private static final VarHandle CELULA = MethodHandles.arrayElementVarHandle(long[].class);
+
+	private final int grupos;
+	private final boolean exclusivo; // um escritor por grupo?
+	private final long[] contagens; // grupos * PASSO
+
+	public HistogramaLatencia(int nrFilosofos) {
+		this.grupos = Math.min(nrFilosofos, MAX_GRUPOS);
+		this.exclusivo = nrFilosofos <= MAX_GRUPOS;
+		this.contagens = new long[grupos * PASSO];
+	}
+
+	public int grupo(int filosofo) {
+		return filosofo % grupos;
+	}
+
+	public boolean isExclusivo() {
+		return exclusivo;
+	}
+
+	// ===== Gravação (caminho quente) =====
+
+	public void gravar(int filosofo, long nanos) {
+		if (nanos < 0)
+			nanos = 0;
+		int base = grupo(filosofo) * PASSO;
+		int i = base + balde(nanos);
+		int m = base + MAXIMO;
+		if (exclusivo) {
+			CELULA.setOpaque(contagens, i, (long) CELULA.getOpaque(contagens, i) + 1);
+			if (nanos > (long) CELULA.getOpaque(contagens, m))
+				CELULA.setOpaque(contagens, m, nanos);
+		} else {
+			CELULA.getAndAdd(contagens, i, 1L);
+			long atual;
+			while (nanos > (atual = (long) CELULA.getVolatile(contagens, m))
+					&& !CELULA.compareAndSet(contagens, m, atual, nanos)) {
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	static int balde(long nanos) {
+		if (nanos < SUB)
+			return (int) nanos;
+		int expoente = 63 - Long.numberOfLeadingZeros(nanos);
+		if (expoente > MAX_EXPOENTE)
+			return BALDES - 1;
+		int sub = (int) (nanos >>> (expoente - SUB_BITS)) & (SUB - 1);
+		return (expoente - SUB_BITS + 1) * SUB + sub;
+	}
+
+	// Maior valor que cai no balde (como o highestEquivalentValue do HdrHistogram)
+	static long limiteSuperior(int balde) {
+		if (balde < SUB)
+			return balde;
+		int expoente = balde / SUB + SUB_BITS - 1;
+		int sub = balde % SUB;
+		long largura = 1L << (expoente - SUB_BITS);
+		return ((long) (SUB + sub) << (expoente - SUB_BITS)) + largura - 1;
+	}
+
+	// ===== Leitura / mescla =====
+
+	// Copia o histograma de um grupo para um vetor [BALDES contagens..., máximo]
+	public long[] copiar(int grupo) {
+		long[] destino = new long[PASSO];
+		somarEm(grupo, destino);
+		return destino;
+	}
+
+	// Histograma sem nenhuma contagem, no mesmo formato de copiar
+	public static long[] vazio() {
+		return new long[PASSO];
+	}
+
+	// Soma de todos os grupos: o histograma da mesa inteira
+	public long[] mesclado() {
+		long[] destino = new long[PASSO];
+		for (int g = 0; g < grupos; g++)
+			somarEm(g, destino);
+		return destino;
+	}
+
+	private void somarEm(int grupo, long[] destino) {
+		int base = grupo * PASSO;
+		for (int b = 0; b < BALDES; b++)
+			destino[b] += (long) CELULA.getOpaque(contagens, base + b);
+		destino[MAXIMO] = Math.max(destino[MAXIMO], (long) CELULA.getOpaque(contagens, base + MAXIMO));
+	}
+
+	public static long contagem(long[] h) {
+		long total = 0;
+		for (int b = 0; b < BALDES; b++)
+			total += h[b];
+		return total;
+	}
+
+	public static long maximo(long[] h) {
+		return h[MAXIMO];
+	}
+
+	// Soma estimada pelo meio de cada balde (erro relativo < 1/(2 x SUB))
+	public static double soma(long[] h) {
+		double total = 0;
+		for (int b = 0; b < BALDES; b++) {
+			if (h[b] != 0) {
+				long inferior = b == 0 ? 0 : limiteSuperior(b - 1) + 1;
+				total += h[b] * ((inferior + limiteSuperior(b)) / 2.0);
+			}
+		}
+		return total;
+	}
+
+	// Percentil p (0..100) de um histograma copiado; 0 se estiver vazio
+	public static long percentil(long[] h, double p) {
+		long total = contagem(h);
+		if (total == 0)
+			return 0;
+		long alvo = Math.max(1, (long) Math.ceil(total * p / 100.0));
+		long acumulado = 0;
+		for (int b = 0; b < BALDES; b++) {
+			acumulado += h[b];
+			if (acumulado >= alvo)
+				return Math.min(limiteSuperior(b), h[MAXIMO]);
+		}
+		return h[MAXIMO];
+	}
+
+	// ===== Painel =====
+
+	static String cabecalhoPainel() {
+		return String.format("%-14s%10s%10s%10s%10s", "", "p50", "p99", "p99.9", "max");
+	}
+
+	static String linhaPainel(String rotulo, long[] h) {
+		if (contagem(h) == 0)
+			return String.format("%-14s%10s", rotulo, "—");
+		return String.format("%-14s%10s%10s%10s%10s", rotulo, formatar(percentil(h, 50)), formatar(percentil(h, 99)),
+				formatar(percentil(h, 99.9)), formatar(maximo(h)));
+	}
+
+	// 850ns / 12.3µs / 4.56ms / 1.23s
+	public static String formatar(long nanos) {
+		if (nanos < 1_000)
+			return nanos + "ns";
+		if (nanos < 1_000_000)
+			return String.format("%.1fµs", nanos / 1e3);
+		if (nanos < 1_000_000_000)
+			return String.format("%.2fms", nanos / 1e6);
+		return String.format("%.2fs", nanos / 1e9);
+	}
+}
@@ -0,0 +1,399 @@
+package Jantar;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+// Estatísticas por janela de tempo (padrão 1 s), mantidas enquanto o jantar roda:
+// refeições e esperas por janela, spread de justiça (max - min das refeições) e assentos
+// em starvation. Nada varre a mesa: a Metricas enfileira cada assento que mudou e aqui só
+// se relê esses, com custo O(1) por assento lido.
+//
+// Spread em O(1): os assentos ficam em listas ligadas (vetores int) por contagem de
+// refeições, com a cabeça de cada lista numa tabela de espalhamento contagem -> assento
+// (no máximo um registro por assento, então a memória não cresce com o spread). Como as
+// contagens só sobem, min e max só andam para a frente.
+// A linha periódica, o MBean e o painel final leem estes mesmos agregados.
+public final class JanelaDeslizante {
+	static final long LARGURA_PADRAO_MS = Long.getLong("jantar.janela.ms", 1_000L);
+	static final int JANELAS_PADRAO = Integer.getInteger("jantar.janelas", 60); // guardadas no anel
+	static final int FATOR_STARVATION = 5; // esperas > 5 x refeições (heurística do painel)
+
+	private static final int NENHUM = -1;
+	private static final long VAZIA = -1L; // chave livre na tabela de contagens
+
+	private final Metricas metricas;
+	private final int primeiro;
+	private final int fim;
+	private final long larguraNanos;
+	private final long inicioNanos;
+	private Thread relator;
+	private boolean congelada; // depois de encerrar(): lê os assentos, mas não fecha mais janelas
+	private boolean varrer = true; // primeira atualização: relê a faixa toda (contagens de antes da janela)
+
+	// Último valor lido de cada assento (índice = assento - primeiro)
+	private final long[] refeicoes;
+	private final long[] esperas;
+	private final boolean[] emStarvation;
+	private final long[] ultimaJanelaComRefeicao; // janela + 1; 0 = nunca comeu
+	private int assentosEmStarvation;
+	private long totalRefeicoes;
+	private long totalEsperas;
+
+	// Listas por contagem de refeições: chaves[k] = contagem, cabecas[k] = primeiro assento
+	private final long[] chaves;
+	private final int[] cabecas;
+	private final int mascara;
+	private final int[] proximo;
+	private final int[] anterior;
+	private long minimo;
+	private long maximo;
+
+	// Janela aberta
+	private long janelaAtual;
+	private long refeicoesAbertas;
+	private long esperasAbertas;
+	private int comeramNaJanela;
+
+	// Anel das janelas fechadas (índice = janela % tamanho)
+	private final long[] refeicoesJanela;
+	private final long[] esperasJanela;
+	private final long[] spreadJanela;
+	private final int[] paradosJanela; // assentos sem nenhuma refeição na janela
+	private final int[] starvationJanela;
+	private long primeiraJanelaRefeicoes = -1;
+
+	public JanelaDeslizante(Metricas metricas, int primeiro, int fim) {
+		this(metricas, primeiro, fim, LARGURA_PADRAO_MS * 1_000_000L, JANELAS_PADRAO);
+	}
+
+	public JanelaDeslizante(Metricas metricas, int primeiro, int fim, long larguraNanos, int janelas) {
+		if (larguraNanos <= 0 || janelas < 1)
+			throw new IllegalArgumentException("Janela inválida: " + larguraNanos + " ns x " + janelas);
+		int locais = fim - primeiro;
+		this.metricas = metricas;
+		this.primeiro = primeiro;
+		this.fim = fim;
+		this.larguraNanos = larguraNanos;
+		this.inicioNanos = System.nanoTime();
+		this.refeicoes = new long[locais];
+		this.esperas = new long[locais];
+		this.emStarvation = new boolean[locais];
+		this.ultimaJanelaComRefeicao = new long[locais];
+		this.proximo = new int[locais];
+		this.anterior = new int[locais];
+		// ocupação no máximo 1/2: no pior caso cada assento numa contagem diferente
+		int tamanho = Integer.highestOneBit(Math.max(8, locais) * 2 - 1) << 1;
+		this.chaves = new long[tamanho];
+		this.cabecas = new int[tamanho];
+		this.mascara = tamanho - 1;
+		Arrays.fill(chaves, VAZIA);
+		// todos começam com 0 refeições, na mesma lista
+		for (int i = locais - 1; i >= 0; i--)
+			inserir(i, 0);
+		this.refeicoesJanela = new long[janelas];
+		this.esperasJanela = new long[janelas];
+		this.spreadJanela = new long[janelas];
+		this.paradosJanela = new int[janelas];
+		this.starvationJanela = new int[janelas];
+		metricas.anexarConsumidor();
+	}
+
+	// ===== Relatório periódico =====
+
+	// Linha compacta em `saida` a cada janela fechada (saida null: só mantém os agregados)
+	public synchronized void iniciar(PrintStream saida) {
+		if (relator != null)
+			return;
+		relator = new Thread(() -> relatar(saida), "janela-deslizante");
+		relator.setDaemon(true);
+		relator.start();
+	}
+
+	// Fim do jantar: fecha as janelas até agora e para o relógio, para que o tempo de desligar
+	// as threads não vire janelas vazias no painel (as refeições seguintes ainda entram nos totais)
+	public void encerrar() {
+		Thread t;
+		synchronized (this) {
+			atualizar(System.nanoTime());
+			congelada = true;
+			t = relator;
+			relator = null;
+		}
+		if (t == null)
+			return;
+		t.interrupt();
+		try {
+			t.join(1_000L);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void relatar(PrintStream saida) {
+		try {
+			long vistas = 0;
+			while (!Thread.currentThread().isInterrupted()) {
+				// acorda logo depois da próxima borda de janela
+				long desde = System.nanoTime() - inicioNanos;
+				long espera = larguraNanos - desde % larguraNanos + 1_000_000L;
+				Thread.sleep(espera / 1_000_000L, (int) (espera % 1_000_000L));
+				String linha;
+				synchronized (this) {
+					atualizar(System.nanoTime());
+					linha = janelaAtual > vistas ? linhaCompacta() : null;
+					vistas = janelaAtual;
+				}
+				if (linha != null && saida != null)
+					saida.println(linha);
+			}
+		} catch (InterruptedException e) {
+			// encerrar(): sai em silêncio
+		}
+	}
+
+	// ===== Atualização (um consumidor por vez) =====
+
+	// Lê os assentos que mudaram e fecha as janelas que já passaram de `agora`
+	public synchronized void atualizar(long agora) {
+		if (varrer) {
+			// quem contou sem ver a janela anexada e depois desta leitura volta à fila no próximo evento
+			varrer = false;
+			for (int i = 0; i < fim - primeiro; i++)
+				absorver(i, primeiro + i);
+		}
+		int f;
+		while ((f = metricas.proximoSujo()) >= 0)
+			if (f >= primeiro && f < fim)
+				absorver(f - primeiro, f);
+		long janela = (agora - inicioNanos) / larguraNanos;
+		while (!congelada && janelaAtual < janela)
+			fecharJanela();
+	}
+
+	private void absorver(int i, int filosofo) {
+		long r = metricas.refeicoes(filosofo);
+		long e = metricas.esperas(filosofo);
+		if (r != refeicoes[i]) {
+			refeicoesAbertas += r - refeicoes[i];
+			totalRefeicoes += r - refeicoes[i];
+			mover(i, refeicoes[i], r);
+			refeicoes[i] = r;
+			if (ultimaJanelaComRefeicao[i] != janelaAtual + 1) {
+				ultimaJanelaComRefeicao[i] = janelaAtual + 1;
+				comeramNaJanela++;
+			}
+		}
+		esperasAbertas += e - esperas[i];
+		totalEsperas += e - esperas[i];
+		esperas[i] = e;
+		boolean faminto = e > r * FATOR_STARVATION;
+		if (faminto != emStarvation[i]) {
+			emStarvation[i] = faminto;
+			assentosEmStarvation += faminto ? 1 : -1;
+		}
+	}
+
+	private void fecharJanela() {
+		int k = (int) (janelaAtual % refeicoesJanela.length);
+		refeicoesJanela[k] = refeicoesAbertas;
+		esperasJanela[k] = esperasAbertas;
+		spreadJanela[k] = maximo - minimo;
+		paradosJanela[k] = fim - primeiro - comeramNaJanela;
+		starvationJanela[k] = assentosEmStarvation;
+		if (janelaAtual == 0)
+			primeiraJanelaRefeicoes = refeicoesAbertas;
+		refeicoesAbertas = 0;
+		esperasAbertas = 0;
+		comeramNaJanela = 0;
+		janelaAtual++;
+	}
+
+	// ===== Listas por contagem =====
+
+	private void mover(int i, long de, long para) {
+		remover(i, de);
+		inserir(i, para);
+		if (para > maximo)
+			maximo = para;
+		while (cabeca(minimo) == NENHUM)
+			minimo++; // para no próprio assento, no pior caso
+	}
+
+	private int cabeca(long contagem) {
+		int k = procurar(contagem);
+		return k >= 0 ? cabecas[k] : NENHUM;
+	}
+
+	private void inserir(int i, long contagem) {
+		int k = procurar(contagem);
+		if (k < 0) {
+			k = ~k;
+			chaves[k] = contagem;
+			cabecas[k] = NENHUM;
+		}
+		anterior[i] = NENHUM;
+		proximo[i] = cabecas[k];
+		if (cabecas[k] != NENHUM)
+			anterior[cabecas[k]] = i;
+		cabecas[k] = i;
+	}
+
+	private void remover(int i, long contagem) {
+		if (proximo[i] != NENHUM)
+			anterior[proximo[i]] = anterior[i];
+		if (anterior[i] != NENHUM) {
+			proximo[anterior[i]] = proximo[i];
+			return;
+		}
+		int k = procurar(contagem);
+		cabecas[k] = proximo[i];
+		if (cabecas[k] == NENHUM)
+			apagar(k);
+	}
+
+	// Posição da contagem na tabela, ou ~posição livre onde ela entraria (sondagem linear)
+	private int procurar(long contagem) {
+		int k = espalhar(contagem);
+		while (chaves[k] != VAZIA) {
+			if (chaves[k] == contagem)
+				return k;
+			k = (k + 1) & mascara;
+		}
+		return ~k;
+	}
+
+	// Remoção sem lápide: puxa para trás quem ficaria inalcançável depois do buraco
+	private void apagar(int buraco) {
+		int j = buraco;
+		while (true) {
+			j = (j + 1) & mascara;
+			if (chaves[j] == VAZIA)
+				break;
+			int ideal = espalhar(chaves[j]);
+			boolean alcancavel = buraco <= j ? buraco < ideal && ideal <= j : buraco < ideal || ideal <= j;
+			if (alcancavel)
+				continue;
+			chaves[buraco] = chaves[j];
+			cabecas[buraco] = cabecas[j];
+			buraco = j;
+		}
+		chaves[buraco] = VAZIA;
+	}
+
+	private int espalhar(long contagem) {
+		return (int) ((contagem * 0x9E3779B97F4A7C15L) >>> 32) & mascara;
+	}
+
+	// ===== Leitura (painel, MBean, linha periódica) =====
+
+	public synchronized long getTotalRefeicoes() {
+		return totalRefeicoes;
+	}
+
+	public synchronized long getTotalEsperas() {
+		return totalEsperas;
+	}
+
+	public synchronized long getMinimo() {
+		return minimo;
+	}
+
+	public synchronized long getMaximo() {
+		return maximo;
+	}
+
+	// Um assento com o mínimo / máximo de refeições (o último a chegar nessa contagem)
+	public synchronized int assentoMinimo() {
+		return primeiro + cabeca(minimo);
+	}
+
+	public synchronized int assentoMaximo() {
+		return primeiro + cabeca(maximo);
+	}
+
+	public synchronized int getAssentosEmStarvation() {
+		return assentosEmStarvation;
+	}
+
+	public synchronized long getJanelasFechadas() {
+		return janelaAtual;
+	}
+
+	public long getLarguraNanos() {
+		return larguraNanos;
+	}
+
+	// Janelas ainda no anel: [janelaAtual - guardadas(), janelaAtual)
+	public synchronized int guardadas() {
+		return (int) Math.min(janelaAtual, refeicoesJanela.length);
+	}
+
+	private int indice(long janela) {
+		return (int) (janela % refeicoesJanela.length);
+	}
+
+	// Da última janela fechada (zeros antes da primeira)
+	public synchronized double refeicoesPorSegundo() {
+		return janelaAtual == 0 ? 0.0 : porSegundo(refeicoesJanela[indice(janelaAtual - 1)]);
+	}
+
+	public synchronized double esperasPorSegundo() {
+		return janelaAtual == 0 ? 0.0 : porSegundo(esperasJanela[indice(janelaAtual - 1)]);
+	}
+
+	public synchronized long spread() {
+		return janelaAtual == 0 ? 0 : spreadJanela[indice(janelaAtual - 1)];
+	}
+
+	public synchronized int parados() {
+		return janelaAtual == 0 ? 0 : paradosJanela[indice(janelaAtual - 1)];
+	}
+
+	// Refeições/s da primeira janela do jantar (-1 se nenhuma fechou)
+	public synchronized double refeicoesPorSegundoIniciais() {
+		return primeiraJanelaRefeicoes < 0 ? -1.0 : porSegundo(primeiraJanelaRefeicoes);
+	}
+
+	// {mínimo, média, máximo} de refeições/s entre as janelas guardadas
+	public synchronized double[] vazaoDasJanelas() {
+		int n = guardadas();
+		if (n == 0)
+			return new double[3];
+		long menor = Long.MAX_VALUE, maior = 0, soma = 0;
+		for (long j = janelaAtual - n; j < janelaAtual; j++) {
+			long r = refeicoesJanela[indice(j)];
+			menor = Math.min(menor, r);
+			maior = Math.max(maior, r);
+			soma += r;
+		}
+		return new double[] { porSegundo(menor), porSegundo(soma) / n, porSegundo(maior) };
+	}
+
+	// Maior spread e quantas janelas tiveram assento parado, entre as guardadas
+	public synchronized long maiorSpread() {
+		long maior = 0;
+		for (long j = janelaAtual - guardadas(); j < janelaAtual; j++)
+			maior = Math.max(maior, spreadJanela[indice(j)]);
+		return maior;
+	}
+
+	public synchronized int janelasComParados() {
+		int n = 0;
+		for (long j = janelaAtual - guardadas(); j < janelaAtual; j++)
+			if (paradosJanela[indice(j)] > 0)
+				n++;
+		return n;
+	}
+
+	private double porSegundo(long contagem) {
+		return contagem * 1e9 / larguraNanos;
+	}
+
+	// [  12s]  21345 refeições/s |   312 esperas/s | spread 14 | parados 0 | starvation 0
+	synchronized String linhaCompacta() {
+		int k = indice(janelaAtual - 1);
+		return String.format("[%5.0fs] %7.0f refeições/s | %6.0f esperas/s | spread %d | parados %d | starvation %d",
+				janelaAtual * larguraNanos / 1e9, porSegundo(refeicoesJanela[k]), porSegundo(esperasJanela[k]),
+				spreadJanela[k], paradosJanela[k], starvationJanela[k]);
+	}
+}
@@ -0,0 +1,324 @@
+package Jantar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Leitura offline do log do GravadorEventos: reproduz os eventos numa mesa de mentira para
+// refazer o painel final (as mesmas Metricas, com os instantes do log) e monta a linha do
+// tempo de cada garfo (quem segurou, quando, por quanto tempo), conferindo que dois vizinhos
+// nunca seguraram o mesmo garfo ao mesmo tempo.
+//
+// Os eventos de um filósofo estão em ordem no arquivo, então uma passada em ordem de arquivo
+// basta para as métricas; só as posses de cada garfo (de dois assentos) são ordenadas depois.
+// Log do motor grafo (garfos SEM_GARFO): só as métricas; o estado dos recursos não está no log.
+public final class LeitorEventos {
+	static final int LARGURA_LINHA_DO_TEMPO = 40;
+
+	private final Path arquivo;
+	private final int nrFilosofos;
+	private final int admissao;
+	private final String motor;
+	private final long registros; // 0 no cabeçalho = processo não fechou o log: lê o arquivo todo
+	private final long descartadosNaGravacao;
+	private final boolean fechado;
+	private final boolean garfosDoAnel; // do cabeçalho; false: motor grafo, sem linha do tempo de garfos
+
+	// Resultado da reprodução
+	private MesaReproduzida mesa;
+	private long lidos, primeiro = Long.MAX_VALUE, ultimo;
+	private long[] usos, ocupadoNanos, maiorPosse; // por garfo
+	private Posses[] posses; // só dos primeiros Mesa.MAX_LINHAS_PAINEL garfos
+	private long sobreposicoes;
+
+	private static final int ABERTA = -1; // posse sem devolução no log
+
+	// Posses de um garfo: [início, fim) e quem segurou (ABERTA se o log acabou antes)
+	private static final class Posses {
+		long[] inicio = new long[16];
+		long[] fim = new long[16];
+		int[] filosofo = new int[16];
+		int tamanho;
+
+		void adicionar(long de, long ate, int f) {
+			if (tamanho == inicio.length) {
+				inicio = Arrays.copyOf(inicio, tamanho * 2);
+				fim = Arrays.copyOf(fim, tamanho * 2);
+				filosofo = Arrays.copyOf(filosofo, tamanho * 2);
+			}
+			inicio[tamanho] = de;
+			fim[tamanho] = ate;
+			filosofo[tamanho] = f;
+			tamanho++;
+		}
+	}
+
+	public LeitorEventos(Path arquivo) {
+		this.arquivo = arquivo;
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			MappedByteBuffer c = canal.map(FileChannel.MapMode.READ_ONLY, 0,
+					GravadorEventos.REGISTROS_CABECALHO * GravadorEventos.TAMANHO_REGISTRO);
+			c.order(ByteOrder.LITTLE_ENDIAN);
+			if (c.getLong(0) != GravadorEventos.MAGICO || c.getInt(8) != GravadorEventos.VERSAO)
+				throw new IllegalArgumentException("Não é um log de eventos do jantar (versão " + GravadorEventos.VERSAO
+						+ "): " + arquivo);
+			nrFilosofos = c.getInt(12);
+			long noCabecalho = c.getLong(16);
+			long noArquivo = canal.size() / GravadorEventos.TAMANHO_REGISTRO - GravadorEventos.REGISTROS_CABECALHO;
+			fechado = noCabecalho > 0;
+			registros = fechado ? Math.min(noCabecalho, noArquivo) : noArquivo;
+			descartadosNaGravacao = c.getLong(24);
+			admissao = c.getInt(32);
+			int arranjo = c.getInt(36);
+			if (arranjo != GravadorEventos.GARFOS_ANEL && arranjo != GravadorEventos.GARFOS_CONJUNTO)
+				throw new IllegalArgumentException("Arranjo de garfos desconhecido (" + arranjo + ") no log " + arquivo);
+			garfosDoAnel = arranjo == GravadorEventos.GARFOS_ANEL;
+			byte[] nome = new byte[GravadorEventos.TAMANHO_NOME];
+			c.get(40, nome);
+			int fim = 0;
+			while (fim < nome.length && nome[fim] != 0)
+				fim++;
+			motor = new String(nome, 0, fim, StandardCharsets.US_ASCII);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Não foi possível ler o log de eventos " + arquivo, e);
+		}
+	}
+
+	public int getNrFilosofos() {
+		return nrFilosofos;
+	}
+
+	public String getMotor() {
+		return motor;
+	}
+
+	// Uma passada pelo arquivo: métricas na mesa reproduzida e posses por garfo
+	public RelatorioDaMesa reproduzir() {
+		int garfos = garfosDoAnel ? nrFilosofos : 0;
+		mesa = new MesaReproduzida(nrFilosofos, garfos, admissao);
+		mesa.desligarRastro();
+		usos = new long[garfos];
+		ocupadoNanos = new long[garfos];
+		maiorPosse = new long[garfos];
+		posses = new Posses[Math.min(garfos, Mesa.MAX_LINHAS_PAINEL)];
+		for (int g = 0; g < posses.length; g++)
+			posses[g] = new Posses();
+		long[] entradaDesde = new long[nrFilosofos];
+		long[] posseDesde = new long[nrFilosofos];
+
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			long por = 1L << GravadorEventos.BITS_SEGMENTO;
+			for (long base = 0; base < registros; base += por) {
+				long quantos = Math.min(por, registros - base);
+				MappedByteBuffer b = canal.map(FileChannel.MapMode.READ_ONLY,
+						(base + GravadorEventos.REGISTROS_CABECALHO) * GravadorEventos.TAMANHO_REGISTRO,
+						quantos * GravadorEventos.TAMANHO_REGISTRO);
+				b.order(ByteOrder.LITTLE_ENDIAN);
+				for (int i = 0; i < quantos; i++) {
+					int pos = i * GravadorEventos.TAMANHO_REGISTRO;
+					int tipo = b.getInt(pos + 12);
+					if (tipo == 0)
+						continue; // sobra de bloco
+					aplicar(b.getLong(pos), b.getInt(pos + 8), tipo, b.getInt(pos + 16), b.getInt(pos + 20),
+							entradaDesde, posseDesde);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Não foi possível ler o log de eventos " + arquivo, e);
+		}
+
+		if (lidos == 0)
+			primeiro = 0;
+		// quem ainda comia no fim do log (log cheio ou não fechado) segura os garfos até o último
+		// instante; essas posses abertas entram na ocupação mas não na conferência de sobreposição
+		for (int f = 0; f < nrFilosofos && garfosDoAnel; f++) {
+			if (mesa.filosofos[f] == Mesa.COMENDO)
+				registrarPosse(f, mesa.garfoEsquerdo(f), mesa.garfoDireito(f), posseDesde[f], ultimo, true);
+		}
+		for (Posses p : posses)
+			sobreposicoes += ordenarEContarSobreposicoes(p);
+		return mesa;
+	}
+
+	private void aplicar(long t, int f, int tipo, int esq, int dir, long[] entradaDesde, long[] posseDesde) {
+		lidos++;
+		primeiro = Math.min(primeiro, t);
+		ultimo = Math.max(ultimo, t);
+		Metricas m = mesa.metricas;
+		switch (tipo) {
+		case GravadorEventos.ENTRADA -> entradaDesde[f] = t;
+		case GravadorEventos.ENTROU -> m.registrarEntrada(f, t - entradaDesde[f]);
+		case GravadorEventos.FOME -> {
+			m.marcarFome(f, t);
+			mesa.filosofos[f] = Mesa.FOME;
+		}
+		case GravadorEventos.ESPERA -> m.registrarEspera(f);
+		case GravadorEventos.COMECOU -> {
+			m.registrarRefeicao(f, t);
+			mesa.filosofos[f] = Mesa.COMENDO;
+			marcarGarfos(esq, dir, false);
+			posseDesde[f] = t;
+		}
+		case GravadorEventos.EXTRA -> m.registrarRefeicaoExtra(f);
+		case GravadorEventos.DEVOLVEU -> {
+			mesa.filosofos[f] = Mesa.PENSANDO;
+			marcarGarfos(esq, dir, true);
+			registrarPosse(f, esq, dir, posseDesde[f], t, false);
+		}
+		default -> throw new IllegalStateException("Tipo de evento desconhecido no log: " + tipo);
+		}
+	}
+
+	// Sem garfos do anel (grafo) o vetor é vazio e nada é marcado
+	private void marcarGarfos(int esq, int dir, boolean livres) {
+		if (esq >= 0 && esq < mesa.garfos.length)
+			mesa.garfos[esq] = livres;
+		if (dir >= 0 && dir < mesa.garfos.length)
+			mesa.garfos[dir] = livres;
+	}
+
+	private void registrarPosse(int f, int esq, int dir, long de, long ate, boolean aberta) {
+		for (int g : new int[] { esq, dir }) {
+			if (g < 0 || g >= usos.length)
+				continue;
+			long duracao = ate - de;
+			usos[g]++;
+			ocupadoNanos[g] += duracao;
+			maiorPosse[g] = Math.max(maiorPosse[g], duracao);
+			if (g < posses.length)
+				posses[g].adicionar(de, ate, aberta ? ABERTA : f);
+		}
+	}
+
+	// Ordena as posses pelo início e conta as que começam antes de a anterior terminar
+	private static long ordenarEContarSobreposicoes(Posses p) {
+		Integer[] ordem = new Integer[p.tamanho];
+		for (int i = 0; i < ordem.length; i++)
+			ordem[i] = i;
+		Arrays.sort(ordem, (a, b) -> Long.compare(p.inicio[a], p.inicio[b]));
+		long[] inicio = new long[p.tamanho], fim = new long[p.tamanho];
+		int[] filosofo = new int[p.tamanho];
+		long sobrepostas = 0, fimAnterior = Long.MIN_VALUE;
+		for (int i = 0; i < ordem.length; i++) {
+			inicio[i] = p.inicio[ordem[i]];
+			fim[i] = p.fim[ordem[i]];
+			filosofo[i] = p.filosofo[ordem[i]];
+			if (filosofo[i] == ABERTA)
+				continue;
+			if (inicio[i] < fimAnterior)
+				sobrepostas++;
+			fimAnterior = Math.max(fimAnterior, fim[i]);
+		}
+		p.inicio = inicio;
+		p.fim = fim;
+		p.filosofo = filosofo;
+		return sobrepostas;
+	}
+
+	// ===== Linha do tempo dos garfos =====
+
+	// Uma linha por garfo (até Mesa.MAX_LINHAS_PAINEL): uso e ocupação ao longo do log,
+	// █ = ocupado mais da metade da fatia, ▒ = parte dela, · = livre
+	public void imprimirLinhasDoTempo() {
+		if (mesa == null)
+			reproduzir();
+		long duracao = Math.max(1, ultimo - primeiro);
+		if (!garfosDoAnel) {
+			System.out.println("LINHA DO TEMPO DOS GARFOS: indisponível para o motor " + motor
+					+ " (cada assento pega um conjunto de recursos, que o log não guarda)");
+			return;
+		}
+		System.out.println("LINHA DO TEMPO DOS GARFOS (" + HistogramaLatencia.formatar(duracao) + " de log):");
+		for (int g = 0; g < posses.length; g++) {
+			long[] ocupado = new long[LARGURA_LINHA_DO_TEMPO];
+			Posses p = posses[g];
+			for (int i = 0; i < p.tamanho; i++)
+				espalhar(ocupado, p.inicio[i] - primeiro, p.fim[i] - primeiro, duracao);
+			StringBuilder barra = new StringBuilder(LARGURA_LINHA_DO_TEMPO);
+			for (int c = 0; c < LARGURA_LINHA_DO_TEMPO; c++) {
+				long fatia = fatiaFim(c, duracao) - fatiaFim(c - 1, duracao);
+				barra.append(ocupado[c] * 2 > fatia ? '█' : ocupado[c] > 0 ? '▒' : '·');
+			}
+			System.out.printf("Garfo %-4d |%s| %5.1f%% %7d usos, maior %s%n", g, barra,
+					100.0 * ocupadoNanos[g] / duracao, usos[g], HistogramaLatencia.formatar(maiorPosse[g]));
+		}
+		if (nrFilosofos > posses.length)
+			System.out.printf("... e mais %d garfos%n", nrFilosofos - posses.length);
+		System.out.printf("Posses sobrepostas (vizinhos com o mesmo garfo): %d%n", sobreposicoes);
+	}
+
+	private static long fatiaFim(int c, long duracao) {
+		return c < 0 ? 0 : duracao * (c + 1) / LARGURA_LINHA_DO_TEMPO;
+	}
+
+	// Soma a parte de [de, ate) que cai em cada coluna
+	private static void espalhar(long[] ocupado, long de, long ate, long duracao) {
+		int c = (int) Math.min(LARGURA_LINHA_DO_TEMPO - 1, de * LARGURA_LINHA_DO_TEMPO / duracao);
+		while (c < LARGURA_LINHA_DO_TEMPO && de < ate) {
+			long limite = fatiaFim(c, duracao);
+			long parte = Math.min(ate, limite) - de;
+			if (parte > 0) {
+				ocupado[c] += parte;
+				de += parte;
+			}
+			c++;
+		}
+	}
+
+	public long getSobreposicoes() {
+		return sobreposicoes;
+	}
+
+	// Posses do garfo no log (0 fora do anel)
+	long usos(int garfo) {
+		return garfo < usos.length ? usos[garfo] : 0;
+	}
+
+	boolean isGarfosDoAnel() {
+		return garfosDoAnel;
+	}
+
+	// ===== Mesa do painel =====
+
+	// Guarda o estado e as métricas refeitos a partir do log; só leitura
+	private final class MesaReproduzida extends EstadoDaMesa {
+		MesaReproduzida(int nrFilosofos, int nrGarfos, int admissao) {
+			super(nrFilosofos, nrGarfos, 0, nrFilosofos, admissao, 0);
+		}
+
+		@Override
+		public String nomeMotor() {
+			return motor + " (reprodução)";
+		}
+
+		@Override
+		public String nomeEspera() {
+			return "(não registrada no log)";
+		}
+
+		@Override
+		String[] detalhesMotor() {
+			return new String[] { String.format("Log de eventos:                %s", arquivo.getFileName()),
+					String.format("Eventos lidos:                 %d%s", lidos, fechado ? "" : " (log não fechado)"),
+					String.format("Descartados na gravação:       %d", descartadosNaGravacao),
+					String.format("Estado dos garfos:             %s", garfosDoAnel ? "reproduzido" : "fora do log (grafo)"),
+					String.format("Duração registrada:            %s", HistogramaLatencia.formatar(ultimo - primeiro)) };
+		}
+
+		@Override
+		public boolean isGarfosDoAnel() {
+			return garfosDoAnel;
+		}
+
+		@Override
+		String garfosDoAssento(int filosofo) {
+			return garfosDoAnel ? super.garfosDoAssento(filosofo) : "conjunto do grafo (fora do log)";
+		}
+	}
+}
@@ -0,0 +1,378 @@
+package Jantar;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Motor de referência (monitor: uma trava para a mesa toda e uma condição por assento) e base dos demais
+// motores, que herdam daqui o mordomo e a espera adaptativa; o estado, a contabilidade, o
+// trace e o painel final vêm de EstadoDaMesa.
+public class Mesa extends EstadoDaMesa implements MesaDeJantar {
+	public static final int NR_FILOSOFOS_PADRAO = 5;
+
+	// Estratégias de espera por garfo
+	public static final int ESPERA_BLOQUEANTE = 1; // bloqueia (await/park) na primeira falha
+	public static final int ESPERA_ADAPTATIVA = 2; // gira/cede conforme a duração recente das refeições
+	static final int ESPERA_PADRAO = esperaPorNome(System.getProperty("jantar.espera", "adaptativa"));
+
+	private static final VarHandle GARFO = MethodHandles.arrayElementVarHandle(boolean[].class);
+
+	// Trava + condições no lugar de synchronized/wait/notifyAll: em threads virtuais
+	// o monitor prende (pin) a thread carregadora enquanto espera, a ReentrantLock não.
+	// Cada assento espera na sua condição e quem devolve acorda só os dois vizinhos: com uma
+	// condição para a mesa toda, cada refeição acordaria (e faria disputar a trava) todos os
+	// que esperam, N² com milhares de assentos estacionados. As condições nascem na primeira
+	// espera de cada assento; os motores que trocam o pegarGarfos nunca as criam.
+	private final ReentrantLock trava = new ReentrantLock();
+	private Condition[] vez; // com a trava; null até a primeira espera
+
+	private final Semaphore mordomo; // null em ADMISSAO_LIVRE
+
+	private volatile int espera;
+	final EsperaAdaptativa adaptativa;
+
+	// Modo justo (só no monitor): quem espera mais que o prazo ganha prioridade e os vizinhos
+	// não pegam os garfos em comum até ele comer. Tudo protegido pela trava.
+	static final long PRAZO_PADRAO_NANOS = Long.getLong("jantar.prazo.ms", 0L) * 1_000_000L;
+	private static final long PRAZO_INDEFINIDO = -1L; // ainda não leu o padrão (ver prazo())
+	private long prazoNanos = PRAZO_INDEFINIDO; // 0 = desligado
+	private long[] fomeDesde; // criados junto com o primeiro prazo > 0
+	private boolean[] prioritario;
+	private long prioridadesAtivadas;
+	private long refeicoesAposPrazo;
+	private long esperaMaximaNanos;
+	private long excessoMaximoNanos; // quanto passou do prazo, no pior caso
+
+	public Mesa() {
+		this(NR_FILOSOFOS_PADRAO, ADMISSAO_GARCOM);
+	}
+
+	public Mesa(int nrFilosofos, int admissao) {
+		this(nrFilosofos, admissao, 0);
+	}
+
+	// atrasoTraceMs > 0: o Rastro espera entre mensagens (trace passo a passo da MesaAlternativa)
+	Mesa(int nrFilosofos, int admissao, int atrasoTraceMs) {
+		this(nrFilosofos, nrFilosofos, admissao, atrasoTraceMs, ESPERA_PADRAO);
+	}
+
+	// Só os assentos [primeiro, fim) do anel rodam nesta JVM (MesaRemota, MesaCompartilhada)
+	Mesa(int nrFilosofos, int primeiro, int fim, int admissao) {
+		this(nrFilosofos, nrFilosofos, primeiro, fim, admissao, 0, ESPERA_PADRAO);
+	}
+
+	// nrGarfos != nrFilosofos só na MesaGrafo (um garfo por recurso do grafo). A espera vem por
+	// aqui, e não por setEspera, para nenhuma subclasse ver o objeto pela metade
+	Mesa(int nrFilosofos, int nrGarfos, int admissao, int atrasoTraceMs, int espera) {
+		this(nrFilosofos, nrGarfos, 0, nrFilosofos, admissao, atrasoTraceMs, espera);
+	}
+
+	private Mesa(int nrFilosofos, int nrGarfos, int primeiro, int fim, int admissao, int atrasoTraceMs, int espera) {
+		super(nrFilosofos, nrGarfos, primeiro, fim, admissao, atrasoTraceMs);
+		if (espera != ESPERA_BLOQUEANTE && espera != ESPERA_ADAPTATIVA)
+			throw new IllegalArgumentException("Estratégia de espera desconhecida: " + espera);
+		// numa faixa do anel os assentos locais usam os garfos primeiro..fim (o último é do vizinho)
+		this.adaptativa = fim - primeiro == nrFilosofos ? new EsperaAdaptativa(nrGarfos)
+				: new EsperaAdaptativa(nrGarfos, primeiro, fim - primeiro + 1);
+		this.espera = espera;
+		this.mordomo = switch (admissao) {
+		case ADMISSAO_UNICA -> new Semaphore(1);
+		case ADMISSAO_GARCOM -> new Semaphore(nrFilosofos - 1);
+		default -> null;
+		};
+	}
+
+	public static int esperaPorNome(String nome) {
+		return switch (nome.toLowerCase()) {
+		case "bloqueante" -> ESPERA_BLOQUEANTE;
+		case "adaptativa" -> ESPERA_ADAPTATIVA;
+		default -> throw new IllegalArgumentException("Estratégia de espera desconhecida: " + nome);
+		};
+	}
+
+	// Nome do motor de garfos, sobrescrito pelas variantes (MesaListrada, ...)
+	public String nomeMotor() {
+		return "monitor (trava + condição)";
+	}
+
+	// Escolha por mesa; vale a partir da próxima espera
+	public void setEspera(int espera) {
+		if (espera != ESPERA_BLOQUEANTE && espera != ESPERA_ADAPTATIVA)
+			throw new IllegalArgumentException("Estratégia de espera desconhecida: " + espera);
+		this.espera = espera;
+	}
+
+	public int getEspera() {
+		return espera;
+	}
+
+	public String nomeEspera() {
+		return espera == ESPERA_ADAPTATIVA ? "adaptativa (giro → yield → park)" : "bloqueante";
+	}
+
+	// Prazo de justiça em ns (0 desliga). Os outros motores não têm estado central para isso.
+	public void setPrazoJustica(long nanos) {
+		if (nanos < 0)
+			throw new IllegalArgumentException("Prazo negativo: " + nanos);
+		if (nanos > 0 && !temPrazoJustica())
+			throw new IllegalStateException("Prazo de justiça só existe no motor monitor, não em: " + nomeMotor());
+		trava.lock();
+		try {
+			definirPrazo(nanos);
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	// O modo justo vive no pegarGarfos do monitor (cedeAVez, contabilizarPrazo), então só o
+	// próprio monitor o tem. Um motor derivado, que em geral troca o pegarGarfos e nem usa a
+	// trava, nasce sem prazo; se mantiver o pegarGarfos daqui, sobrescreve para true
+	boolean temPrazoJustica() {
+		return getClass() == Mesa.class;
+	}
+
+	// Com a trava. O padrão (-Djantar.prazo.ms) é lido no primeiro uso, e não no construtor,
+	// porque só então dá para perguntar temPrazoJustica() à subclasse
+	private long prazo() {
+		if (prazoNanos == PRAZO_INDEFINIDO)
+			definirPrazo(temPrazoJustica() ? PRAZO_PADRAO_NANOS : 0L);
+		return prazoNanos;
+	}
+
+	private void definirPrazo(long nanos) {
+		if (nanos > 0 && fomeDesde == null) {
+			fomeDesde = new long[nrFilosofos];
+			prioritario = new boolean[nrFilosofos];
+		}
+		prazoNanos = nanos;
+	}
+
+	public long getPrazoJustica() {
+		trava.lock();
+		try {
+			return prazo();
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	// >>> NOVO: conta espera pelo semáforo
+	// Com ADMISSAO_LIVRE não há mordomo: pegarGarfos pega os dois garfos de uma vez
+	// dentro do monitor (tudo-ou-nada), o que já impede o ciclo de espera.
+	public void entrarNoRefeitorio(int filosofo) throws InterruptedException {
+		// trace com política BLOQUEAR: a espera por vaga é aqui, antes de qualquer trava da mesa
+		if (execucoesDetalhadas.get() <= MAX_TRACE)
+			rastro.aguardarVaga();
+		if (mordomo == null)
+			return;
+		long inicio = System.nanoTime();
+		gravar(GravadorEventos.ENTRADA, filosofo);
+		if (!mordomo.tryAcquire()) {
+			// não havia permissão disponível: conta como 1 espera
+			registrarEspera(filosofo);
+			mordomo.acquire(); // agora bloqueia até liberar
+		}
+		// se conseguiu no tryAcquire, entrou sem esperar (não soma)
+		metricas.registrarEntrada(filosofo, System.nanoTime() - inicio);
+		gravar(GravadorEventos.ENTROU, filosofo);
+	}
+
+	public void sairDoRefeitorio() {
+		if (mordomo != null)
+			mordomo.release();
+	}
+
+	// Interrompido durante a espera: volta a PENSANDO sem garfos e propaga a interrupção,
+	// assim o Filosofos não "devolve" garfos que nunca pegou.
+	public void pegarGarfos(int filosofo) throws InterruptedException {
+		metricas.marcarFome(filosofo); // antes da trava: a disputa pelo monitor também conta
+		gravar(GravadorEventos.FOME, filosofo);
+		trava.lock();
+		try {
+			filosofos[filosofo] = FOME;
+			int esq = garfoEsquerdo(filosofo);
+			int dir = garfoDireito(filosofo);
+			boolean girar = espera == ESPERA_ADAPTATIVA;
+			long prazo = prazo();
+			if (prazo > 0)
+				fomeDesde[filosofo] = System.nanoTime();
+
+			// Mantém a contagem de espera também aqui
+			while (!garfos[esq] || !garfos[dir] || (prazo > 0 && cedeAVez(filosofo))) {
+				if (prazo > 0 && !prioritario[filosofo] && System.nanoTime() - fomeDesde[filosofo] >= prazo) {
+					prioritario[filosofo] = true; // passou do prazo: os vizinhos esperam por ele
+					prioridadesAtivadas++;
+					continue;
+				}
+				registrarEspera(filosofo);
+				if (girar) {
+					// gira fora da trava (o vizinho precisa dela para devolver) e confere de novo
+					girar = false;
+					trava.unlock();
+					try {
+						adaptativa.girar(this, filosofo, esq, dir);
+					} finally {
+						trava.lock();
+					}
+					continue;
+				}
+				try {
+					if (prazo > 0 && !prioritario[filosofo]) {
+						vez(filosofo).awaitNanos(fomeDesde[filosofo] + prazo - System.nanoTime());
+					} else {
+						vez(filosofo).await();
+					}
+				} catch (InterruptedException e) {
+					filosofos[filosofo] = PENSANDO;
+					if (prazo > 0 && prioritario[filosofo]) {
+						prioritario[filosofo] = false;
+						avisarVizinhos(filosofo); // vizinhos que cediam a vez podem tentar
+					}
+					throw e;
+				}
+			}
+
+			garfos[esq] = false;
+			garfos[dir] = false;
+			filosofos[filosofo] = COMENDO;
+			if (prazo > 0)
+				contabilizarPrazo(filosofo, prazo);
+
+			registrarRefeicao(filosofo, esq, dir);
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	// Com a trava: um vizinho prioritário (o mais antigo, se ambos forem) tem a vez
+	private boolean cedeAVez(int filosofo) {
+		int esq = (filosofo + nrFilosofos - 1) % nrFilosofos;
+		int dir = (filosofo + 1) % nrFilosofos;
+		return temPrecedencia(esq, filosofo) || temPrecedencia(dir, filosofo);
+	}
+
+	private boolean temPrecedencia(int vizinho, int filosofo) {
+		if (!prioritario[vizinho])
+			return false;
+		if (!prioritario[filosofo])
+			return true;
+		long a = fomeDesde[vizinho], b = fomeDesde[filosofo];
+		return a != b ? a - b < 0 : vizinho < filosofo;
+	}
+
+	private void contabilizarPrazo(int filosofo, long prazo) {
+		long esperou = System.nanoTime() - fomeDesde[filosofo];
+		esperaMaximaNanos = Math.max(esperaMaximaNanos, esperou);
+		if (esperou > prazo) {
+			refeicoesAposPrazo++;
+			excessoMaximoNanos = Math.max(excessoMaximoNanos, esperou - prazo);
+		}
+		prioritario[filosofo] = false;
+	}
+
+	public void returningGarfos(int filosofo) {
+		trava.lock();
+		try {
+			registrarDevolucao(filosofo);
+			filosofos[filosofo] = PENSANDO;
+			garfos[garfoEsquerdo(filosofo)] = true;
+			garfos[garfoDireito(filosofo)] = true;
+			avisarVizinhos(filosofo);
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	// ===== Trava e condições do monitor (também da MesaAlternativa) =====
+
+	final ReentrantLock trava() {
+		return trava;
+	}
+
+	// Com a trava: a condição em que o assento espera os garfos
+	final Condition vez(int filosofo) {
+		if (vez == null)
+			vez = new Condition[nrFilosofos];
+		Condition c = vez[filosofo];
+		if (c == null)
+			vez[filosofo] = c = trava.newCondition();
+		return c;
+	}
+
+	// Com a trava: acorda quem divide um garfo com o assento (os vizinhos do anel), se esperam
+	final void avisarVizinhos(int filosofo) {
+		if (vez == null)
+			return;
+		acordar((filosofo + nrFilosofos - 1) % nrFilosofos);
+		acordar((filosofo + 1) % nrFilosofos);
+	}
+
+	private void acordar(int filosofo) {
+		Condition c = vez[filosofo];
+		if (c != null)
+			c.signalAll();
+	}
+
+	// A duração da refeição alimenta a média de posse de cada garfo da EsperaAdaptativa
+	@Override
+	void registrarDevolucao(int filosofo) {
+		super.registrarDevolucao(filosofo);
+		if (espera == ESPERA_ADAPTATIVA) {
+			long nanos = metricas.duracaoRefeicao(filosofo);
+			for (int i = 0, grau = grauDoAssento(filosofo); i < grau; i++)
+				adaptativa.registrarPosse(recursoDoAssento(filosofo, i), nanos);
+		}
+	}
+
+	// Giro da EsperaAdaptativa: dica barata, sem trava, de que vale tentar de novo.
+	// Os motores sobrescrevem quando têm algo melhor (na MesaAtomica a sondagem já pega os garfos).
+	boolean sondarGarfos(int filosofo, int esq, int dir) {
+		return (boolean) GARFO.getAcquire(garfos, esq) && (boolean) GARFO.getAcquire(garfos, dir);
+	}
+
+	// Giro antes de bloquear, se a mesa usa espera adaptativa
+	boolean girarAntesDeBloquear(int filosofo, int esq, int dir) {
+		return espera == ESPERA_ADAPTATIVA && adaptativa.girar(this, filosofo, esq, dir);
+	}
+
+	// Contadores do modo justo (com a trava, como os escreve o pegarGarfos)
+	long getRefeicoesAposPrazo() {
+		trava.lock();
+		try {
+			return refeicoesAposPrazo;
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	long getEsperaMaximaNanos() {
+		trava.lock();
+		try {
+			return esperaMaximaNanos;
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	@Override
+	String[] detalhesJustica() {
+		if (!temPrazoJustica())
+			return new String[0];
+		trava.lock();
+		try {
+			long prazo = prazo();
+			if (prazo == 0)
+				return new String[] { "Prazo de justiça:             desligado (-Djantar.prazo.ms)" };
+			return new String[] {
+					String.format("Prazo de justiça:             %s", HistogramaLatencia.formatar(prazo)),
+					String.format("Prioridades ativadas:         %d", prioridadesAtivadas),
+					String.format("Refeições após o prazo:       %d", refeicoesAposPrazo),
+					String.format("Espera máxima (FOME→COMENDO): %s", HistogramaLatencia.formatar(esperaMaximaNanos)),
+					String.format("Maior excesso sobre o prazo:  %s", HistogramaLatencia.formatar(excessoMaximoNanos)) };
+		} finally {
+			trava.unlock();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package Jantar;
+
+// Variante didática: trace passo a passo (anúncio, pegou esquerdo, pegou direito, comendo,
+// terminou, devolveu), com um pequeno intervalo entre mensagens. Por padrão só um filósofo
+// por vez no refeitório.
+// Estado, métricas e painel vêm da Mesa, e também a trava e as condições por assento do monitor.
+public class MesaAlternativa extends Mesa {
+	static final int TRACE_DELAY_MS = 15; // pequeno intervalo entre mensagens
+
+	final int[] execucaoAtual; // nº da execução detalhada da refeição em curso (0 = sem trace)
+
+	public MesaAlternativa() {
+		this(NR_FILOSOFOS_PADRAO);
+	}
+
+	// Controle global: apenas 1 filósofo por vez (regra original desta mesa)
+	public MesaAlternativa(int nrFilosofos) {
+		this(nrFilosofos, ADMISSAO_UNICA);
+	}
+
+	public MesaAlternativa(int nrFilosofos, int admissao) {
+		super(nrFilosofos, nrFilosofos, admissao, TRACE_DELAY_MS, ESPERA_BLOQUEANTE);
+		this.execucaoAtual = new int[nrFilosofos];
+	}
+
+	@Override
+	public String nomeMotor() {
+		return "alternativo (passo a passo)";
+	}
+
+	@Override
+	public String nomeEspera() {
+		return "bloqueante (await, acorda os vizinhos)";
+	}
+
+	// Sem fase de giro: o passo a passo espera sempre na condição
+	@Override
+	public void setEspera(int espera) {
+		if (espera != ESPERA_BLOQUEANTE)
+			throw new IllegalArgumentException("O motor alternativa só tem espera bloqueante: " + espera);
+		super.setEspera(espera);
+	}
+
+	// ===== Núcleo: pegar/devolver garfos, com logs passo-a-passo =====
+	@Override
+	public void pegarGarfos(int filosofo) throws InterruptedException {
+		trava().lock();
+		try {
+			pegarComTrava(filosofo);
+		} finally {
+			trava().unlock();
+		}
+	}
+
+	private void pegarComTrava(int filosofo) throws InterruptedException {
+		marcarFome(filosofo);
+		int esq = garfoEsquerdo(filosofo);
+		int dir = garfoDireito(filosofo);
+
+		// Espera pelos dois garfos (e conta esperas por garfos)
+		while (!garfos[esq] || !garfos[dir]) {
+			registrarEspera(filosofo);
+			try {
+				vez(filosofo).await();
+			} catch (InterruptedException e) {
+				filosofos[filosofo] = PENSANDO;
+				throw e;
+			}
+		}
+
+		// ===== Execução detalhada: cabeçalho + anúncio de início =====
+		int execucao = 0;
+		if (execucoesDetalhadas.get() <= MAX_TRACE) {
+			int n = execucoesDetalhadas.incrementAndGet();
+			if (n <= MAX_TRACE) {
+				execucao = n;
+				rastro.publicar(Rastro.ANUNCIO, filosofo, esq, dir, execucao);
+			} else if (n == MAX_TRACE + 1) {
+				rastro.publicar(Rastro.LIMITE, filosofo, esq, dir, n);
+				detalheConcluido();
+			}
+		}
+		execucaoAtual[filosofo] = execucao;
+
+		// Pega o garfo esquerdo (marca e loga)
+		garfos[esq] = false;
+		if (execucao > 0) {
+			rastro.publicar(Rastro.PEGOU_ESQUERDO, filosofo, esq, dir, execucao);
+		}
+
+		// Pega o garfo direito (marca e loga)
+		garfos[dir] = false;
+		if (execucao > 0) {
+			rastro.publicar(Rastro.PEGOU_DIREITO, filosofo, esq, dir, execucao);
+		}
+
+		// Entra no estado COMENDO e registra refeição
+		filosofos[filosofo] = COMENDO;
+		metricas.registrarRefeicao(filosofo); // também zera as esperas da rodada
+		gravar(GravadorEventos.COMECOU, filosofo);
+		perfilPegou(filosofo);
+
+		// Anuncia início efetivo de comer + estados/garfos alinhados
+		if (execucao > 0) {
+			rastro.publicar(Rastro.COMECOU, filosofo, esq, dir, execucao, filosofos, garfos);
+		}
+	}
+
+	@Override
+	public void returningGarfos(int filosofo) {
+		trava().lock();
+		try {
+			devolverComTrava(filosofo);
+		} finally {
+			trava().unlock();
+		}
+	}
+
+	private void devolverComTrava(int filosofo) {
+		int esq = garfoEsquerdo(filosofo);
+		int dir = garfoDireito(filosofo);
+
+		// Mensagens de término (apenas se esta refeição foi detalhada)
+		int execucao = execucaoAtual[filosofo];
+		if (execucao > 0) {
+			rastro.publicar(Rastro.TERMINOU, filosofo, esq, dir, execucao);
+		}
+
+		gravar(GravadorEventos.DEVOLVEU, filosofo);
+		perfilDevolveu(filosofo);
+
+		// Atualiza estado e libera ambos os garfos
+		filosofos[filosofo] = PENSANDO;
+		garfos[esq] = true;
+		garfos[dir] = true;
+
+		if (execucao > 0) {
+			rastro.publicar(Rastro.DEVOLVEU, filosofo, esq, dir, execucao);
+			detalheConcluido(); // a execução detalhada só acaba aqui, na devolução
+		}
+
+		avisarVizinhos(filosofo);
+	}
+}
@@ -0,0 +1,177 @@
+package Jantar;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Mesa sem monitor: a posse dos garfos é um conjunto de bits (1 = OCUPADO).
+// Até 64 garfos cabem num único AtomicLong; acima disso usa um AtomicLongArray.
+// O filósofo pega os dois garfos com um único CAS da máscara de dois bits, gira/cede
+// conforme a EsperaAdaptativa e só então estaciona (LockSupport.park) esperando que
+// um vizinho o acorde ao devolver os garfos.
+public class MesaAtomica extends Mesa {
+	private final AtomicLong bits; // usado quando nrFilosofos <= 64
+	private final AtomicLongArray palavras; // usado acima de 64 garfos
+	private final AtomicReferenceArray<Thread> esperando;
+
+	public MesaAtomica() {
+		this(NR_FILOSOFOS_PADRAO, ADMISSAO_GARCOM);
+	}
+
+	public MesaAtomica(int nrFilosofos, int admissao) {
+		super(nrFilosofos, admissao);
+		esperando = new AtomicReferenceArray<>(nrFilosofos);
+		if (nrFilosofos <= 64) {
+			bits = new AtomicLong();
+			palavras = null;
+		} else {
+			bits = null;
+			palavras = new AtomicLongArray((nrFilosofos + 63) >>> 6);
+		}
+	}
+
+	@Override
+	public String nomeMotor() {
+		return "atômico (CAS em bitmask)";
+	}
+
+	@Override
+	public void pegarGarfos(int filosofo) throws InterruptedException {
+		marcarFome(filosofo);
+		int esq = garfoEsquerdo(filosofo);
+		int dir = garfoDireito(filosofo);
+
+		if (!tentarPegar(filosofo, esq, dir)) {
+			registrarEspera(filosofo);
+			if (!girarAntesDeBloquear(filosofo, esq, dir)) {
+				estacionar(filosofo, esq, dir);
+			}
+		}
+
+		garfos[esq] = false;
+		garfos[dir] = false;
+		filosofos[filosofo] = COMENDO;
+		registrarRefeicao(filosofo, esq, dir);
+	}
+
+	@Override
+	public void returningGarfos(int filosofo) {
+		registrarDevolucao(filosofo);
+		int esq = garfoEsquerdo(filosofo);
+		int dir = garfoDireito(filosofo);
+		filosofos[filosofo] = PENSANDO;
+		garfos[esq] = true;
+		garfos[dir] = true;
+		soltar(esq, dir);
+
+		// só os dois vizinhos disputam estes garfos
+		acordar((filosofo + nrFilosofos - 1) % nrFilosofos);
+		acordar((filosofo + 1) % nrFilosofos);
+	}
+
+	// Aqui a sondagem é o próprio CAS: se der certo, os garfos já são do filósofo
+	@Override
+	boolean sondarGarfos(int filosofo, int esq, int dir) {
+		return tentarPegar(filosofo, esq, dir);
+	}
+
+	// Publica-se como esperando ANTES de tentar de novo: quem devolver os garfos depois
+	// disso com certeza vê o registro e chama unpark (sem acordar perdido). Vale também para
+	// a marca passageira do tudo-ou-nada em duas palavras: quem desfaz acorda o vizinho.
+	private void estacionar(int filosofo, int esq, int dir) throws InterruptedException {
+		esperando.set(filosofo, Thread.currentThread());
+		try {
+			while (!tentarPegar(filosofo, esq, dir)) {
+				LockSupport.park(this);
+				if (Thread.interrupted()) {
+					filosofos[filosofo] = PENSANDO;
+					throw new InterruptedException();
+				}
+				if (tentarPegar(filosofo, esq, dir))
+					return;
+				registrarEspera(filosofo); // acordou mas algum vizinho pegou antes
+			}
+		} finally {
+			esperando.set(filosofo, null);
+		}
+	}
+
+	private void acordar(int filosofo) {
+		Thread t = esperando.get(filosofo);
+		if (t != null)
+			LockSupport.unpark(t);
+	}
+
+	// ===== Operações sobre os bits =====
+
+	private boolean tentarPegar(int filosofo, int esq, int dir) {
+		if (bits != null) {
+			return tentarMarcar(bits, (1L << esq) | (1L << dir));
+		}
+		int pe = esq >>> 6, pd = dir >>> 6;
+		if (pe == pd) {
+			return tentarMarcar(palavras, pe, (1L << esq) | (1L << dir));
+		}
+		// garfos em palavras diferentes (ex.: volta do anel): tudo-ou-nada em dois CAS
+		if (!tentarMarcar(palavras, pe, 1L << esq))
+			return false;
+		if (!tentarMarcar(palavras, pd, 1L << dir)) {
+			limpar(palavras, pe, 1L << esq);
+			// o vizinho da esquerda pode ter visto o bit passageiro e estacionado: sem este
+			// aviso ele dormiria com os garfos livres se nós dois não voltássemos a comer
+			acordar((filosofo + nrFilosofos - 1) % nrFilosofos);
+			return false;
+		}
+		return true;
+	}
+
+	private void soltar(int esq, int dir) {
+		if (bits != null) {
+			limpar(bits, (1L << esq) | (1L << dir));
+			return;
+		}
+		int pe = esq >>> 6, pd = dir >>> 6;
+		if (pe == pd) {
+			limpar(palavras, pe, (1L << esq) | (1L << dir));
+		} else {
+			limpar(palavras, pd, 1L << dir);
+			limpar(palavras, pe, 1L << esq);
+		}
+	}
+
+	// (1L << i) já usa só os 6 bits baixos de i, então serve de deslocamento dentro da palavra
+	private static boolean tentarMarcar(AtomicLong a, long mascara) {
+		long atual;
+		do {
+			atual = a.get();
+			if ((atual & mascara) != 0)
+				return false;
+		} while (!a.compareAndSet(atual, atual | mascara));
+		return true;
+	}
+
+	private static boolean tentarMarcar(AtomicLongArray a, int i, long mascara) {
+		long atual;
+		do {
+			atual = a.get(i);
+			if ((atual & mascara) != 0)
+				return false;
+		} while (!a.compareAndSet(i, atual, atual | mascara));
+		return true;
+	}
+
+	private static void limpar(AtomicLong a, long mascara) {
+		long atual;
+		do {
+			atual = a.get();
+		} while (!a.compareAndSet(atual, atual & ~mascara));
+	}
+
+	private static void limpar(AtomicLongArray a, int i, long mascara) {
+		long atual;
+		do {
+			atual = a.get(i);
+		} while (!a.compareAndSet(i, atual, atual & ~mascara));
+	}
+}
@@ -0,0 +1,234 @@
+package Jantar;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Protocolo de Chandy–Misra (garfos limpos/sujos): não há trava global nem mordomo; o
+// construtor recusa as admissões com mordomo (o Semaphore central da Mesa), só ADMISSAO_LIVRE.
+// Cada garfo pertence a um dos dois vizinhos e só troca de dono por pedido:
+//  - quem está com fome pede os garfos que não tem ao vizinho dono;
+//  - o dono entrega se estiver PENSANDO, ou com FOME segurando o garfo sujo (e já devolve
+//    o pedido junto, porque ainda quer o garfo); garfo limpo ou dono COMENDO: o pedido fica guardado;
+//  - ao terminar de comer os garfos ficam sujos e os pedidos guardados são atendidos.
+// No início todos os garfos estão sujos e ficam com o vizinho de menor índice (grafo de
+// precedência acíclico), o que garante ausência de deadlock e de starvation.
+//
+// Cada filósofo tem sua "caixa de correio": uma trava + condição. O estado de um garfo
+// (sujo, pedido) é protegido pela trava do dono atual, e o dono só muda sob essa trava;
+// ninguém segura duas travas de filósofo ao mesmo tempo. Como cada garfo liga só dois
+// vizinhos, a fila de mensagens de um filósofo tem no máximo dois pedidos e vira as flags pedido[].
+public class MesaChandyMisra extends Mesa {
+	private final ReentrantLock[] travas; // uma por filósofo
+	private final Condition[] caixas; // "chegou garfo"
+	private final AtomicIntegerArray dono; // dono de cada garfo
+	private final boolean[] sujo; // protegidos pela trava do dono
+	private final boolean[] pedido; // o outro vizinho pediu este garfo
+
+	public MesaChandyMisra() {
+		this(NR_FILOSOFOS_PADRAO, ADMISSAO_LIVRE);
+	}
+
+	public MesaChandyMisra(int nrFilosofos, int admissao) {
+		super(nrFilosofos, semMordomo(admissao));
+		travas = new ReentrantLock[nrFilosofos];
+		caixas = new Condition[nrFilosofos];
+		dono = new AtomicIntegerArray(nrFilosofos);
+		sujo = new boolean[nrFilosofos];
+		pedido = new boolean[nrFilosofos];
+		for (int i = 0; i < nrFilosofos; ++i) {
+			travas[i] = new ReentrantLock();
+			caixas[i] = travas[i].newCondition();
+		}
+		for (int g = 0; g < nrFilosofos; ++g) {
+			// garfo g fica entre (g - 1) e g; o garfo 0 fecha o anel entre N-1 e 0
+			dono.set(g, g == 0 ? 0 : g - 1);
+			sujo[g] = true;
+		}
+	}
+
+	// O grafo de precedência já impede deadlock e starvation; um mordomo seria a trava global
+	// que o protocolo dispensa
+	private static int semMordomo(int admissao) {
+		if (admissao != ADMISSAO_LIVRE)
+			throw new IllegalArgumentException("O motor chandy não usa mordomo, só admissão livre: " + admissao);
+		return admissao;
+	}
+
+	@Override
+	public String nomeMotor() {
+		return "Chandy–Misra (garfos limpos/sujos)";
+	}
+
+	@Override
+	public void pegarGarfos(int filosofo) throws InterruptedException {
+		int esq = garfoEsquerdo(filosofo);
+		int dir = garfoDireito(filosofo);
+		ReentrantLock trava = travas[filosofo];
+
+		trava.lock();
+		try {
+			marcarFome(filosofo);
+		} finally {
+			trava.unlock();
+		}
+
+		// Pedidos fora da própria trava (cada pedido trava só o vizinho dono)
+		solicitar(filosofo, esq);
+		solicitar(filosofo, dir);
+		if (dono.get(esq) != filosofo || dono.get(dir) != filosofo)
+			girarAntesDeBloquear(filosofo, esq, dir); // o garfo pedido pode chegar logo
+
+		InterruptedException interrupcao = null;
+		int entregues = 0;
+		trava.lock();
+		try {
+			// Garfo que sai daqui com fome leva o pedido de volta, então é só esperar
+			while (dono.get(esq) != filosofo || dono.get(dir) != filosofo) {
+				registrarEspera(filosofo);
+				try {
+					caixas[filosofo].await();
+				} catch (InterruptedException e) {
+					// volta a pensar e libera o que os vizinhos já pediram
+					filosofos[filosofo] = PENSANDO;
+					entregues = atenderPedidos(filosofo, esq, dir);
+					interrupcao = e;
+					break;
+				}
+			}
+			if (interrupcao == null) {
+				sujo[esq] = true; // comer suja os garfos
+				sujo[dir] = true;
+				garfos[esq] = false;
+				garfos[dir] = false;
+				filosofos[filosofo] = COMENDO;
+			}
+		} finally {
+			trava.unlock();
+		}
+		if (interrupcao != null) {
+			avisar(entregues, esq, dir, filosofo);
+			throw interrupcao;
+		}
+		registrarRefeicao(filosofo, esq, dir);
+	}
+
+	@Override
+	public void returningGarfos(int filosofo) {
+		int esq = garfoEsquerdo(filosofo);
+		int dir = garfoDireito(filosofo);
+		registrarDevolucao(filosofo);
+
+		int entregues;
+		ReentrantLock trava = travas[filosofo];
+		trava.lock();
+		try {
+			filosofos[filosofo] = PENSANDO;
+			garfos[esq] = true;
+			garfos[dir] = true;
+			entregues = atenderPedidos(filosofo, esq, dir);
+		} finally {
+			trava.unlock();
+		}
+		avisar(entregues, esq, dir, filosofo);
+	}
+
+	// Giro: chegaram os dois garfos?
+	@Override
+	boolean sondarGarfos(int filosofo, int esq, int dir) {
+		return dono.get(esq) == filosofo && dono.get(dir) == filosofo;
+	}
+
+	// ===== Mensagens entre vizinhos =====
+
+	// Pede o garfo ao dono atual; se ele entregar, o garfo chega limpo a quem pediu
+	private void solicitar(int filosofo, int garfo) {
+		while (true) {
+			int atual = dono.get(garfo);
+			if (atual == filosofo)
+				return;
+			ReentrantLock trava = travas[atual];
+			trava.lock();
+			try {
+				if (dono.get(garfo) != atual)
+					continue; // trocou de dono antes da trava: pede ao novo dono
+				int estado = filosofos[atual];
+				if (estado == PENSANDO) {
+					transferir(garfo, filosofo, false);
+				} else if (estado == FOME && sujo[garfo]) {
+					transferir(garfo, filosofo, true); // ainda com fome: o pedido volta junto
+				} else {
+					pedido[garfo] = true; // limpo ou em uso: atende quando terminar de comer
+				}
+				return;
+			} finally {
+				trava.unlock();
+			}
+		}
+	}
+
+	// Chamado com a trava do dono; bit 0 = entregou o esquerdo, bit 1 = o direito
+	private int atenderPedidos(int filosofo, int esq, int dir) {
+		int entregues = 0;
+		if (dono.get(esq) == filosofo && pedido[esq]) {
+			transferir(esq, vizinho(filosofo, esq), false);
+			entregues |= 1;
+		}
+		if (dono.get(dir) == filosofo && pedido[dir]) {
+			transferir(dir, vizinho(filosofo, dir), false);
+			entregues |= 2;
+		}
+		return entregues;
+	}
+
+	private void transferir(int garfo, int novoDono, boolean pedirDeVolta) {
+		sujo[garfo] = false;
+		pedido[garfo] = pedirDeVolta;
+		dono.set(garfo, novoDono); // a partir daqui o garfo é protegido pela trava do novo dono
+	}
+
+	// Acorda quem recebeu garfo (sem segurar a trava do remetente)
+	private void avisar(int entregues, int esq, int dir, int filosofo) {
+		if ((entregues & 1) != 0)
+			acordar(vizinho(filosofo, esq));
+		if ((entregues & 2) != 0)
+			acordar(vizinho(filosofo, dir));
+	}
+
+	private void acordar(int filosofo) {
+		ReentrantLock trava = travas[filosofo];
+		trava.lock();
+		try {
+			caixas[filosofo].signal();
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	// ===== Consultas (testes) =====
+
+	int donoDoGarfo(int garfo) {
+		return dono.get(garfo);
+	}
+
+	// Lido sob a trava do dono, como em solicitar
+	boolean garfoSujo(int garfo) {
+		while (true) {
+			int atual = dono.get(garfo);
+			ReentrantLock trava = travas[atual];
+			trava.lock();
+			try {
+				if (dono.get(garfo) == atual)
+					return sujo[garfo];
+			} finally {
+				trava.unlock();
+			}
+		}
+	}
+
+	// Quem divide o garfo com o filósofo
+	private int vizinho(int filosofo, int garfo) {
+		return garfo == garfoEsquerdo(filosofo) ? (filosofo - 1 + nrFilosofos) % nrFilosofos
+				: garfoDireito(filosofo);
+	}
+}
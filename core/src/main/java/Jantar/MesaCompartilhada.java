@@ -0,0 +1,330 @@
+package Jantar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Mesa cujo estado comum (bits dos garfos, estado e contadores de cada assento) fica fora do
+// heap, num arquivo mapeado em memória que várias JVMs da mesma máquina abrem ao mesmo tempo.
+// Cada JVM hospeda uma faixa de assentos e pega os garfos como a MesaAtomica: um CAS na
+// máscara de dois bits, agora direto na página mapeada (byteBufferViewVarHandle), sem
+// serializar nada nem passar por servidor. Vizinho do mesmo processo é acordado com unpark;
+// vizinho de outro processo não tem como ser avisado, então o assento na fronteira com outra
+// JVM estaciona por tempo crescente (ESPERA_MINIMA_NANOS até ESPERA_MAXIMA_NANOS) e tenta de novo.
+// (O MemorySegment da API de memória externa ainda é preview no Java 21; o buffer mapeado
+// com VarHandle dá os mesmos CAS sem --enable-preview.)
+//
+// Layout do arquivo (little-endian):
+//   0..63   cabeçalho: mágico | versão | filósofos | processos | total de refeições | total de esperas
+//   64..    bits dos garfos, uma palavra long para cada 64 garfos (1 = OCUPADO)
+//   depois  um registro de TAMANHO_ASSENTO bytes por assento:
+//           long refeições | long esperas | int estado | int processo dono (0 = livre) | 8 livres
+// Só a thread do assento escreve o registro dele; os totais do cabeçalho são getAndAdd.
+// Um processo que morre comendo deixa os garfos ocupados: apague o arquivo antes da próxima mesa.
+public final class MesaCompartilhada extends Mesa {
+	static final long MAGICO = 0x434D52544E414A4AL; // "JJANTRMC" em little-endian
+	static final long INICIANDO = 1L; // quem criou o arquivo ainda está preenchendo o cabeçalho
+	static final int VERSAO = 1;
+	static final int TAMANHO_CABECALHO = 64;
+	static final int TAMANHO_ASSENTO = 32;
+	static final long ESPERA_MINIMA_NANOS = 20_000L;
+	static final long ESPERA_MAXIMA_NANOS = 1_000_000L;
+	// Quanto esperar o criador preencher o cabeçalho; depois disso ele morreu no meio (ou o
+	// arquivo é lixo de uma mesa abortada) e o mágico nunca vai sair de INICIANDO
+	static final long PRAZO_INICIO_NANOS = 2_000_000_000L;
+
+	// Cabeçalho
+	private static final int MAGICO_POS = 0;
+	private static final int VERSAO_POS = 8;
+	private static final int FILOSOFOS_POS = 12;
+	private static final int PROCESSOS_POS = 16;
+	private static final int REFEICOES_POS = 24;
+	private static final int ESPERAS_POS = 32;
+	// Registro do assento
+	private static final int REFEICOES = 0;
+	private static final int ESPERAS = 8;
+	private static final int ESTADO = 16;
+	private static final int DONO = 20;
+
+	private static final VarHandle LONGO = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle INTEIRO = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private final Path arquivo;
+	private final MappedByteBuffer memoria;
+	private final int assentos; // posição do primeiro registro de assento
+	private final int primeiro;
+	private final int fim;
+	private final int processo;
+	private final AtomicReferenceArray<Thread> esperando;
+	private boolean fechada;
+
+	// Cria o arquivo (ou entra numa mesa já criada por outra JVM) e reserva os assentos
+	// [primeiro, primeiro + quantos) para este processo
+	public MesaCompartilhada(Path arquivo, int nrFilosofos, int primeiro, int quantos) {
+		// tudo-ou-nada no CAS: sem mordomo, que aqui só veria os assentos locais
+		super(nrFilosofos, primeiro, primeiro + quantos, ADMISSAO_LIVRE);
+		long palavras = (nrFilosofos + 63L) >>> 6;
+		long tamanho = TAMANHO_CABECALHO + palavras * 8 + (long) nrFilosofos * TAMANHO_ASSENTO;
+		if (tamanho > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Mesa grande demais para um mapeamento: " + nrFilosofos + " filósofos");
+		this.arquivo = arquivo;
+		this.assentos = (int) (TAMANHO_CABECALHO + palavras * 8);
+		this.primeiro = primeiro;
+		this.fim = primeiro + quantos;
+		this.processo = (int) ProcessHandle.current().pid();
+		this.esperando = new AtomicReferenceArray<>(quantos); // assento f em f - primeiro
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			memoria = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho); // estende com zeros se preciso
+		} catch (IOException e) {
+			throw new UncheckedIOException("Não foi possível mapear a mesa compartilhada " + arquivo, e);
+		}
+		inicializarOuConferir();
+		reservarAssentos();
+		LONGO.getAndAdd(memoria, PROCESSOS_POS, 1L);
+	}
+
+	// O primeiro a trocar o mágico 0 -> INICIANDO preenche o cabeçalho; os outros esperam o mágico final
+	private void inicializarOuConferir() {
+		if (LONGO.compareAndSet(memoria, MAGICO_POS, 0L, INICIANDO)) {
+			INTEIRO.set(memoria, VERSAO_POS, VERSAO);
+			INTEIRO.set(memoria, FILOSOFOS_POS, nrFilosofos);
+			for (int i = 0; i < nrFilosofos; i++)
+				INTEIRO.set(memoria, assento(i) + ESTADO, PENSANDO);
+			LONGO.setRelease(memoria, MAGICO_POS, MAGICO);
+			return;
+		}
+		long magico;
+		long prazo = System.nanoTime() + PRAZO_INICIO_NANOS;
+		while ((magico = (long) LONGO.getAcquire(memoria, MAGICO_POS)) == INICIANDO) {
+			if (System.nanoTime() - prazo > 0)
+				throw new IllegalStateException("Mesa compartilhada " + arquivo + " ainda iniciando depois de "
+						+ PRAZO_INICIO_NANOS / 1_000_000_000L + " s: quem a criou morreu? Apague o arquivo");
+			Thread.onSpinWait();
+		}
+		if (magico != MAGICO || (int) INTEIRO.get(memoria, VERSAO_POS) != VERSAO)
+			throw new IllegalStateException("Arquivo não é uma mesa compartilhada (versão " + VERSAO + "): " + arquivo);
+		int n = (int) INTEIRO.get(memoria, FILOSOFOS_POS);
+		if (n != nrFilosofos)
+			throw new IllegalArgumentException("A mesa em " + arquivo + " tem " + n + " filósofos, não " + nrFilosofos);
+	}
+
+	private void reservarAssentos() {
+		for (int f = primeiro; f < fim; f++) {
+			if (!INTEIRO.compareAndSet(memoria, assento(f) + DONO, 0, processo)) {
+				int outro = (int) INTEIRO.getVolatile(memoria, assento(f) + DONO);
+				for (int g = primeiro; g < f; g++)
+					INTEIRO.setRelease(memoria, assento(g) + DONO, 0);
+				throw new IllegalStateException("Assento " + (f + 1) + " já é do processo " + outro);
+			}
+		}
+	}
+
+	private int assento(int filosofo) {
+		return assentos + filosofo * TAMANHO_ASSENTO;
+	}
+
+	@Override
+	public void pegarGarfos(int filosofo) throws InterruptedException {
+		if (filosofo < primeiro || filosofo >= fim)
+			throw new IllegalArgumentException("Assento " + filosofo + " não é deste processo");
+		marcarFome(filosofo);
+		publicarEstado(filosofo, FOME);
+		int esq = garfoEsquerdo(filosofo);
+		int dir = garfoDireito(filosofo);
+
+		if (!tentarPegar(filosofo, esq, dir)) {
+			registrarEspera(filosofo);
+			if (!girarAntesDeBloquear(filosofo, esq, dir)) {
+				estacionar(filosofo, esq, dir);
+			}
+		}
+
+		garfos[indiceGarfo(esq)] = false;
+		garfos[indiceGarfo(dir)] = false;
+		filosofos[indiceAssento(filosofo)] = COMENDO;
+		publicarEstado(filosofo, COMENDO);
+		contar(filosofo, REFEICOES, REFEICOES_POS);
+		registrarRefeicao(filosofo, esq, dir);
+	}
+
+	@Override
+	public void returningGarfos(int filosofo) {
+		registrarDevolucao(filosofo);
+		int esq = garfoEsquerdo(filosofo);
+		int dir = garfoDireito(filosofo);
+		filosofos[indiceAssento(filosofo)] = PENSANDO;
+		publicarEstado(filosofo, PENSANDO);
+		garfos[indiceGarfo(esq)] = true;
+		garfos[indiceGarfo(dir)] = true;
+		soltar(esq, dir);
+
+		// vizinho de outro processo acha os garfos livres na próxima tentativa
+		acordar((filosofo + nrFilosofos - 1) % nrFilosofos);
+		acordar((filosofo + 1) % nrFilosofos);
+	}
+
+	@Override
+	public void registrarRefeicaoExtra(int filosofo) {
+		super.registrarRefeicaoExtra(filosofo);
+		contar(filosofo, REFEICOES, REFEICOES_POS);
+	}
+
+	@Override
+	void registrarEspera(int filosofo) {
+		super.registrarEspera(filosofo);
+		contar(filosofo, ESPERAS, ESPERAS_POS);
+	}
+
+	@Override
+	boolean sondarGarfos(int filosofo, int esq, int dir) {
+		return tentarPegar(filosofo, esq, dir);
+	}
+
+	// Como na MesaAtomica; o park só tem prazo quando um vizinho é de outra JVM (ele não
+	// tem como dar unpark aqui). Com os dois vizinhos locais, espera o unpark como lá.
+	private void estacionar(int filosofo, int esq, int dir) throws InterruptedException {
+		esperando.set(filosofo - primeiro, Thread.currentThread());
+		boolean comPrazo = !local((filosofo + nrFilosofos - 1) % nrFilosofos) || !local((filosofo + 1) % nrFilosofos);
+		long espera = ESPERA_MINIMA_NANOS;
+		try {
+			while (!tentarPegar(filosofo, esq, dir)) {
+				if (comPrazo) {
+					LockSupport.parkNanos(this, espera);
+				} else {
+					LockSupport.park(this);
+				}
+				if (Thread.interrupted()) {
+					filosofos[indiceAssento(filosofo)] = PENSANDO;
+					publicarEstado(filosofo, PENSANDO);
+					throw new InterruptedException();
+				}
+				if (tentarPegar(filosofo, esq, dir))
+					return;
+				if (comPrazo) {
+					espera = Math.min(espera * 2, ESPERA_MAXIMA_NANOS); // sondagem, não conta
+				} else {
+					registrarEspera(filosofo); // acordou mas algum vizinho pegou antes, como na MesaAtomica
+				}
+			}
+		} finally {
+			esperando.set(filosofo - primeiro, null);
+		}
+	}
+
+	private boolean local(int filosofo) {
+		return filosofo >= primeiro && filosofo < fim;
+	}
+
+	// Só os assentos locais têm thread aqui; o de outro processo descobre sozinho (park com prazo)
+	private void acordar(int filosofo) {
+		if (!local(filosofo))
+			return;
+		Thread t = esperando.get(filosofo - primeiro);
+		if (t != null)
+			LockSupport.unpark(t);
+	}
+
+	// Libera os assentos deste processo; chame depois que os filósofos terminarem
+	public synchronized void fechar() {
+		if (fechada)
+			return;
+		fechada = true;
+		for (int f = primeiro; f < fim; f++)
+			INTEIRO.compareAndSet(memoria, assento(f) + DONO, processo, 0);
+		LONGO.getAndAdd(memoria, PROCESSOS_POS, -1L);
+		memoria.force();
+	}
+
+	// ===== Memória compartilhada =====
+
+	// Estado do assento para quem olha de outro processo
+	private void publicarEstado(int filosofo, int estado) {
+		INTEIRO.setRelease(memoria, assento(filosofo) + ESTADO, estado);
+	}
+
+	// Contador do assento (só o dono escreve) e total da mesa (todos os processos)
+	private void contar(int filosofo, int campo, int total) {
+		int pos = assento(filosofo) + campo;
+		LONGO.setRelease(memoria, pos, (long) LONGO.getOpaque(memoria, pos) + 1);
+		LONGO.getAndAdd(memoria, total, 1L);
+	}
+
+	private boolean tentarPegar(int filosofo, int esq, int dir) {
+		int pe = esq >>> 6, pd = dir >>> 6;
+		if (pe == pd)
+			return tentarMarcar(palavra(pe), (1L << esq) | (1L << dir));
+		// garfos em palavras diferentes (ex.: volta do anel): tudo-ou-nada em dois CAS
+		if (!tentarMarcar(palavra(pe), 1L << esq))
+			return false;
+		if (!tentarMarcar(palavra(pd), 1L << dir)) {
+			limpar(palavra(pe), 1L << esq);
+			// como na MesaAtomica: o vizinho da esquerda pode ter estacionado por causa do bit
+			// passageiro; se for local, o unpark evita que ele durma com os garfos livres
+			acordar((filosofo + nrFilosofos - 1) % nrFilosofos);
+			return false;
+		}
+		return true;
+	}
+
+	private void soltar(int esq, int dir) {
+		int pe = esq >>> 6, pd = dir >>> 6;
+		if (pe == pd) {
+			limpar(palavra(pe), (1L << esq) | (1L << dir));
+		} else {
+			limpar(palavra(pd), 1L << dir);
+			limpar(palavra(pe), 1L << esq);
+		}
+	}
+
+	private static int palavra(int i) {
+		return TAMANHO_CABECALHO + i * 8;
+	}
+
+	private boolean tentarMarcar(int pos, long mascara) {
+		long atual;
+		do {
+			atual = (long) LONGO.getVolatile(memoria, pos);
+			if ((atual & mascara) != 0)
+				return false;
+		} while (!LONGO.compareAndSet(memoria, pos, atual, atual | mascara));
+		return true;
+	}
+
+	private void limpar(int pos, long mascara) {
+		long atual;
+		do {
+			atual = (long) LONGO.getVolatile(memoria, pos);
+		} while (!LONGO.compareAndSet(memoria, pos, atual, atual & ~mascara));
+	}
+
+	// ===== Painel =====
+
+	@Override
+	public String nomeMotor() {
+		return "compartilhado (CAS em arquivo)";
+	}
+
+	@Override
+	public String nomeEspera() {
+		return "unpark local / park com prazo";
+	}
+
+	@Override
+	String[] detalhesMotor() {
+		return new String[] { String.format("Arquivo da mesa:               %s", arquivo.getFileName()),
+				String.format("Memória compartilhada:         %.1f KiB", memoria.capacity() / 1024.0),
+				String.format("Assentos neste processo:       %d..%d de %d", primeiro + 1, fim, nrFilosofos),
+				String.format("Processos na mesa agora:       %d", (long) LONGO.getVolatile(memoria, PROCESSOS_POS)),
+				String.format("Refeições (todos processos):   %d", (long) LONGO.getVolatile(memoria, REFEICOES_POS)),
+				String.format("Esperas (todos processos):     %d", (long) LONGO.getVolatile(memoria, ESPERAS_POS)) };
+	}
+}
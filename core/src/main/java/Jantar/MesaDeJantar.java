@@ -0,0 +1,23 @@
+package Jantar;
+
+// Contrato entre o filósofo (ou o Main, ou um benchmark) e qualquer motor de mesa.
+// Ciclo de uma refeição: entrarNoRefeitorio -> pegarGarfos -> (comer) -> returningGarfos -> sairDoRefeitorio.
+// pegarGarfos pode lançar InterruptedException; nesse caso o filósofo NÃO está com os garfos.
+// Contadores e painel vêm de RelatorioDaMesa.
+public interface MesaDeJantar extends RelatorioDaMesa {
+	void entrarNoRefeitorio(int filosofo) throws InterruptedException;
+
+	void pegarGarfos(int filosofo) throws InterruptedException;
+
+	void returningGarfos(int filosofo);
+
+	void sairDoRefeitorio();
+
+	// Próxima refeição do lote (getLote() > 1), sem devolver os garfos
+	void registrarRefeicaoExtra(int filosofo);
+
+	// Log binário e perfil de contenção: chamar antes de iniciar os filósofos
+	void setGravador(GravadorEventos gravador);
+
+	void setPerfil(PerfilGarfos perfil);
+}
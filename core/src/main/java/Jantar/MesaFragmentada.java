@@ -0,0 +1,245 @@
+package Jantar;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Mesa fragmentada: o anel de garfos é dividido em K trechos contíguos (fragmentos), cada um
+// com sua própria trava, condição e contadores, em vez do monitor único da Mesa.
+// Filósofo interior (os dois garfos no mesmo fragmento) pega os dois de uma vez sob a trava
+// do fragmento, como na Mesa. Só o último filósofo de cada fragmento tem o garfo direito no
+// fragmento seguinte: ele pega um garfo por vez, primeiro o de menor índice global (ordem de
+// recursos, como na MesaListrada), então fragmentos vizinhos só se coordenam nessas bordas.
+//
+// K dado (construtor ou -Djantar.fragmentos) é respeitado: K trechos de tamanhos que diferem
+// em no máximo 1. Sem K, o padrão é 2 por núcleo e nenhum fragmento com mais de
+// TAMANHO_MAXIMO_FRAGMENTO garfos (ver fragmentosPadrao).
+public class MesaFragmentada extends Mesa {
+	static final int TAMANHO_MAXIMO_FRAGMENTO = 64; // no padrão: limita quantos acordam a cada signalAll
+	static final int FRAGMENTOS_PADRAO = Integer.getInteger("jantar.fragmentos", 0); // 0 = fragmentosPadrao
+
+	private final int tamanho; // garfos dos fragmentos menores
+	private final int maiores; // os primeiros `maiores` fragmentos têm tamanho + 1 garfos
+	private final int garfosNosMaiores; // maiores * (tamanho + 1): primeiro garfo dos menores
+	private final Fragmento[] fragmentos;
+
+	private static final class Fragmento {
+		final ReentrantLock trava = new ReentrantLock();
+		final Condition garfoLiberado = trava.newCondition();
+		final boolean[] livre; // índices locais
+		long refeicoes; // protegidos pela trava
+		long esperas;
+
+		Fragmento(int garfos) {
+			livre = new boolean[garfos];
+			Arrays.fill(livre, true);
+		}
+	}
+
+	public MesaFragmentada() {
+		this(NR_FILOSOFOS_PADRAO, ADMISSAO_LIVRE);
+	}
+
+	public MesaFragmentada(int nrFilosofos, int admissao) {
+		this(nrFilosofos, admissao, FRAGMENTOS_PADRAO > 0 ? FRAGMENTOS_PADRAO : fragmentosPadrao(nrFilosofos));
+	}
+
+	// Exatamente nrFragmentos fragmentos (1..nrFilosofos); menos que fragmentosPadrao vale,
+	// só deixa os fragmentos maiores que TAMANHO_MAXIMO_FRAGMENTO
+	public MesaFragmentada(int nrFilosofos, int admissao, int nrFragmentos) {
+		super(nrFilosofos, admissao);
+		if (nrFragmentos < 1 || nrFragmentos > nrFilosofos)
+			throw new IllegalArgumentException(
+					"Número de fragmentos inválido: " + nrFragmentos + " (1.." + nrFilosofos + ")");
+		tamanho = nrFilosofos / nrFragmentos;
+		maiores = nrFilosofos % nrFragmentos;
+		garfosNosMaiores = maiores * (tamanho + 1);
+		fragmentos = new Fragmento[nrFragmentos];
+		for (int s = 0; s < nrFragmentos; s++) {
+			fragmentos[s] = new Fragmento(s < maiores ? tamanho + 1 : tamanho);
+		}
+	}
+
+	// 2 por núcleo (no máximo um por assento), e mais se preciso para nenhum passar de
+	// TAMANHO_MAXIMO_FRAGMENTO garfos
+	public static int fragmentosPadrao(int nrFilosofos) {
+		int porNucleo = Math.min(2 * Runtime.getRuntime().availableProcessors(), nrFilosofos);
+		return Math.max(porNucleo, (nrFilosofos + TAMANHO_MAXIMO_FRAGMENTO - 1) / TAMANHO_MAXIMO_FRAGMENTO);
+	}
+
+	@Override
+	public String nomeMotor() {
+		return "fragmentado (" + fragmentos.length + " travas)";
+	}
+
+	public int getNrFragmentos() {
+		return fragmentos.length;
+	}
+
+	// ===== Garfo global -> (fragmento, índice local) =====
+
+	public int fragmentoDoGarfo(int garfo) {
+		return garfo < garfosNosMaiores ? garfo / (tamanho + 1) : maiores + (garfo - garfosNosMaiores) / tamanho;
+	}
+
+	public int indiceLocal(int garfo) {
+		return garfo < garfosNosMaiores ? garfo % (tamanho + 1) : (garfo - garfosNosMaiores) % tamanho;
+	}
+
+	@Override
+	public void pegarGarfos(int filosofo) throws InterruptedException {
+		marcarFome(filosofo);
+		int esq = garfoEsquerdo(filosofo);
+		int dir = garfoDireito(filosofo);
+		int fe = fragmentoDoGarfo(esq);
+		int fd = fragmentoDoGarfo(dir);
+
+		if (fe == fd) {
+			pegarNoFragmento(filosofo, fe, indiceLocal(esq), indiceLocal(dir));
+		} else {
+			// borda: um garfo em cada fragmento, menor índice global primeiro
+			int primeiro = Math.min(esq, dir);
+			int segundo = Math.max(esq, dir);
+			boolean pegouPrimeiro = false;
+			try {
+				pegarUm(filosofo, primeiro, false);
+				pegouPrimeiro = true;
+				pegarUm(filosofo, segundo, true);
+			} catch (InterruptedException e) {
+				if (pegouPrimeiro)
+					soltarUm(primeiro);
+				filosofos[filosofo] = PENSANDO;
+				throw e;
+			}
+			garfos[primeiro] = false;
+			garfos[segundo] = false;
+			filosofos[filosofo] = COMENDO;
+		}
+		registrarRefeicao(filosofo, esq, dir);
+	}
+
+	@Override
+	public void returningGarfos(int filosofo) {
+		registrarDevolucao(filosofo);
+		int esq = garfoEsquerdo(filosofo);
+		int dir = garfoDireito(filosofo);
+		int fe = fragmentoDoGarfo(esq);
+		filosofos[filosofo] = PENSANDO;
+		garfos[esq] = true;
+		garfos[dir] = true;
+		if (fe == fragmentoDoGarfo(dir)) {
+			Fragmento f = fragmentos[fe];
+			f.trava.lock();
+			try {
+				f.livre[indiceLocal(esq)] = true;
+				f.livre[indiceLocal(dir)] = true;
+				f.garfoLiberado.signalAll();
+			} finally {
+				f.trava.unlock();
+			}
+		} else {
+			soltarUm(dir);
+			soltarUm(esq);
+		}
+	}
+
+	// Interior: tudo-ou-nada sob a trava do fragmento
+	private void pegarNoFragmento(int filosofo, int s, int esq, int dir) throws InterruptedException {
+		Fragmento f = fragmentos[s];
+		boolean girar = getEspera() == ESPERA_ADAPTATIVA;
+		f.trava.lock();
+		try {
+			while (!f.livre[esq] || !f.livre[dir]) {
+				registrarEspera(filosofo);
+				f.esperas++;
+				if (girar) {
+					girar = false;
+					f.trava.unlock();
+					try {
+						girarAntesDeBloquear(filosofo, garfoEsquerdo(filosofo), garfoDireito(filosofo));
+					} finally {
+						f.trava.lock();
+					}
+					continue;
+				}
+				try {
+					f.garfoLiberado.await();
+				} catch (InterruptedException e) {
+					filosofos[filosofo] = PENSANDO;
+					throw e;
+				}
+			}
+			f.livre[esq] = false;
+			f.livre[dir] = false;
+			garfos[garfoEsquerdo(filosofo)] = false;
+			garfos[garfoDireito(filosofo)] = false;
+			filosofos[filosofo] = COMENDO;
+			f.refeicoes++;
+		} finally {
+			f.trava.unlock();
+		}
+	}
+
+	// A refeição de borda conta no fragmento do segundo garfo (sem travar de novo)
+	private void pegarUm(int filosofo, int garfo, boolean ultimo) throws InterruptedException {
+		Fragmento f = fragmentos[fragmentoDoGarfo(garfo)];
+		int i = indiceLocal(garfo);
+		boolean girar = getEspera() == ESPERA_ADAPTATIVA;
+		f.trava.lock();
+		try {
+			while (!f.livre[i]) {
+				registrarEspera(filosofo);
+				f.esperas++;
+				if (girar) {
+					girar = false;
+					f.trava.unlock();
+					try {
+						girarAntesDeBloquear(filosofo, garfo, garfo);
+					} finally {
+						f.trava.lock();
+					}
+					continue;
+				}
+				f.garfoLiberado.await();
+			}
+			f.livre[i] = false;
+			if (ultimo)
+				f.refeicoes++;
+		} finally {
+			f.trava.unlock();
+		}
+	}
+
+	private void soltarUm(int garfo) {
+		Fragmento f = fragmentos[fragmentoDoGarfo(garfo)];
+		f.trava.lock();
+		try {
+			f.livre[indiceLocal(garfo)] = true;
+			f.garfoLiberado.signalAll();
+		} finally {
+			f.trava.unlock();
+		}
+	}
+
+	// ===== Painel =====
+
+	@Override
+	String[] detalhesMotor() {
+		long min = Long.MAX_VALUE, max = 0, esperas = 0;
+		for (Fragmento f : fragmentos) {
+			f.trava.lock();
+			try {
+				min = Math.min(min, f.refeicoes);
+				max = Math.max(max, f.refeicoes);
+				esperas += f.esperas;
+			} finally {
+				f.trava.unlock();
+			}
+		}
+		return new String[] {
+				String.format("Fragmentos:                    %5d (%s garfos cada)", fragmentos.length,
+						maiores == 0 ? String.valueOf(tamanho) : tamanho + "-" + (tamanho + 1)),
+				String.format("Refeições por fragmento:       %d..%d", min, max),
+				String.format("Esperas nos fragmentos:        %5d", esperas) };
+	}
+}
@@ -0,0 +1,267 @@
+package Jantar;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Mesa generalizada: cada assento pega, a cada refeição, o conjunto de recursos que o
+// GrafoConflitos lhe dá (no anel, os dois garfos de sempre). A posse é um bit por recurso,
+// como na MesaAtomica, e o conjunto de cada assento já vem quebrado em (palavra, máscara)
+// em ordem crescente de palavra, então pegar k recursos custa um CAS por palavra tocada.
+//
+// Duas aquisições, ambas sem deadlock:
+//   ORDENADA: palavra por palavra, segurando as anteriores e esperando na ocupada
+//             (ordem global dos recursos, como a MesaListrada faz com os garfos)
+//   CAS:      tudo-ou-nada; se uma palavra falha, desfaz as já marcadas e estaciona
+// Quem devolve acorda só os assentos em conflito (os que dividem algum recurso).
+public class MesaGrafo extends Mesa {
+	public static final int AQUISICAO_ORDENADA = 1;
+	public static final int AQUISICAO_CAS = 2;
+
+	static final int AQUISICAO_PADRAO = aquisicaoPorNome(System.getProperty("jantar.grafo.aquisicao", "cas"));
+
+	private final GrafoConflitos grafo;
+	private final int aquisicao;
+	private final AtomicLongArray bits; // 1 = recurso ocupado
+	private final AtomicReferenceArray<Thread> esperando;
+
+	// CSR assento -> (palavra, máscara): palavras[inicioPalavras[f] .. inicioPalavras[f+1])
+	private final int[] inicioPalavras;
+	private final int[] palavras;
+	private final long[] mascaras;
+
+	public MesaGrafo(int nrFilosofos, int admissao) {
+		this(GrafoConflitos.dasPropriedades(nrFilosofos), admissao, AQUISICAO_PADRAO);
+	}
+
+	public MesaGrafo(GrafoConflitos grafo, int admissao, int aquisicao) {
+		// um garfo da Mesa por recurso; espera bloqueante, porque os dois modos estacionam direto
+		super(grafo.nrPedidos, grafo.nrRecursos, admissao, 0, ESPERA_BLOQUEANTE);
+		if (aquisicao != AQUISICAO_ORDENADA && aquisicao != AQUISICAO_CAS)
+			throw new IllegalArgumentException("Aquisição desconhecida: " + aquisicao);
+		this.grafo = grafo;
+		this.aquisicao = aquisicao;
+		this.bits = new AtomicLongArray((grafo.nrRecursos + 63) >>> 6);
+		this.esperando = new AtomicReferenceArray<>(nrFilosofos);
+
+		// os recursos de cada linha já estão em ordem, então as palavras também saem em ordem
+		inicioPalavras = new int[nrFilosofos + 1];
+		int[] p = new int[grafo.recursos.length];
+		long[] m = new long[grafo.recursos.length];
+		int n = 0;
+		for (int f = 0; f < nrFilosofos; f++) {
+			for (int i = grafo.inicio[f]; i < grafo.inicio[f + 1]; i++) {
+				int r = grafo.recursos[i];
+				if (n == inicioPalavras[f] || p[n - 1] != r >>> 6) {
+					p[n] = r >>> 6;
+					m[n++] = 0;
+				}
+				m[n - 1] |= 1L << r;
+			}
+			inicioPalavras[f + 1] = n;
+		}
+		palavras = Arrays.copyOf(p, n);
+		mascaras = Arrays.copyOf(m, n);
+	}
+
+	public static int aquisicaoPorNome(String nome) {
+		return switch (nome.toLowerCase()) {
+		case "ordenada" -> AQUISICAO_ORDENADA;
+		case "cas" -> AQUISICAO_CAS;
+		default -> throw new IllegalArgumentException("Aquisição desconhecida: " + nome + " (use ordenada ou cas)");
+		};
+	}
+
+	public GrafoConflitos getGrafo() {
+		return grafo;
+	}
+
+	@Override
+	public String nomeMotor() {
+		return aquisicao == AQUISICAO_CAS ? "grafo (CAS tudo-ou-nada)" : "grafo (ordem crescente)";
+	}
+
+	// Não há fase de giro antes do park (nem na ORDENADA, nem no CAS)
+	@Override
+	public void setEspera(int espera) {
+		if (espera != ESPERA_BLOQUEANTE)
+			throw new IllegalArgumentException("O motor grafo só tem espera bloqueante: " + espera);
+		super.setEspera(espera);
+	}
+
+	@Override
+	String[] detalhesMotor() {
+		return new String[] { String.format("Grafo de conflitos:            %s", grafo.descricao()),
+				String.format("Recursos:                      %d", grafo.nrRecursos),
+				String.format("Recursos por assento (média):  %.1f", grafo.recursosPorPedido()),
+				String.format("Palavras por assento (média):  %.1f", (double) palavras.length / nrFilosofos),
+				String.format("Conflitos por assento (média): %.1f", grafo.conflitosPorPedido()) };
+	}
+
+	@Override
+	public void pegarGarfos(int filosofo) throws InterruptedException {
+		marcarFome(filosofo);
+		if (aquisicao == AQUISICAO_CAS)
+			pegarTudoOuNada(filosofo);
+		else
+			pegarEmOrdem(filosofo);
+		marcarRecursos(filosofo, false);
+		filosofos[filosofo] = COMENDO;
+		registrarRefeicao(filosofo, Rastro.CONJUNTO, grafo.grau(filosofo));
+	}
+
+	@Override
+	public void returningGarfos(int filosofo) {
+		registrarDevolucao(filosofo);
+		filosofos[filosofo] = PENSANDO;
+		marcarRecursos(filosofo, true);
+		soltar(inicioPalavras[filosofo], inicioPalavras[filosofo + 1]);
+		acordarConflitos(filosofo);
+	}
+
+	// Publica-se como esperando ANTES de tentar de novo (sem acordar perdido, como na MesaAtomica)
+	private void pegarTudoOuNada(int filosofo) throws InterruptedException {
+		if (tentarTudo(filosofo))
+			return;
+		registrarEspera(filosofo);
+		esperando.set(filosofo, Thread.currentThread());
+		try {
+			while (!tentarTudo(filosofo)) {
+				LockSupport.park(this);
+				if (Thread.interrupted()) {
+					filosofos[filosofo] = PENSANDO;
+					throw new InterruptedException();
+				}
+				if (tentarTudo(filosofo))
+					return;
+				registrarEspera(filosofo); // acordou mas algum conflito pegou antes
+			}
+		} finally {
+			esperando.set(filosofo, null);
+		}
+	}
+
+	private boolean tentarTudo(int filosofo) {
+		int de = inicioPalavras[filosofo], ate = inicioPalavras[filosofo + 1];
+		for (int k = de; k < ate; k++) {
+			if (!tentarMarcar(palavras[k], mascaras[k])) {
+				// quem falhou por causa destas marcas passageiras precisa tentar de novo:
+				// sem o aviso, dois pedidos em rollback cruzado estacionariam para sempre
+				if (k > de) {
+					soltar(de, k);
+					acordarConflitos(filosofo);
+				}
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Segura as palavras já pegas e espera na ocupada: a ordem crescente impede o ciclo
+	private void pegarEmOrdem(int filosofo) throws InterruptedException {
+		int de = inicioPalavras[filosofo], ate = inicioPalavras[filosofo + 1];
+		boolean esperou = false;
+		for (int k = de; k < ate; k++) {
+			if (tentarMarcar(palavras[k], mascaras[k]))
+				continue;
+			if (!esperou) {
+				registrarEspera(filosofo);
+				esperou = true;
+			}
+			esperando.set(filosofo, Thread.currentThread());
+			try {
+				while (!tentarMarcar(palavras[k], mascaras[k])) {
+					LockSupport.park(this);
+					if (Thread.interrupted()) {
+						soltar(de, k);
+						acordarConflitos(filosofo);
+						filosofos[filosofo] = PENSANDO;
+						throw new InterruptedException();
+					}
+				}
+			} finally {
+				esperando.set(filosofo, null);
+			}
+		}
+	}
+
+	private void acordarConflitos(int filosofo) {
+		for (int i = grafo.inicioConflitos[filosofo]; i < grafo.inicioConflitos[filosofo + 1]; i++) {
+			Thread t = esperando.get(grafo.conflitos[i]);
+			if (t != null)
+				LockSupport.unpark(t);
+		}
+	}
+
+	// Espelho em `garfos` (um por recurso) para o trace e o estado final do painel; quem escreve
+	// é o dono dos bits, antes de soltá-los
+	private void marcarRecursos(int filosofo, boolean livres) {
+		for (int i = grafo.inicio[filosofo]; i < grafo.inicio[filosofo + 1]; i++)
+			garfos[grafo.recursos[i]] = livres;
+	}
+
+	// ===== Recursos do assento para os ganchos da Mesa (log, perfil, espera adaptativa) =====
+
+	@Override
+	int grauDoAssento(int filosofo) {
+		return grafo.grau(filosofo);
+	}
+
+	@Override
+	int recursoDoAssento(int filosofo, int i) {
+		return grafo.recursos[grafo.inicio[filosofo] + i];
+	}
+
+	// ===== Operações sobre os bits =====
+
+	private boolean tentarMarcar(int palavra, long mascara) {
+		long atual;
+		do {
+			atual = bits.get(palavra);
+			if ((atual & mascara) != 0)
+				return false;
+		} while (!bits.compareAndSet(palavra, atual, atual | mascara));
+		return true;
+	}
+
+	// Solta as palavras [de, ate) do CSR, da última para a primeira
+	private void soltar(int de, int ate) {
+		for (int k = ate - 1; k >= de; k--) {
+			long atual;
+			do {
+				atual = bits.get(palavras[k]);
+			} while (!bits.compareAndSet(palavras[k], atual, atual & ~mascaras[k]));
+		}
+	}
+
+	// ===== Visão de "garfos" para o resto da mesa =====
+
+	// "3 recursos: 4, 17, 40", cortado com … quando não cabe na linha do painel
+	@Override
+	String garfosDoAssento(int filosofo) {
+		StringBuilder sb = new StringBuilder().append(grafo.grau(filosofo)).append(" recursos: ");
+		for (int i = grafo.inicio[filosofo]; i < grafo.inicio[filosofo + 1]; i++) {
+			String r = (i > grafo.inicio[filosofo] ? ", " : "") + grafo.recursos[i];
+			if (sb.length() + r.length() > 40) {
+				sb.append(", …");
+				break;
+			}
+			sb.append(r);
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public boolean isGarfosDoAnel() {
+		return false;
+	}
+
+	@Override
+	public int garfosEmUso() {
+		int emUso = 0;
+		for (int i = 0; i < bits.length(); i++)
+			emUso += Long.bitCount(bits.getOpaque(i));
+		return emUso;
+	}
+}
@@ -0,0 +1,73 @@
+package Jantar;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Mesa com uma trava por garfo (lock striping) em vez do monitor único da Mesa.
+// Cada filósofo pega primeiro o garfo de menor índice e depois o de maior (ordem global
+// de recursos), então não há ciclo de espera mesmo com ADMISSAO_LIVRE. Devolver um garfo
+// acorda no máximo um vizinho (a fila da própria trava), em vez de acordar a mesa toda.
+public class MesaListrada extends Mesa {
+	private final ReentrantLock[] travas;
+
+	public MesaListrada() {
+		this(NR_FILOSOFOS_PADRAO, ADMISSAO_GARCOM);
+	}
+
+	public MesaListrada(int nrFilosofos, int admissao) {
+		super(nrFilosofos, admissao);
+		travas = new ReentrantLock[nrFilosofos];
+		for (int i = 0; i < nrFilosofos; ++i) {
+			travas[i] = new ReentrantLock();
+		}
+	}
+
+	@Override
+	public String nomeMotor() {
+		return "listrado (1 trava por garfo)";
+	}
+
+	@Override
+	public void pegarGarfos(int filosofo) throws InterruptedException {
+		marcarFome(filosofo);
+		int esq = garfoEsquerdo(filosofo);
+		int dir = garfoDireito(filosofo);
+		int primeiro = Math.min(esq, dir);
+		int segundo = Math.max(esq, dir);
+
+		pegar(filosofo, primeiro);
+		try {
+			pegar(filosofo, segundo);
+		} catch (InterruptedException e) {
+			soltar(primeiro);
+			filosofos[filosofo] = PENSANDO;
+			throw e;
+		}
+
+		filosofos[filosofo] = COMENDO;
+		registrarRefeicao(filosofo, esq, dir);
+	}
+
+	@Override
+	public void returningGarfos(int filosofo) {
+		registrarDevolucao(filosofo);
+		filosofos[filosofo] = PENSANDO;
+		soltar(garfoDireito(filosofo));
+		soltar(garfoEsquerdo(filosofo));
+	}
+
+	// Conta uma espera só quando o garfo já estava com o vizinho
+	private void pegar(int filosofo, int garfo) throws InterruptedException {
+		ReentrantLock trava = travas[garfo];
+		if (!trava.tryLock()) {
+			registrarEspera(filosofo);
+			if (!girarAntesDeBloquear(filosofo, garfo, garfo) || !trava.tryLock())
+				trava.lockInterruptibly();
+		}
+		garfos[garfo] = false;
+	}
+
+	private void soltar(int garfo) {
+		garfos[garfo] = true;
+		travas[garfo].unlock();
+	}
+}
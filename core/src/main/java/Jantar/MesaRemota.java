@@ -0,0 +1,327 @@
+package Jantar;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Uma faixa de assentos de uma mesa cujos garfos são de um ServidorGarfos (outra JVM).
+// Os filósofos locais compartilham uma conexão: pegarGarfos põe PEDIR no buffer de saída e
+// estaciona (park) até a resposta; a thread de E/S troca o buffer inteiro por um vazio e o
+// manda num write só, então vários pedidos seguem juntos sem esperar resposta (pipeline).
+// As respostas do servidor chegam em lote e a thread de E/S acorda cada assento.
+// Os ids dos assentos são os da mesa inteira; o painel mostra só os desta JVM.
+public final class MesaRemota extends Mesa {
+	// Situação do pedido de cada assento local, no índice f - primeiro (AtomicIntegerArray: assento x thread de E/S)
+	private static final int LIVRE = 0;
+	private static final int ESPERANDO = 1;
+	private static final int CONCEDIDO = 2;
+	private static final int CONCEDIDO_APOS_ESPERA = 3;
+	private static final int CANCELADO = 4; // interrompido; falta a resposta do servidor
+	private static final int RECUSADO = 5;
+
+	private final String servidor;
+	private final int primeiro;
+	private final int fim;
+	private final SocketChannel canal;
+	private final Selector seletor;
+	private final SelectionKey chave;
+	private final AtomicIntegerArray situacao;
+	private final Thread[] esperando;
+	private final Thread es;
+	private volatile boolean desligada; // conexão fechada ou perdida: ninguém mais recebe garfos
+
+	// Saída em buffer duplo: os assentos escrevem em `pendentes` (com a trava), a E/S envia `emEnvio`
+	private final ReentrantLock travaSaida = new ReentrantLock();
+	private ByteBuffer pendentes = ProtocoloGarfos.novoBuffer(256);
+	private ByteBuffer emEnvio = ProtocoloGarfos.novoBuffer(256);
+	private long quadrosEnviados; // travaSaida
+
+	// Só a thread de E/S (lidos pelo painel depois de fechar())
+	private final ByteBuffer entrada = ProtocoloGarfos.novoBuffer(ServidorGarfos.QUADROS_POR_LEITURA);
+	private long quadrosRecebidos;
+	private long escritas;
+
+	private MesaRemota(String servidor, SocketChannel canal, int nrFilosofos, int primeiro, int quantos)
+			throws IOException {
+		// tudo-ou-nada no servidor: sem mordomo, que aqui só veria os assentos locais
+		super(nrFilosofos, primeiro, primeiro + quantos, ADMISSAO_LIVRE);
+		setEspera(ESPERA_BLOQUEANTE);
+		this.servidor = servidor;
+		this.primeiro = primeiro;
+		this.fim = primeiro + quantos;
+		this.canal = canal;
+		this.situacao = new AtomicIntegerArray(quantos);
+		this.esperando = new Thread[quantos];
+		canal.configureBlocking(false);
+		this.seletor = Selector.open();
+		this.chave = canal.register(seletor, SelectionKey.OP_READ);
+		this.es = new Thread(this::atender, "mesa-remota-es");
+		es.setDaemon(true);
+		es.start();
+	}
+
+	// Conecta, confere a versão do protocolo e recebe o tamanho da mesa; assentos [primeiro, primeiro + quantos)
+	public static MesaRemota conectar(String host, int porta, int primeiro, int quantos) throws IOException {
+		SocketChannel canal = SocketChannel.open(new InetSocketAddress(host, porta));
+		try {
+			canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			ByteBuffer quadro = ProtocoloGarfos.novoBuffer(1);
+			quadro.putInt(ProtocoloGarfos.OLA).putInt(ProtocoloGarfos.VERSAO).flip();
+			while (quadro.hasRemaining())
+				canal.write(quadro);
+			quadro.clear();
+			while (quadro.hasRemaining()) {
+				if (canal.read(quadro) < 0)
+					throw new IOException("Servidor de garfos fechou a conexão no OLA");
+			}
+			quadro.flip();
+			int operacao = quadro.getInt();
+			int n = quadro.getInt();
+			if (operacao != ProtocoloGarfos.BEM_VINDO)
+				throw new IOException("Servidor de garfos recusou o protocolo versão " + ProtocoloGarfos.VERSAO);
+			if (primeiro < 0 || quantos < 1 || primeiro + quantos > n)
+				throw new IllegalArgumentException(
+						"Assentos fora da mesa de " + n + ": " + primeiro + ".." + (primeiro + quantos - 1));
+			return new MesaRemota(host + ":" + porta, canal, n, primeiro, quantos);
+		} catch (IOException | RuntimeException e) {
+			canal.close();
+			throw e;
+		}
+	}
+
+	// Interrompido (ou conexão perdida) durante a espera: volta a PENSANDO sem garfos e propaga
+	@Override
+	public void pegarGarfos(int filosofo) throws InterruptedException {
+		if (filosofo < primeiro || filosofo >= fim)
+			throw new IllegalArgumentException("Assento " + filosofo + " não é desta JVM");
+		int i = filosofo - primeiro;
+		esperando[i] = Thread.currentThread();
+		// um CANCELAR anterior ainda sem resposta: o servidor confirma antes do próximo PEDIR
+		while (situacao.get(i) == CANCELADO && !desligada) {
+			LockSupport.park(this);
+			if (Thread.interrupted())
+				throw new InterruptedException();
+		}
+		if (situacao.get(i) != LIVRE && !desligada)
+			throw new IllegalStateException("Assento " + filosofo + " ainda tem um pedido pendente");
+		marcarFome(filosofo);
+		situacao.set(i, ESPERANDO);
+		enviar(ProtocoloGarfos.PEDIR, filosofo);
+		int s;
+		while ((s = situacao.get(i)) == ESPERANDO) {
+			if (Thread.interrupted()) {
+				desistir(filosofo);
+				throw new InterruptedException();
+			}
+			if (desligada) {
+				situacao.set(i, LIVRE);
+				filosofos[indiceAssento(filosofo)] = PENSANDO;
+				throw new InterruptedException("Conexão com o servidor de garfos encerrada");
+			}
+			LockSupport.park(this);
+		}
+		if (s == RECUSADO) {
+			situacao.set(i, LIVRE);
+			filosofos[indiceAssento(filosofo)] = PENSANDO;
+			throw new IllegalStateException("Servidor de garfos recusou o assento " + filosofo);
+		}
+		situacao.set(i, LIVRE);
+		int esq = garfoEsquerdo(filosofo);
+		int dir = garfoDireito(filosofo);
+		if (s == CONCEDIDO_APOS_ESPERA)
+			registrarEspera(filosofo); // o servidor fez o assento esperar por um vizinho
+		garfos[indiceGarfo(esq)] = false;
+		garfos[indiceGarfo(dir)] = false;
+		filosofos[indiceAssento(filosofo)] = COMENDO;
+		registrarRefeicao(filosofo, esq, dir);
+	}
+
+	// A concessão pode já estar a caminho: quem chegar primeiro (CAS aqui ou na E/S) decide
+	private void desistir(int filosofo) {
+		int i = filosofo - primeiro;
+		if (situacao.compareAndSet(i, ESPERANDO, CANCELADO)) {
+			enviar(ProtocoloGarfos.CANCELAR, filosofo);
+		} else {
+			int s = situacao.getAndSet(i, LIVRE);
+			if (s == CONCEDIDO || s == CONCEDIDO_APOS_ESPERA)
+				enviar(ProtocoloGarfos.DEVOLVER, filosofo); // já concedido: devolve sem comer
+		}
+		filosofos[indiceAssento(filosofo)] = PENSANDO;
+	}
+
+	@Override
+	public void returningGarfos(int filosofo) {
+		registrarDevolucao(filosofo);
+		filosofos[indiceAssento(filosofo)] = PENSANDO;
+		garfos[indiceGarfo(garfoEsquerdo(filosofo))] = true;
+		garfos[indiceGarfo(garfoDireito(filosofo))] = true;
+		enviar(ProtocoloGarfos.DEVOLVER, filosofo);
+	}
+
+	// Quem encontra o buffer vazio acorda a E/S; os demais só pegam carona no mesmo write
+	private void enviar(int operacao, int filosofo) {
+		boolean acordar;
+		travaSaida.lock();
+		try {
+			acordar = pendentes.position() == 0;
+			pendentes = ProtocoloGarfos.escrever(pendentes, operacao, filosofo);
+			quadrosEnviados++;
+		} finally {
+			travaSaida.unlock();
+		}
+		if (acordar)
+			seletor.wakeup();
+	}
+
+	// Encerra a conexão (o servidor libera os garfos de quem ainda estiver comendo)
+	public void fechar() {
+		desligada = true;
+		seletor.wakeup();
+		try {
+			es.join(1_000L);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// ===== Thread de E/S =====
+
+	private void atender() {
+		try {
+			while (!desligada) {
+				seletor.select();
+				seletor.selectedKeys().clear();
+				if (!ler())
+					break;
+				escrever();
+			}
+		} catch (IOException e) {
+			System.err.println("Conexão com o servidor de garfos perdida: " + e.getMessage());
+		} finally {
+			desligada = true;
+			try {
+				canal.close();
+				seletor.close();
+			} catch (IOException e) {
+				// nada a fazer na saída
+			}
+			for (int i = 0; i < esperando.length; i++) {
+				Thread t = esperando[i];
+				if (t != null)
+					LockSupport.unpark(t);
+			}
+		}
+	}
+
+	// false = servidor fechou a conexão
+	private boolean ler() throws IOException {
+		int lidos = canal.read(entrada);
+		if (lidos < 0)
+			return false;
+		if (lidos == 0)
+			return true;
+		entrada.flip();
+		while (entrada.remaining() >= ProtocoloGarfos.TAMANHO_QUADRO) {
+			quadrosRecebidos++;
+			receber(entrada.getInt(), entrada.getInt());
+		}
+		entrada.compact();
+		return true;
+	}
+
+	private void receber(int operacao, int filosofo) {
+		if (filosofo < primeiro || filosofo >= fim)
+			return;
+		int i = filosofo - primeiro;
+		switch (operacao) {
+		case ProtocoloGarfos.CONCEDIDO, ProtocoloGarfos.CONCEDIDO_APOS_ESPERA -> {
+			int nova = operacao == ProtocoloGarfos.CONCEDIDO ? CONCEDIDO : CONCEDIDO_APOS_ESPERA;
+			if (situacao.compareAndSet(i, ESPERANDO, nova)) {
+				LockSupport.unpark(esperando[i]);
+			} else if (situacao.get(i) == CANCELADO) {
+				// o assento desistiu, mas o CANCELAR chegou tarde: devolve antes de liberar o assento
+				enviar(ProtocoloGarfos.DEVOLVER, filosofo);
+				situacao.set(i, LIVRE);
+				LockSupport.unpark(esperando[i]);
+			}
+		}
+		case ProtocoloGarfos.CANCELADO -> {
+			if (situacao.compareAndSet(i, CANCELADO, LIVRE))
+				LockSupport.unpark(esperando[i]); // o assento pode já estar pedindo de novo
+		}
+		case ProtocoloGarfos.RECUSADO -> {
+			if (situacao.compareAndSet(i, ESPERANDO, RECUSADO))
+				LockSupport.unpark(esperando[i]);
+		}
+		default -> {
+			// operação desconhecida: ignora (servidor mais novo)
+		}
+		}
+	}
+
+	// Troca os buffers (sem cópia) quando o anterior já saiu inteiro, e continua enquanto houver
+	// quadros: só se volta a OP_READ depois de ver `pendentes` vazio com a trava, e então o próximo
+	// enviar() encontra o buffer vazio e acorda o seletor
+	private void escrever() throws IOException {
+		while (true) {
+			if (emEnvio.position() == 0) {
+				travaSaida.lock();
+				try {
+					ByteBuffer t = emEnvio;
+					emEnvio = pendentes;
+					pendentes = t;
+				} finally {
+					travaSaida.unlock();
+				}
+			}
+			if (emEnvio.position() == 0) {
+				chave.interestOps(SelectionKey.OP_READ);
+				return;
+			}
+			emEnvio.flip();
+			canal.write(emEnvio);
+			escritas++;
+			boolean sobrou = emEnvio.hasRemaining();
+			emEnvio.compact();
+			if (sobrou) {
+				// socket cheio: o resto (e o que chegar em `pendentes`) sai no próximo OP_WRITE
+				chave.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+				return;
+			}
+		}
+	}
+
+	// ===== Painel =====
+
+	@Override
+	public String nomeMotor() {
+		return "remoto (tudo-ou-nada)";
+	}
+
+	@Override
+	public String nomeEspera() {
+		return "park até a resposta (rede)";
+	}
+
+	@Override
+	String[] detalhesMotor() {
+		long enviados;
+		travaSaida.lock();
+		try {
+			enviados = quadrosEnviados;
+		} finally {
+			travaSaida.unlock();
+		}
+		return new String[] { String.format("Servidor de garfos:            %s", servidor),
+				String.format("Assentos nesta JVM:            %d..%d de %d", primeiro + 1, fim, nrFilosofos),
+				String.format("Quadros enviados/recebidos:    %d / %d", enviados, quadrosRecebidos),
+				String.format("Quadros por write (pipeline):  %.1f", escritas == 0 ? 0.0 : (double) enviados / escritas) };
+	}
+}
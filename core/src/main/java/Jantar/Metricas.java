@@ -0,0 +1,254 @@
+package Jantar;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Contadores da mesa sem trava e sem compartilhamento falso de linha de cache.
+//
+// Cada filósofo tem um registro próprio de PASSO longs (64 bytes = uma linha de cache),
+// escrito só pela thread dele (quem come/espera é sempre o dono do assento), então basta
+// leitura simples + escrita "opaque" nos contadores, e o vizinho do lado não invalida a
+// linha de ninguém. Os totais da mesa, escritos por todos, ficam em LongAdder.
+// (@Contended seria o caminho natural, mas é interno ao JDK: exige --add-exports e
+// -XX:-RestrictContended, então o preenchimento é feito à mão.)
+// Latências (FOME → COMENDO e espera pelo mordomo) vão para HistogramaLatencia.
+// Com uma JanelaDeslizante anexada, quem mexe num contador também põe o assento na fila de
+// "sujos" (uma vez até ser lido), e a janela só relê esses, sem varrer a mesa. Isso custa um
+// getAndSet (barreira completa) na linha do próprio assento a cada evento e, quando o assento
+// ainda não estava na fila, um getAndIncrement na cauda, que é de todos. Sem janela (o caso
+// do jantar sem relatório periódico) a marcação inteira se reduz à leitura de um volatile.
+// Registros, histogramas e fila cobrem só os assentos desta JVM, [primeiro, fim): numa mesa
+// dividida entre processos (MesaRemota, MesaCompartilhada) o heap cresce com a faixa local,
+// não com a mesa. Os ids continuam os da mesa inteira; fora da faixa as leituras dão 0.
+public class Metricas {
+	static final int PASSO = 8; // longs por registro = 64 bytes
+	private static final int REFEICOES = 0;
+	private static final int ESPERAS = 1; // acumuladas
+	private static final int ESPERAS_RODADA = 2; // desde a última refeição
+	private static final int INICIO_FOME = 3; // System.nanoTime() ao ficar com fome
+	private static final int INICIO_REFEICAO = 4; // System.nanoTime() ao passar a COMENDO
+	private static final int AQUISICOES = 5; // vezes que pegou os garfos (< refeições no modo em lote)
+	private static final int SUJO = 6; // 1 = assento na fila, ainda não lido pela JanelaDeslizante
+
+	private static final VarHandle CELULA = MethodHandles.arrayElementVarHandle(long[].class);
+
+	final int nrFilosofos;
+	final int primeiro;
+	final int fim;
+	private final long[] celulas; // registro i começa em (i - primeiro + 1) * PASSO; o primeiro é só preenchimento
+	private final LongAdder totalRefeicoes = new LongAdder();
+	private final LongAdder totalEsperas = new LongAdder();
+	private final LongAdder totalAquisicoes = new LongAdder();
+	final HistogramaLatencia latenciaGarfos; // FOME → COMENDO
+	final HistogramaLatencia latenciaEntrada; // tempo em entrarNoRefeitorio
+	// Fila circular de assentos sujos (assento + 1; 0 = vaga): cada assento entra no máximo
+	// uma vez até ser lido, então uma posição por assento local basta. Vários produtores, um consumidor.
+	private final AtomicIntegerArray sujos;
+	private final AtomicLong caudaSujos = new AtomicLong();
+	private long cabecaSujos; // só o consumidor (JanelaDeslizante.atualizar, sincronizado)
+	private volatile boolean comConsumidor; // alguém lê a fila de sujos: ver anexarConsumidor
+
+	public Metricas(int nrFilosofos) {
+		this(nrFilosofos, 0, nrFilosofos);
+	}
+
+	public Metricas(int nrFilosofos, int primeiro, int fim) {
+		if (primeiro < 0 || fim <= primeiro || fim > nrFilosofos)
+			throw new IllegalArgumentException("Assentos fora da mesa de " + nrFilosofos + ": " + primeiro + ".." + (fim - 1));
+		int locais = fim - primeiro;
+		this.nrFilosofos = nrFilosofos;
+		this.primeiro = primeiro;
+		this.fim = fim;
+		this.celulas = new long[(locais + 2) * PASSO];
+		this.latenciaGarfos = new HistogramaLatencia(locais);
+		this.latenciaEntrada = new HistogramaLatencia(locais);
+		this.sujos = new AtomicIntegerArray(locais);
+	}
+
+	private int base(int filosofo) {
+		return (filosofo - primeiro + 1) * PASSO;
+	}
+
+	boolean local(int filosofo) {
+		return filosofo >= primeiro && filosofo < fim;
+	}
+
+	// ===== Escrita (só a thread dona do assento) =====
+
+	void registrarEspera(int filosofo) {
+		int b = base(filosofo);
+		incrementar(b + ESPERAS);
+		incrementar(b + ESPERAS_RODADA);
+		totalEsperas.increment();
+		sujar(filosofo);
+	}
+
+	// Início da fome: o relógio da latência FOME → COMENDO começa aqui
+	void marcarFome(int filosofo) {
+		marcarFome(filosofo, System.nanoTime());
+	}
+
+	// Com relógio explícito: o SimuladorEventos passa o tempo virtual
+	void marcarFome(int filosofo, long agora) {
+		CELULA.setOpaque(celulas, base(filosofo) + INICIO_FOME, agora);
+	}
+
+	// Refeição que começa com uma aquisição dos garfos
+	void registrarRefeicao(int filosofo) {
+		registrarRefeicao(filosofo, System.nanoTime());
+	}
+
+	void registrarRefeicao(int filosofo, long agora) {
+		int b = base(filosofo);
+		incrementar(b + REFEICOES);
+		incrementar(b + AQUISICOES);
+		CELULA.setOpaque(celulas, b + ESPERAS_RODADA, 0L);
+		totalRefeicoes.increment();
+		totalAquisicoes.increment();
+		CELULA.setOpaque(celulas, b + INICIO_REFEICAO, agora);
+		latenciaGarfos.gravar(filosofo - primeiro, agora - (long) CELULA.getOpaque(celulas, b + INICIO_FOME));
+		sujar(filosofo);
+	}
+
+	// Refeição seguinte do mesmo lote: os garfos não saíram da mão
+	void registrarRefeicaoExtra(int filosofo) {
+		incrementar(base(filosofo) + REFEICOES);
+		totalRefeicoes.increment();
+		sujar(filosofo);
+	}
+
+	// Quanto durou a refeição que está terminando (usado pela EsperaAdaptativa)
+	long duracaoRefeicao(int filosofo) {
+		return System.nanoTime() - (long) CELULA.getOpaque(celulas, base(filosofo) + INICIO_REFEICAO);
+	}
+
+	void registrarEntrada(int filosofo, long nanos) {
+		latenciaEntrada.gravar(filosofo - primeiro, nanos);
+	}
+
+	private void incrementar(int i) {
+		CELULA.setOpaque(celulas, i, (long) CELULA.getOpaque(celulas, i) + 1);
+	}
+
+	// getAndSet é barreira completa: ou o consumidor vê o contador novo ao limpar a marca,
+	// ou a marca estava limpa e o assento volta para a fila. A linha é do próprio assento.
+	private void sujar(int filosofo) {
+		if (!comConsumidor)
+			return;
+		if ((long) CELULA.getAndSet(celulas, base(filosofo) + SUJO, 1L) == 0L) {
+			long posicao = caudaSujos.getAndIncrement();
+			sujos.set((int) (posicao % sujos.length()), filosofo + 1);
+		}
+	}
+
+	// A partir daqui os eventos passam a marcar os assentos. O que foi contado antes não está na
+	// fila: o consumidor relê a faixa inteira uma vez depois de anexar (ver JanelaDeslizante.atualizar)
+	void anexarConsumidor() {
+		comConsumidor = true;
+	}
+
+	// Próximo assento sujo, já com a marca limpa (-1 se a fila está vazia ou a vaga da
+	// frente ainda não foi escrita: sobra para a próxima chamada)
+	int proximoSujo() {
+		int vaga = (int) (cabecaSujos % sujos.length());
+		int valor = sujos.get(vaga);
+		if (valor == 0)
+			return -1;
+		sujos.set(vaga, 0);
+		cabecaSujos++;
+		CELULA.getAndSet(celulas, base(valor - 1) + SUJO, 0L);
+		return valor - 1;
+	}
+
+	// ===== Leitura (qualquer thread, a qualquer momento) =====
+
+	public long refeicoes(int filosofo) {
+		return ler(filosofo, REFEICOES);
+	}
+
+	public long esperas(int filosofo) {
+		return ler(filosofo, ESPERAS);
+	}
+
+	public long esperasNaRodada(int filosofo) {
+		return ler(filosofo, ESPERAS_RODADA);
+	}
+
+	public long aquisicoes(int filosofo) {
+		return ler(filosofo, AQUISICOES);
+	}
+
+	private long ler(int filosofo, int campo) {
+		return local(filosofo) ? (long) CELULA.getOpaque(celulas, base(filosofo) + campo) : 0L;
+	}
+
+	// Histograma FOME → COMENDO do assento (do grupo dele acima de HistogramaLatencia.MAX_GRUPOS
+	// assentos locais); vazio fora da faixa
+	public long[] latenciaGarfos(int filosofo) {
+		if (!local(filosofo))
+			return HistogramaLatencia.vazio();
+		return latenciaGarfos.copiar(latenciaGarfos.grupo(filosofo - primeiro));
+	}
+
+	public long getTotalAquisicoes() {
+		return totalAquisicoes.sum();
+	}
+
+	public long getTotalRefeicoes() {
+		return totalRefeicoes.sum();
+	}
+
+	public long getTotalEsperas() {
+		return totalEsperas.sum();
+	}
+
+	public HistogramaLatencia getLatenciaGarfos() {
+		return latenciaGarfos;
+	}
+
+	public HistogramaLatencia getLatenciaEntrada() {
+		return latenciaEntrada;
+	}
+
+	// Cópia dos contadores para o painel final (uma passada, sem parar a mesa)
+	public Instantaneo instantaneo() {
+		return new Instantaneo(this);
+	}
+
+	public static final class Instantaneo {
+		public final int nrFilosofos;
+		public final long[] refeicoes;
+		public final long[] esperas;
+		public final long[] aquisicoes;
+		public final long totalRefeicoes;
+		public final long totalAquisicoes;
+		public final long totalEsperas;
+		public final long[] latenciaGarfos; // histogramas mesclados de todos os assentos
+		public final long[] latenciaEntrada;
+
+		Instantaneo(Metricas m) {
+			nrFilosofos = m.nrFilosofos;
+			refeicoes = new long[nrFilosofos];
+			esperas = new long[nrFilosofos];
+			aquisicoes = new long[nrFilosofos];
+			long somaRefeicoes = 0, somaEsperas = 0, somaAquisicoes = 0;
+			for (int i = m.primeiro; i < m.fim; i++) { // fora da faixa local fica 0
+				refeicoes[i] = m.refeicoes(i);
+				esperas[i] = m.esperas(i);
+				aquisicoes[i] = m.aquisicoes(i);
+				somaRefeicoes += refeicoes[i];
+				somaEsperas += esperas[i];
+				somaAquisicoes += aquisicoes[i];
+			}
+			// soma dos registros (e não os LongAdder) para o total bater com as linhas do painel
+			totalRefeicoes = somaRefeicoes;
+			totalEsperas = somaEsperas;
+			totalAquisicoes = somaAquisicoes;
+			latenciaGarfos = m.latenciaGarfos.mesclado();
+			latenciaEntrada = m.latenciaEntrada.mesclado();
+		}
+	}
+}
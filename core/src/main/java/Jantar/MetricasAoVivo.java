@@ -0,0 +1,311 @@
+package Jantar;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Métricas de qualquer RelatorioDaMesa em andamento, por JMX (MetricasAoVivoMBean) e no formato
+// texto do Prometheus.
+// Quem observa só lê: os contadores sem trava da Metricas, os histogramas e o estado da mesa
+// por leitura opaque. Nenhuma trava dos filósofos é tocada, então o caminho quente não muda.
+// Uma thread daemon amostra totais e estado a cada intervalo (refeições/s, comendo, com fome,
+// garfos em uso) e também faz a JanelaDeslizante da mesa avançar; percentis e contadores por
+// filósofo são lidos na hora do pedido.
+public final class MetricasAoVivo implements MetricasAoVivoMBean {
+	static final long INTERVALO_PADRAO_MS = Long.getLong("jantar.metricas.intervalo.ms", 1_000L);
+	static final int MAX_FILOSOFOS_EXPOSTOS = 256; // acima disso o Prometheus só recebe os totais
+
+	private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+	private final RelatorioDaMesa mesa;
+	private final long intervaloMs;
+	private volatile Amostra ultima;
+	private Thread amostrador; // uma por iniciar(); guardados por `this`
+	private ObjectName nome;
+
+	// Uma foto do amostrador; imutável, trocada inteira
+	private static final class Amostra {
+		final long instante;
+		final long refeicoes;
+		final double refeicoesPorSegundo;
+		final int comendo;
+		final int comFome;
+		final int garfosEmUso;
+
+		Amostra(long instante, long refeicoes, double refeicoesPorSegundo, int comendo, int comFome, int garfosEmUso) {
+			this.instante = instante;
+			this.refeicoes = refeicoes;
+			this.refeicoesPorSegundo = refeicoesPorSegundo;
+			this.comendo = comendo;
+			this.comFome = comFome;
+			this.garfosEmUso = garfosEmUso;
+		}
+	}
+
+	public MetricasAoVivo(RelatorioDaMesa mesa) {
+		this(mesa, INTERVALO_PADRAO_MS);
+	}
+
+	public MetricasAoVivo(RelatorioDaMesa mesa, long intervaloMs) {
+		if (intervaloMs <= 0)
+			throw new IllegalArgumentException("Intervalo de amostragem inválido: " + intervaloMs);
+		this.mesa = mesa;
+		this.intervaloMs = intervaloMs;
+		this.ultima = amostrar(null);
+	}
+
+	// Liga o amostrador e registra o MBean; devolve o nome JMX (Jantar:type=MetricasAoVivo,id=N).
+	// Pode ser chamado de novo depois de encerrar(): cada vez é um MBean e uma thread novos
+	public synchronized String iniciar() {
+		if (nome != null)
+			return nome.toString();
+		try {
+			MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+			ObjectName n = new ObjectName("Jantar:type=MetricasAoVivo,id=" + SEQUENCIA.incrementAndGet());
+			servidor.registerMBean(this, n);
+			amostrador = new Thread(this::amostrarSempre, "metricas-ao-vivo");
+			amostrador.setDaemon(true);
+			amostrador.start();
+			nome = n;
+			return n.toString();
+		} catch (JMException e) {
+			throw new IllegalStateException("Não foi possível registrar o MBean das métricas", e);
+		}
+	}
+
+	public synchronized void encerrar() {
+		if (nome == null)
+			return;
+		amostrador.interrupt();
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(nome);
+		} catch (JMException e) {
+			// já saiu do servidor: nada a desfazer
+		}
+		nome = null;
+		amostrador = null;
+	}
+
+	private void amostrarSempre() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				Thread.sleep(intervaloMs);
+				ultima = amostrar(ultima);
+			}
+		} catch (InterruptedException e) {
+			// encerrar(): sai em silêncio
+		}
+	}
+
+	private Amostra amostrar(Amostra anterior) {
+		long agora = System.nanoTime();
+		long refeicoes = mesa.getMetricas().getTotalRefeicoes();
+		mesa.janelas().atualizar(agora);
+		int[] estados = mesa.contarEstados();
+		double porSegundo = anterior == null || agora == anterior.instante ? 0.0
+				: (refeicoes - anterior.refeicoes) * 1e9 / (agora - anterior.instante);
+		return new Amostra(agora, refeicoes, porSegundo, estados[Mesa.COMENDO], estados[Mesa.FOME], mesa.garfosEmUso());
+	}
+
+	// ===== MBean =====
+
+	@Override
+	public String getMotor() {
+		return mesa.nomeMotor();
+	}
+
+	@Override
+	public int getNrFilosofos() {
+		return mesa.getNrFilosofos();
+	}
+
+	@Override
+	public long getTotalRefeicoes() {
+		return mesa.getMetricas().getTotalRefeicoes();
+	}
+
+	@Override
+	public long getTotalEsperas() {
+		return mesa.getMetricas().getTotalEsperas();
+	}
+
+	@Override
+	public long getTotalAquisicoes() {
+		return mesa.getMetricas().getTotalAquisicoes();
+	}
+
+	@Override
+	public double getRefeicoesPorSegundo() {
+		return ultima.refeicoesPorSegundo;
+	}
+
+	@Override
+	public int getComendo() {
+		return ultima.comendo;
+	}
+
+	@Override
+	public int getComFome() {
+		return ultima.comFome;
+	}
+
+	@Override
+	public double getUtilizacaoGarfos() {
+		return (double) ultima.garfosEmUso / mesa.nrGarfos();
+	}
+
+	@Override
+	public double getJanelaRefeicoesPorSegundo() {
+		return mesa.janelas().refeicoesPorSegundo();
+	}
+
+	@Override
+	public double getJanelaEsperasPorSegundo() {
+		return mesa.janelas().esperasPorSegundo();
+	}
+
+	@Override
+	public long getJanelaSpread() {
+		return mesa.janelas().spread();
+	}
+
+	@Override
+	public int getJanelaParados() {
+		return mesa.janelas().parados();
+	}
+
+	@Override
+	public int getAssentosEmStarvation() {
+		return mesa.janelas().getAssentosEmStarvation();
+	}
+
+	public JanelaDeslizante getJanelas() {
+		return mesa.janelas();
+	}
+
+	@Override
+	public long getLatenciaP50Nanos() {
+		return HistogramaLatencia.percentil(mesa.getMetricas().latenciaGarfos.mesclado(), 50);
+	}
+
+	@Override
+	public long getLatenciaP99Nanos() {
+		return HistogramaLatencia.percentil(mesa.getMetricas().latenciaGarfos.mesclado(), 99);
+	}
+
+	@Override
+	public long getLatenciaP999Nanos() {
+		return HistogramaLatencia.percentil(mesa.getMetricas().latenciaGarfos.mesclado(), 99.9);
+	}
+
+	@Override
+	public long getLatenciaMaximaNanos() {
+		return HistogramaLatencia.maximo(mesa.getMetricas().latenciaGarfos.mesclado());
+	}
+
+	@Override
+	public long getEntradaP99Nanos() {
+		return HistogramaLatencia.percentil(mesa.getMetricas().latenciaEntrada.mesclado(), 99);
+	}
+
+	@Override
+	public long refeicoesDoFilosofo(int filosofo) {
+		return mesa.getMetricas().refeicoes(validar(filosofo));
+	}
+
+	@Override
+	public long esperasDoFilosofo(int filosofo) {
+		return mesa.getMetricas().esperas(validar(filosofo));
+	}
+
+	// Acima de HistogramaLatencia.MAX_GRUPOS assentos o histograma é o do grupo do filósofo
+	@Override
+	public long latenciaP99DoFilosofo(int filosofo) {
+		return HistogramaLatencia.percentil(mesa.getMetricas().latenciaGarfos(validar(filosofo)), 99);
+	}
+
+	private int validar(int filosofo) {
+		if (filosofo < 0 || filosofo >= mesa.getNrFilosofos())
+			throw new IllegalArgumentException("Filósofo inexistente: " + filosofo);
+		return filosofo;
+	}
+
+	// ===== Prometheus (formato texto 0.0.4) =====
+
+	public String textoPrometheus() {
+		Amostra a = ultima;
+		long[] garfos = mesa.getMetricas().latenciaGarfos.mesclado();
+		long[] entrada = mesa.getMetricas().latenciaEntrada.mesclado();
+		StringBuilder sb = new StringBuilder(4_096);
+		metrica(sb, "jantar_refeicoes_total", "counter", "Refeições desde a partida", getTotalRefeicoes());
+		metrica(sb, "jantar_esperas_total", "counter", "Vezes que um filósofo teve de bloquear", getTotalEsperas());
+		metrica(sb, "jantar_aquisicoes_total", "counter", "Aquisições dos dois garfos", getTotalAquisicoes());
+		metrica(sb, "jantar_refeicoes_por_segundo", "gauge", "Refeições por segundo na última amostra",
+				a.refeicoesPorSegundo);
+		metrica(sb, "jantar_comendo", "gauge", "Filósofos comendo agora", a.comendo);
+		metrica(sb, "jantar_com_fome", "gauge", "Filósofos esperando garfos agora", a.comFome);
+		metrica(sb, "jantar_garfos_em_uso_razao", "gauge", "Fração dos garfos em uso", getUtilizacaoGarfos());
+		metrica(sb, "jantar_janela_refeicoes_por_segundo", "gauge", "Refeições por segundo na última janela",
+				getJanelaRefeicoesPorSegundo());
+		metrica(sb, "jantar_janela_esperas_por_segundo", "gauge", "Esperas por segundo na última janela",
+				getJanelaEsperasPorSegundo());
+		metrica(sb, "jantar_janela_spread", "gauge", "Refeições do que mais comeu menos as do que menos comeu",
+				getJanelaSpread());
+		metrica(sb, "jantar_janela_parados", "gauge", "Filósofos sem refeição na última janela", getJanelaParados());
+		metrica(sb, "jantar_starvation_assentos", "gauge", "Filósofos com esperas > 5 x refeições",
+				getAssentosEmStarvation());
+		resumo(sb, "jantar_latencia_garfos_segundos", "Latência FOME -> COMENDO", garfos);
+		resumo(sb, "jantar_latencia_mordomo_segundos", "Espera pelo mordomo", entrada);
+
+		int n = mesa.getNrFilosofos();
+		if (n <= MAX_FILOSOFOS_EXPOSTOS) {
+			cabecalho(sb, "jantar_filosofo_refeicoes_total", "counter", "Refeições por filósofo");
+			for (int i = 0; i < n; i++)
+				serie(sb, "jantar_filosofo_refeicoes_total", i, mesa.getMetricas().refeicoes(i));
+			cabecalho(sb, "jantar_filosofo_esperas_total", "counter", "Esperas por filósofo");
+			for (int i = 0; i < n; i++)
+				serie(sb, "jantar_filosofo_esperas_total", i, mesa.getMetricas().esperas(i));
+			cabecalho(sb, "jantar_filosofo_latencia_p99_segundos", "gauge", "p99 FOME -> COMENDO por filósofo");
+			for (int i = 0; i < n; i++)
+				serie(sb, "jantar_filosofo_latencia_p99_segundos", i, latenciaP99DoFilosofo(i) / 1e9);
+		}
+		return sb.toString();
+	}
+
+	private static void cabecalho(StringBuilder sb, String nome, String tipo, String ajuda) {
+		sb.append("# HELP ").append(nome).append(' ').append(ajuda).append('\n');
+		sb.append("# TYPE ").append(nome).append(' ').append(tipo).append('\n');
+	}
+
+	private static void metrica(StringBuilder sb, String nome, String tipo, String ajuda, long valor) {
+		cabecalho(sb, nome, tipo, ajuda);
+		sb.append(nome).append(' ').append(valor).append('\n');
+	}
+
+	private static void metrica(StringBuilder sb, String nome, String tipo, String ajuda, double valor) {
+		cabecalho(sb, nome, tipo, ajuda);
+		sb.append(nome).append(' ').append(valor).append('\n');
+	}
+
+	private static void resumo(StringBuilder sb, String nome, String ajuda, long[] h) {
+		cabecalho(sb, nome, "summary", ajuda);
+		for (double q : new double[] { 0.5, 0.99, 0.999 }) {
+			sb.append(nome).append("{quantile=\"").append(q).append("\"} ")
+					.append(HistogramaLatencia.percentil(h, q * 100) / 1e9).append('\n');
+		}
+		// a soma exata não é guardada: vai a estimativa pelos baldes
+		sb.append(nome).append("_sum ").append(HistogramaLatencia.soma(h) / 1e9).append('\n');
+		sb.append(nome).append("_count ").append(HistogramaLatencia.contagem(h)).append('\n');
+	}
+
+	private static void serie(StringBuilder sb, String nome, int filosofo, long valor) {
+		sb.append(nome).append("{filosofo=\"").append(filosofo + 1).append("\"} ").append(valor).append('\n');
+	}
+
+	private static void serie(StringBuilder sb, String nome, int filosofo, double valor) {
+		sb.append(nome).append("{filosofo=\"").append(filosofo + 1).append("\"} ").append(valor).append('\n');
+	}
+}
@@ -0,0 +1,52 @@
+package Jantar;
+
+// Interface JMX (MBean padrão) das MetricasAoVivo; latências em ns, filósofos a partir de 0.
+public interface MetricasAoVivoMBean {
+	String getMotor();
+
+	int getNrFilosofos();
+
+	long getTotalRefeicoes();
+
+	long getTotalEsperas();
+
+	long getTotalAquisicoes();
+
+	// Da última amostra (uma por intervalo)
+	double getRefeicoesPorSegundo();
+
+	int getComendo();
+
+	int getComFome();
+
+	double getUtilizacaoGarfos(); // fração dos garfos em uso, 0..1
+
+	// Da última janela fechada da JanelaDeslizante (padrão 1 s)
+	double getJanelaRefeicoesPorSegundo();
+
+	double getJanelaEsperasPorSegundo();
+
+	long getJanelaSpread(); // max - min das refeições por filósofo
+
+	int getJanelaParados(); // filósofos sem nenhuma refeição na janela
+
+	int getAssentosEmStarvation(); // esperas > 5 x refeições
+
+	// FOME → COMENDO, todos os assentos
+	long getLatenciaP50Nanos();
+
+	long getLatenciaP99Nanos();
+
+	long getLatenciaP999Nanos();
+
+	long getLatenciaMaximaNanos();
+
+	long getEntradaP99Nanos(); // espera pelo mordomo
+
+	// Por filósofo
+	long refeicoesDoFilosofo(int filosofo);
+
+	long esperasDoFilosofo(int filosofo);
+
+	long latenciaP99DoFilosofo(int filosofo);
+}
@@ -0,0 +1,49 @@
+package Jantar;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Catálogo de motores por nome, para o Main e os benchmarks escolherem na partida.
+// Um motor novo só precisa implementar MesaDeJantar e se registrar aqui (ou via registrar());
+// métricas ao vivo, perfil e painel passam pela interface, sem exigir a Mesa como base.
+public final class Motores {
+	@FunctionalInterface
+	public interface Fabrica {
+		MesaDeJantar criar(int nrFilosofos, int admissao);
+	}
+
+	private static final Map<String, Fabrica> FABRICAS = new LinkedHashMap<>();
+
+	static {
+		registrar("monitor", Mesa::new);
+		registrar("listrada", MesaListrada::new);
+		registrar("atomica", MesaAtomica::new);
+		registrar("chandy", MesaChandyMisra::new);
+		registrar("fragmentada", MesaFragmentada::new);
+		registrar("alternativa", MesaAlternativa::new);
+		registrar("grafo", MesaGrafo::new);
+	}
+
+	private Motores() {
+	}
+
+	public static synchronized void registrar(String nome, Fabrica fabrica) {
+		FABRICAS.put(nome.toLowerCase(), fabrica);
+	}
+
+	public static synchronized List<String> nomes() {
+		return List.copyOf(FABRICAS.keySet());
+	}
+
+	public static MesaDeJantar criar(String nome, int nrFilosofos, int admissao) {
+		Fabrica fabrica;
+		synchronized (Motores.class) {
+			fabrica = FABRICAS.get(nome.toLowerCase());
+		}
+		if (fabrica == null)
+			throw new IllegalArgumentException("Motor desconhecido: " + nome + " (disponíveis: "
+					+ String.join(", ", nomes()) + ")");
+		return fabrica.criar(nrFilosofos, admissao);
+	}
+}
@@ -0,0 +1,276 @@
+package Jantar;
+
+// Painel final (caixa alinhada) comum a todas as mesas (EstadoDaMesa):
+// desempenho por filósofo, estatísticas gerais, latência, fairness, estado final.
+// Os motores só contribuem com linhas próprias (detalhesMotor / detalhesJustica).
+final class PainelEstatisticas {
+	private final EstadoDaMesa mesa;
+	private final int nrFilosofos;
+	// Faixa de assentos desta JVM: a mesa inteira, ou só a parte de uma MesaRemota
+	private final int primeiro;
+	private final int fim;
+	private final int locais;
+
+	PainelEstatisticas(EstadoDaMesa mesa) {
+		this.mesa = mesa;
+		this.nrFilosofos = mesa.nrFilosofos;
+		this.primeiro = mesa.primeiroLocal;
+		this.fim = mesa.fimLocal;
+		this.locais = fim - primeiro;
+	}
+
+	void imprimir() {
+		mesa.rastro.esvaziar(); // o trace pendente sai antes da caixa
+		// --- métricas básicas (mantém sua lógica corrigida) ---
+		Metricas.Instantaneo m = mesa.metricas.instantaneo();
+		long[] contador = m.refeicoes;
+		long[] tentativasTotal = m.esperas;
+		long totalOperacoes = m.totalAquisicoes; // operação = pegar os garfos (no lote vale várias refeições)
+
+		// totais, fairness e starvation vêm dos agregados da JanelaDeslizante (sem nova varredura)
+		JanelaDeslizante janelas = mesa.janelas();
+		janelas.atualizar(System.nanoTime());
+		long totalRefeicoes = janelas.getTotalRefeicoes();
+		long totalEsperas = janelas.getTotalEsperas();
+
+		double mediaRef = (double) totalRefeicoes / locais;
+		double mediaEsp = (double) totalEsperas / locais;
+
+		// fairness
+		long max = janelas.getMaximo(), min = janelas.getMinimo();
+		int idxMax = janelas.assentoMaximo(), idxMin = janelas.assentoMinimo();
+		long diff = max - min;
+		double variacao = (max > 0) ? (diff * 100.0 / max) : 0.0;
+
+		// starvation (heurística original: esperas > 5 x refeições)
+		boolean houveStarvation = janelas.getAssentosEmStarvation() > 0;
+
+		// estado final (texto no estilo antigo)
+		// (a linha é truncada em INNER_CONTENT, então não adianta montar o vetor inteiro)
+		int visiveis = Math.min(mesa.filosofos.length, Mesa.MAX_COLUNAS_TRACE); // assentos locais
+		StringBuilder estados = new StringBuilder("Filósofos = [ ");
+		for (int i = 0; i < visiveis; i++) {
+			estados.append(estadoFix(i)).append(" ");
+		}
+		estados.append("]");
+
+		StringBuilder garfosSb = new StringBuilder("Garfos    = [ ");
+		for (int i = 0; i < Math.min(mesa.garfos.length, Mesa.MAX_COLUNAS_TRACE); i++) {
+			garfosSb.append(mesa.garfos[i] ? "LIVRE   " : "OCUPADO ");
+		}
+		garfosSb.append("]");
+
+		// ===== impressão com caixa alinhada =====
+		boxTop();
+		boxLineCenter("ESTATÍSTICAS FINAIS DO JANTAR DOS FILÓSOFOS");
+		boxSep();
+
+		boxLineBlank();
+		boxLine("DESEMPENHO INDIVIDUAL:");
+		boxLine("─────────────────────");
+		for (int i = primeiro; i < fim; i++) {
+			if (omitirLinha(i))
+				continue;
+			// exibição 1..N
+			long p99 = HistogramaLatencia.percentil(mesa.metricas.latenciaGarfos(i), 99);
+			boxLine(String.format("Filósofo %-2d: %3d refeições | %4d esperas | p99 %s", (i + 1), contador[i],
+					tentativasTotal[i], HistogramaLatencia.formatar(p99)));
+		}
+		boxLineBlank();
+
+		boxSep();
+		boxLine("ESTATÍSTICAS GERAIS:");
+		boxLine("───────────────────");
+		boxLine(String.format("Motor dos garfos:              %s", mesa.nomeMotor()));
+		for (String linha : mesa.detalhesMotor())
+			boxLine(linha);
+		boxLine(String.format("Política de admissão:          %s", mesa.nomeAdmissao()));
+		boxLine(String.format("Espera por garfo:              %s", mesa.nomeEspera()));
+		boxLine(String.format("Filósofos à mesa:              %5d", nrFilosofos));
+		if (locais != nrFilosofos)
+			boxLine(String.format("Filósofos nesta JVM:           %5d", locais));
+		boxLine(String.format("Eventos de trace:              %5d (%d descartados)", mesa.rastro.getPublicados(),
+				mesa.rastro.getDescartados()));
+		boxLine(String.format("Total de operações:            %5d", totalOperacoes));
+		boxLine(String.format("Total de refeições:            %5d", totalRefeicoes));
+		if (mesa.getLote() > 1) {
+			boxLine(String.format("Refeições por aquisição:      %5.2f (lote até %d%s)",
+					totalOperacoes == 0 ? 0.0 : (double) totalRefeicoes / totalOperacoes, mesa.getLote(),
+					mesa.getQuantumLote() > 0 ? ", " + HistogramaLatencia.formatar(mesa.getQuantumLote()) : ""));
+		}
+		boxLine(String.format("Total de esperas:              %5d", totalEsperas));
+		boxLine(String.format("Média de refeições/filósofo:  %5.1f", mediaRef));
+		boxLine(String.format("Média de esperas/filósofo:    %5.1f", mediaEsp));
+		boxLineBlank();
+
+		// só com o relatório ligado durante o jantar há janelas para comparar
+		if (janelas.getJanelasFechadas() >= 2) {
+			double[] vazao = janelas.vazaoDasJanelas();
+			double inicial = janelas.refeicoesPorSegundoIniciais();
+			double ultima = janelas.refeicoesPorSegundo();
+			boxSep();
+			boxLine("VAZÃO POR JANELA:");
+			boxLine("────────────────");
+			boxLine(String.format("Janelas fechadas:              %5d x %s (%d guardadas)", janelas.getJanelasFechadas(),
+					HistogramaLatencia.formatar(janelas.getLarguraNanos()), janelas.guardadas()));
+			boxLine(String.format("Refeições/s (mín/média/máx):  %.0f / %.0f / %.0f", vazao[0], vazao[1], vazao[2]));
+			boxLine(String.format("Primeira → última janela:     %.0f → %.0f (%+.1f%%)", inicial, ultima,
+					inicial > 0 ? (ultima - inicial) * 100.0 / inicial : 0.0));
+			boxLine(String.format("Maior spread numa janela:     %d refeições", janelas.maiorSpread()));
+			boxLine(String.format("Janelas com filósofo parado:  %d", janelas.janelasComParados()));
+			boxLineBlank();
+		}
+
+		boxSep();
+		boxLine("LATÊNCIA DE AQUISIÇÃO:");
+		boxLine("─────────────────────");
+		boxLine(HistogramaLatencia.cabecalhoPainel());
+		boxLine(HistogramaLatencia.linhaPainel("FOME→COMENDO", m.latenciaGarfos));
+		boxLine(HistogramaLatencia.linhaPainel("Mordomo", m.latenciaEntrada));
+		if (!mesa.metricas.latenciaGarfos.isExclusivo())
+			boxLine(String.format("(p99 por linha: assentos agrupados por assento %% %d)", HistogramaLatencia.MAX_GRUPOS));
+		boxLineBlank();
+
+		boxSep();
+		boxLine("ANÁLISE DE FAIRNESS (JUSTIÇA):");
+		boxLine("──────────────────────────────");
+		boxLine(String.format("Filósofo que mais comeu:      Filósofo %-2d (%d vezes)", (idxMax + 1), max));
+		boxLine(String.format("Filósofo que menos comeu:     Filósofo %-2d (%d vezes)", (idxMin + 1), min));
+		boxLine(String.format("Diferença (max - min):        %d refeições", diff));
+		boxLine(String.format("Variação percentual:          %.1f%%", variacao));
+		boxLineBlank();
+
+		boxLine(houveStarvation ? "⚠  Possível starvation detectado!"
+				: "✓  Sistema balanceado - sem starvation detectado");
+		boxLineBlank();
+		String[] justica = mesa.detalhesJustica();
+		for (String linha : justica)
+			boxLine(linha);
+		if (justica.length > 0)
+			boxLineBlank();
+
+		boxSep();
+		boxLine("ESTADO FINAL:");
+		boxLine("────────────");
+		boxLineFit(estados.toString());
+		boxLineFit(garfosSb.toString());
+		boxLineBlank();
+
+		boxSep();
+		boxLine("ROTAÇÃO DOS GARFOS (Histórico de Uso):");
+		boxLine("──────────────────────────────────────");
+		for (int i = primeiro; i < fim; i++) {
+			if (omitirLinha(i))
+				continue;
+			boxLineFit(String.format("Filósofo %-2d usa: %s", (i + 1), mesa.garfosDoAssento(i)));
+		}
+		boxLineBlank();
+
+		// histórico de verdade por garfo, se o perfil de contenção estava ligado
+		PerfilGarfos perfil = mesa.getPerfil();
+		if (perfil != null) {
+			boxSep();
+			boxLine("CONTENÇÃO POR GARFO (-Djantar.perfil):");
+			boxLine("─────────────────────────────────────");
+			for (String linha : perfil.linhasPainel())
+				boxLine(linha);
+			boxLineBlank();
+		}
+		boxBottom();
+	}
+
+	// Mesas grandes: lista só os primeiros filósofos e o último (que fecha o anel no garfo 0)
+	private boolean omitirLinha(int i) {
+		int r = i - primeiro;
+		if (locais <= Mesa.MAX_LINHAS_PAINEL || r < Mesa.MAX_LINHAS_PAINEL - 1 || i == fim - 1)
+			return false;
+		if (r == Mesa.MAX_LINHAS_PAINEL - 1)
+			boxLine(String.format("… %d filósofos omitidos …", locais - Mesa.MAX_LINHAS_PAINEL));
+		return true;
+	}
+
+	// ===== Helpers de formatação/caixa =====
+
+	// Largura interna (entre as bordas) = 62, com 1 espaço de margem em cada lado.
+	// Formato de linha: "║ " + <conteúdo com largura 60> + " ║"
+	// Linha superior/inferior: 62 '═' entre os cantos.
+	private static final int INNER_CONTENT = 60;
+	private static final int INNER_WITH_MARGINS = INNER_CONTENT + 2; // espaços laterais dentro da caixa
+
+	private void boxTop() {
+		System.out.println("╔" + repeat('═', INNER_WITH_MARGINS) + "╗");
+	}
+
+	private void boxSep() {
+		System.out.println("╠" + repeat('═', INNER_WITH_MARGINS) + "╣");
+	}
+
+	private void boxBottom() {
+		System.out.println("╚" + repeat('═', INNER_WITH_MARGINS) + "╝");
+	}
+
+	private void boxLine(String content) {
+		// aceita qualquer string; faz pad para caber em 60
+		System.out.println("║ " + padRight(fit(content, INNER_CONTENT), INNER_CONTENT) + " ║");
+	}
+
+	private void boxLineCenter(String content) {
+		String s = center(fit(content, INNER_CONTENT), INNER_CONTENT);
+		System.out.println("║ " + s + " ║");
+	}
+
+	private void boxLineBlank() {
+		System.out.println("║ " + repeat(' ', INNER_CONTENT) + " ║");
+	}
+
+	// Variante que trunca com precisão para não estourar a largura
+	private void boxLineFit(String content) {
+		System.out.println("║ " + padRight(fit(content, INNER_CONTENT), INNER_CONTENT) + " ║");
+	}
+
+	// === utilidades de texto ===
+	private static String repeat(char ch, int n) {
+		StringBuilder sb = new StringBuilder(n);
+		for (int i = 0; i < n; i++)
+			sb.append(ch);
+		return sb.toString();
+	}
+
+	private static String padRight(String s, int width) {
+		if (s.length() >= width)
+			return s;
+		StringBuilder sb = new StringBuilder(s);
+		while (sb.length() < width)
+			sb.append(' ');
+		return sb.toString();
+	}
+
+	private static String center(String s, int width) {
+		if (s.length() >= width)
+			return s;
+		int totalPad = width - s.length();
+		int left = totalPad / 2;
+		int right = totalPad - left;
+		return repeat(' ', left) + s + repeat(' ', right);
+	}
+
+	// Garante não ultrapassar a largura; se necessário, trunca.
+	private static String fit(String s, int width) {
+		if (s.length() <= width)
+			return s;
+		// tenta preservar o fim sem quebrar muito: usa "…" no final
+		if (width <= 1)
+			return s.substring(0, width);
+		return s.substring(0, width - 1) + "…";
+	}
+
+	// Estado textual no estilo antigo com largura fixada p/ montar o vetor
+	private String estadoFix(int i) {
+		return switch (mesa.filosofos[i]) {
+		case Mesa.PENSANDO -> "PENSANDO";
+		case Mesa.COMENDO -> "COMENDO ";
+		case Mesa.FOME -> "FOME     ";
+		default -> "???      ";
+		};
+	}
+}
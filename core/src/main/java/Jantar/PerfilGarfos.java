@@ -0,0 +1,288 @@
+package Jantar;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Perfil de contenção por garfo: posses, tempo de posse (total e máximo), quantas vezes o
+// garfo fez um vizinho esperar e para onde ele passa (mesmo assento de novo, assento
+// seguinte ou anterior). Posse = da refeição (registrarRefeicao) à devolução.
+// No motor grafo cada recurso do conjunto do assento conta como um garfo, e como não há
+// anel a passagem é só "mesmo assento" ou "outro".
+//
+// Cada garfo perfilado tem um registro de PASSO longs (128 bytes, duas linhas de cache);
+// quem escreve é quem está com o garfo, então basta escrita opaque, como na Metricas.
+// Só "bloqueios" é escrito por quem espera (os dois vizinhos) e usa getAndAdd.
+// Amostragem: só garfo % amostra == 0 é perfilado, com números exatos para esses; nos
+// outros o caminho quente não lê nem escreve nada além do teste (amostra é potência de 2,
+// então o teste é um AND).
+public final class PerfilGarfos {
+	static final int LIMITE_SEM_AMOSTRA = 1_024; // garfos; acima disso o padrão é 1 em AMOSTRA_GRANDE
+	static final int AMOSTRA_GRANDE = 16;
+	static final int TOP_PAINEL = 5;
+	static final int COLUNAS_MAPA = 36;
+	private static final char[] TONS = { '·', '░', '▒', '▓', '█' };
+
+	private static final int PASSO = 16;
+	private static final int POSSES = 0;
+	private static final int POSSE_TOTAL = 1;
+	private static final int POSSE_MAXIMA = 2;
+	private static final int INICIO_POSSE = 3;
+	private static final int DONO = 4; // assento + 1; 0 = livre
+	private static final int ULTIMO_DONO = 5; // assento + 1; 0 = nunca pego
+	private static final int BLOQUEIOS = 6;
+	private static final int REPETIU = 7; // o mesmo assento pegou de novo
+	private static final int ADIANTE = 8; // passou para o assento seguinte (i → i+1)
+	private static final int ATRAS = 9; // passou para o assento anterior (i → i-1)
+	private static final int OUTRO = 10; // nenhum dos dois (no motor grafo, toda troca de assento)
+
+	private static final VarHandle CELULA = MethodHandles.arrayElementVarHandle(long[].class);
+
+	private final int nrFilosofos;
+	private final int nrGarfos;
+	private final boolean anel; // false: sem vizinhos de anel (MesaGrafo)
+	private final int amostra;
+	private final int mascaraAmostra;
+	private final int deslocamento; // log2(amostra)
+	private final int perfilados;
+	private final long[] celulas; // registro do garfo g (amostrado) começa em (g / amostra + 1) * PASSO
+	private final long inicioNanos = System.nanoTime();
+	private volatile long fimNanos; // 0 = ainda rodando
+
+	public PerfilGarfos(int nrFilosofos, int nrGarfos, int amostra) {
+		this(nrFilosofos, nrGarfos, amostra, true);
+	}
+
+	public PerfilGarfos(int nrFilosofos, int nrGarfos, int amostra, boolean anel) {
+		if (amostra < 1)
+			throw new IllegalArgumentException("Amostra inválida: " + amostra);
+		this.nrFilosofos = nrFilosofos;
+		this.nrGarfos = nrGarfos;
+		this.anel = anel;
+		this.amostra = Integer.highestOneBit(amostra * 2 - 1); // arredonda para cima
+		this.mascaraAmostra = this.amostra - 1;
+		this.deslocamento = Integer.numberOfTrailingZeros(this.amostra);
+		this.perfilados = (nrGarfos + this.amostra - 1) / this.amostra;
+		this.celulas = new long[(perfilados + 2) * PASSO];
+	}
+
+	// -Djantar.perfil.amostra=K, ou 1 em AMOSTRA_GRANDE acima de LIMITE_SEM_AMOSTRA garfos
+	public static PerfilGarfos paraMesa(RelatorioDaMesa mesa) {
+		int garfos = mesa.nrGarfos();
+		int padrao = garfos > LIMITE_SEM_AMOSTRA ? AMOSTRA_GRANDE : 1;
+		return new PerfilGarfos(mesa.getNrFilosofos(), garfos, Integer.getInteger("jantar.perfil.amostra", padrao),
+				mesa.isGarfosDoAnel());
+	}
+
+	private int base(int garfo) {
+		return ((garfo >>> deslocamento) + 1) * PASSO;
+	}
+
+	private boolean perfilado(int garfo) {
+		return (garfo & mascaraAmostra) == 0;
+	}
+
+	// ===== Caminho quente (chamado pela Mesa) =====
+
+	// Os recursos do assento vêm de recursoDoAssento: o par do anel ou o conjunto da
+	// MesaGrafo, sem repetição
+	void pegou(EstadoDaMesa mesa, int filosofo) {
+		long agora = 0;
+		for (int i = 0, grau = mesa.grauDoAssento(filosofo); i < grau; i++) {
+			int g = mesa.recursoDoAssento(filosofo, i);
+			if (!perfilado(g))
+				continue;
+			if (agora == 0)
+				agora = System.nanoTime();
+			pegouGarfo(filosofo, g, agora);
+		}
+	}
+
+	void devolveu(EstadoDaMesa mesa, int filosofo) {
+		long agora = 0;
+		for (int i = 0, grau = mesa.grauDoAssento(filosofo); i < grau; i++) {
+			int g = mesa.recursoDoAssento(filosofo, i);
+			if (!perfilado(g))
+				continue;
+			if (agora == 0)
+				agora = System.nanoTime();
+			devolveuGarfo(g, agora);
+		}
+	}
+
+	// O filósofo (com fome) vai esperar: conta para cada recurso dele, que está com outro assento
+	void esperou(EstadoDaMesa mesa, int filosofo) {
+		for (int i = 0, grau = mesa.grauDoAssento(filosofo); i < grau; i++)
+			esperouGarfo(filosofo, mesa.recursoDoAssento(filosofo, i));
+	}
+
+	// Por garfo, para um motor que não deriva da Mesa: instantes em ns (System.nanoTime) e só
+	// na thread de quem segura o garfo; garfo fora da amostra não custa nada além do teste
+	public void pegouGarfo(int filosofo, int garfo, long agora) {
+		if (!perfilado(garfo))
+			return;
+		int b = base(garfo);
+		incrementar(b + POSSES);
+		CELULA.setOpaque(celulas, b + INICIO_POSSE, agora);
+		long ultimo = (long) CELULA.getOpaque(celulas, b + ULTIMO_DONO) - 1;
+		if (ultimo >= 0) {
+			int passagem;
+			if (ultimo == filosofo)
+				passagem = REPETIU;
+			else if (!anel)
+				passagem = OUTRO;
+			else if (filosofo == (ultimo + 1) % nrFilosofos)
+				passagem = ADIANTE;
+			else if (ultimo == (filosofo + 1) % nrFilosofos)
+				passagem = ATRAS;
+			else
+				passagem = OUTRO;
+			incrementar(b + passagem);
+		}
+		CELULA.setOpaque(celulas, b + ULTIMO_DONO, filosofo + 1L);
+		CELULA.setOpaque(celulas, b + DONO, filosofo + 1L);
+	}
+
+	public void devolveuGarfo(int garfo, long agora) {
+		if (!perfilado(garfo))
+			return;
+		int b = base(garfo);
+		long posse = agora - (long) CELULA.getOpaque(celulas, b + INICIO_POSSE);
+		CELULA.setOpaque(celulas, b + POSSE_TOTAL, (long) CELULA.getOpaque(celulas, b + POSSE_TOTAL) + posse);
+		if (posse > (long) CELULA.getOpaque(celulas, b + POSSE_MAXIMA))
+			CELULA.setOpaque(celulas, b + POSSE_MAXIMA, posse);
+		CELULA.setOpaque(celulas, b + DONO, 0L);
+	}
+
+	// Quem espera pelo garfo: conta um bloqueio se ele está com outro assento
+	public void esperouGarfo(int filosofo, int garfo) {
+		if (!perfilado(garfo))
+			return;
+		int b = base(garfo);
+		long dono = (long) CELULA.getOpaque(celulas, b + DONO);
+		if (dono != 0 && dono != filosofo + 1L)
+			CELULA.getAndAdd(celulas, b + BLOQUEIOS, 1L);
+	}
+
+	private void incrementar(int i) {
+		CELULA.setOpaque(celulas, i, (long) CELULA.getOpaque(celulas, i) + 1);
+	}
+
+	// ===== Leitura =====
+
+	// Fim do jantar: a ocupação passa a ser medida até aqui
+	public void encerrar() {
+		if (fimNanos == 0)
+			fimNanos = System.nanoTime();
+	}
+
+	private long duracao() {
+		long fim = fimNanos;
+		return Math.max(1, (fim == 0 ? System.nanoTime() : fim) - inicioNanos);
+	}
+
+	private long ler(int garfo, int campo) {
+		return (long) CELULA.getOpaque(celulas, base(garfo) + campo);
+	}
+
+	public int getAmostra() {
+		return amostra;
+	}
+
+	public int getPerfilados() {
+		return perfilados;
+	}
+
+	public long posses(int garfo) {
+		return ler(garfo, POSSES);
+	}
+
+	public long bloqueios(int garfo) {
+		return ler(garfo, BLOQUEIOS);
+	}
+
+	public long posseMaxima(int garfo) {
+		return ler(garfo, POSSE_MAXIMA);
+	}
+
+	// Fração do tempo do jantar em que o garfo esteve na mão de alguém, 0..1
+	public double ocupacao(int garfo) {
+		return Math.min(1.0, (double) ler(garfo, POSSE_TOTAL) / duracao());
+	}
+
+	// Linhas para a caixa do painel: mapa de calor (ocupação e bloqueios) e os garfos mais disputados
+	String[] linhasPainel() {
+		List<String> linhas = new ArrayList<>();
+		linhas.add(String.format("Garfos perfilados:             %d de %d%s", perfilados, nrGarfos,
+				amostra > 1 ? " (1 em " + amostra + ")" : ""));
+		int colunas = Math.min(perfilados, COLUNAS_MAPA);
+		double[] ocupacao = new double[colunas];
+		double[] bloqueios = new double[colunas];
+		long maiorBloqueio = 0;
+		for (int k = 0; k < perfilados; k++) {
+			int garfo = k * amostra;
+			int c = (int) ((long) k * colunas / perfilados);
+			ocupacao[c] = Math.max(ocupacao[c], ocupacao(garfo));
+			bloqueios[c] = Math.max(bloqueios[c], bloqueios(garfo));
+			maiorBloqueio = Math.max(maiorBloqueio, bloqueios(garfo));
+		}
+		for (int c = 0; c < colunas; c++)
+			bloqueios[c] = maiorBloqueio == 0 ? 0.0 : bloqueios[c] / maiorBloqueio;
+		linhas.add("Ocupação   |" + mapa(ocupacao) + "| 0..100%");
+		linhas.add("Bloqueios  |" + mapa(bloqueios) + "| 0.." + maiorBloqueio);
+		linhas.add(anel ? "(↻ mesmo assento, → seguinte, ← anterior, ⇄ outro)"
+				: "(garfo = recurso do grafo; ↻ mesmo assento, ⇄ outro assento)");
+		if (colunas < perfilados)
+			linhas.add(String.format("(cada coluna = pior de %.1f garfos perfilados)", (double) perfilados / colunas));
+
+		// os mais disputados: mais bloqueios, depois mais ocupação
+		Integer[] ordem = new Integer[perfilados];
+		for (int k = 0; k < perfilados; k++)
+			ordem[k] = k * amostra;
+		Arrays.sort(ordem, (a, b) -> bloqueios(a) != bloqueios(b) ? Long.compare(bloqueios(b), bloqueios(a))
+				: Double.compare(ocupacao(b), ocupacao(a)));
+		linhas.add("Mais disputados (posses | ocupação | máx | bloq | " + (anel ? "↻ → ← ⇄):" : "↻ ⇄):"));
+		for (int i = 0; i < Math.min(TOP_PAINEL, perfilados); i++) {
+			int g = ordem[i];
+			if (posses(g) == 0)
+				break;
+			String passagens = anel ? ler(g, REPETIU) + " " + ler(g, ADIANTE) + " " + ler(g, ATRAS) + " " + ler(g, OUTRO)
+					: ler(g, REPETIU) + " " + ler(g, OUTRO);
+			linhas.add(String.format("Garfo %-4d %7d | %5.1f%% | %s | %d | %s", g, posses(g), ocupacao(g) * 100,
+					HistogramaLatencia.formatar(posseMaxima(g)), bloqueios(g), passagens));
+		}
+		return linhas.toArray(new String[0]);
+	}
+
+	private static String mapa(double[] valores) {
+		StringBuilder sb = new StringBuilder(valores.length);
+		for (double v : valores)
+			sb.append(v <= 0 ? TONS[0] : TONS[Math.min(TONS.length - 1, 1 + (int) (v * (TONS.length - 1)))]);
+		return sb.toString();
+	}
+
+	// Uma linha por garfo perfilado; tempos em ns
+	public void escreverCsv(Path arquivo) throws IOException {
+		long duracao = duracao();
+		try (BufferedWriter w = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+			w.write("garfo,posses,posse_total_ns,posse_max_ns,posse_media_ns,ocupacao,bloqueios,"
+					+ "repetiu,adiante,atras,outro\n");
+			for (int k = 0; k < perfilados; k++) {
+				int g = k * amostra;
+				long posses = posses(g), total = ler(g, POSSE_TOTAL);
+				w.write(g + "," + posses + "," + total + "," + posseMaxima(g) + "," + (posses == 0 ? 0 : total / posses)
+						+ "," + String.format(Locale.ROOT, "%.6f", Math.min(1.0, (double) total / duracao))
+						+ "," + bloqueios(g) + "," + ler(g, REPETIU) + "," + ler(g, ADIANTE) + "," + ler(g, ATRAS) + ","
+						+ ler(g, OUTRO) + "\n");
+			}
+		}
+	}
+}
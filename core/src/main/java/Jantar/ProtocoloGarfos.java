@@ -0,0 +1,45 @@
+package Jantar;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Protocolo binário entre o ServidorGarfos e as MesaRemota de outras JVMs.
+// Todo quadro tem 8 bytes little-endian: int operação | int valor (assento, n ou versão).
+// Sem tamanho variável nem cabeçalho por mensagem: vários quadros seguidos num mesmo
+// write/read (pedidos em pipeline de um lado, respostas em lote do outro).
+final class ProtocoloGarfos {
+	static final int TAMANHO_QUADRO = 8;
+	static final int VERSAO = 1;
+
+	// Cliente -> servidor
+	static final int OLA = 1; // valor = versão do protocolo
+	static final int PEDIR = 2; // valor = assento com fome
+	static final int DEVOLVER = 3; // valor = assento que terminou de comer
+	static final int CANCELAR = 4; // valor = assento interrompido enquanto esperava
+
+	// Servidor -> cliente
+	static final int BEM_VINDO = 11; // valor = filósofos à mesa
+	static final int CONCEDIDO = 12; // garfos livres na hora do pedido
+	static final int CONCEDIDO_APOS_ESPERA = 13; // o assento esperou por um vizinho
+	static final int CANCELADO = 14; // CANCELAR chegou antes da concessão
+	static final int RECUSADO = 15; // assento fora da mesa, de outra conexão ou versão errada
+
+	private ProtocoloGarfos() {
+	}
+
+	static ByteBuffer novoBuffer(int quadros) {
+		return ByteBuffer.allocateDirect(quadros * TAMANHO_QUADRO).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	// Acrescenta um quadro, dobrando o buffer se preciso (o buffer volta em modo escrita)
+	static ByteBuffer escrever(ByteBuffer saida, int operacao, int valor) {
+		if (saida.remaining() < TAMANHO_QUADRO) {
+			ByteBuffer maior = novoBuffer(saida.capacity() / TAMANHO_QUADRO * 2);
+			saida.flip();
+			maior.put(saida);
+			saida = maior;
+		}
+		saida.putInt(operacao).putInt(valor);
+		return saida;
+	}
+}
@@ -0,0 +1,290 @@
+package Jantar;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Saída de trace assíncrona: quem come só grava um evento compacto numa fila circular
+// pré-alocada (sem String, sem System.out); uma thread dedicada formata e imprime.
+// Assim nenhum println (nem o atraso visual da MesaAlternativa) acontece com a mesa travada.
+// publicar nunca estaciona: os motores publicam de dentro das suas travas. A thread só nasce
+// no primeiro evento (mesas com o rastro desligado, como nos benchmarks, não têm nenhuma).
+public class Rastro {
+	// Tipos de evento
+	static final int COMECOU_COMER = 1; // Mesa: cabeçalho + início de refeição + estados
+	static final int TERMINOU = 2;
+	static final int LIMITE = 3; // MAX_TRACE atingido
+	static final int ANUNCIO = 4; // MesaAlternativa: cabeçalho + "vai começar a comer"
+	static final int PEGOU_ESQUERDO = 5;
+	static final int PEGOU_DIREITO = 6;
+	static final int COMECOU = 7; // MesaAlternativa: "começou a comer" + estados
+	static final int DEVOLVEU = 8;
+
+	// esq = CONJUNTO: o assento não tem par de garfos (MesaGrafo); no COMECOU_COMER, dir = quantos recursos
+	static final int CONJUNTO = -1;
+
+	// Política quando a fila enche
+	static final int DESCARTAR = 1; // descarta o evento e conta (nunca bloqueia quem come)
+	static final int BLOQUEAR = 2; // quem vai entrar na mesa espera vaga antes (aguardarVaga, sem trava)
+
+	static final int CAPACIDADE_PADRAO = Integer.getInteger("jantar.trace.capacidade", 1024);
+	static final int POLITICA_PADRAO = "bloquear".equals(System.getProperty("jantar.trace.politica"))
+			? BLOQUEAR
+			: DESCARTAR;
+
+	private static final long ESPERA_CONSUMIDOR_NS = 1_000_000L; // 1 ms entre verificações
+	private static final int EVENTOS_POR_REFEICAO = 6; // o máximo que uma refeição publica (MesaAlternativa)
+
+	private final int nrFilosofos;
+	private final int nrGarfos;
+	private final int primeiro; // id da primeira coluna (assento e garfo): > 0 nas mesas de faixa
+	private final int anel; // ids de garfo voltam a 0 aqui
+	private final int colunas; // quantos estados o instantâneo guarda
+	private final int colunasGarfos; // e quantos garfos (a MesaGrafo tem mais garfos que assentos)
+	private final int politica;
+	private final int atrasoMs; // pausa entre linhas impressas (efeito visual)
+	private final int mascara;
+	private final int folga; // vagas que aguardarVaga deixa livres: uma refeição de cada assento
+
+	// Registros pré-alocados (estrutura de vetores, um índice por posição da fila)
+	private final int[] tipo;
+	private final int[] filosofo;
+	private final int[] esq;
+	private final int[] dir;
+	private final int[] numero;
+	private final long[] nanos;
+	private final int[] estados; // capacidade * colunas
+	private final boolean[] garfos; // capacidade * colunasGarfos
+
+	// publicado[i] == seq + 1 quando o evento seq já foi todo escrito na posição i
+	private final AtomicLongArray publicado;
+	private final AtomicLong cauda = new AtomicLong(); // próxima seq a reservar (produtores)
+	private volatile long cabeca = 0; // próxima seq a consumir
+	private final AtomicLong descartados = new AtomicLong();
+
+	private final long inicioNanos = System.nanoTime();
+	private Thread consumidor; // criada no primeiro publicar; guardada por `this`
+	private volatile boolean iniciado = false;
+	private volatile boolean encerrando = false;
+
+	public Rastro(int nrFilosofos) {
+		this(nrFilosofos, nrFilosofos, CAPACIDADE_PADRAO, POLITICA_PADRAO, 0);
+	}
+
+	public Rastro(int nrFilosofos, int nrGarfos, int capacidade, int politica, int atrasoMs) {
+		this(0, nrGarfos, nrFilosofos, nrGarfos, capacidade, politica, atrasoMs);
+	}
+
+	// Instantâneos de uma faixa da mesa: nrFilosofos assentos a partir de `primeiro` e os
+	// nrGarfos garfos deles, numa mesa de `anel` garfos
+	Rastro(int primeiro, int anel, int nrFilosofos, int nrGarfos, int capacidade, int politica, int atrasoMs) {
+		if (Integer.bitCount(capacidade) != 1)
+			throw new IllegalArgumentException("Capacidade do trace deve ser potência de 2: " + capacidade);
+		this.nrFilosofos = nrFilosofos;
+		this.nrGarfos = nrGarfos;
+		this.primeiro = primeiro;
+		this.anel = anel;
+		this.colunas = Math.min(nrFilosofos, Mesa.MAX_COLUNAS_TRACE);
+		this.colunasGarfos = Math.min(nrGarfos, Mesa.MAX_COLUNAS_TRACE);
+		this.politica = politica;
+		this.atrasoMs = atrasoMs;
+		this.mascara = capacidade - 1;
+		this.folga = (int) Math.min((long) EVENTOS_POR_REFEICAO * nrFilosofos, capacidade / 2);
+		this.tipo = new int[capacidade];
+		this.filosofo = new int[capacidade];
+		this.esq = new int[capacidade];
+		this.dir = new int[capacidade];
+		this.numero = new int[capacidade];
+		this.nanos = new long[capacidade];
+		this.estados = new int[capacidade * colunas];
+		this.garfos = new boolean[capacidade * colunasGarfos];
+		this.publicado = new AtomicLongArray(capacidade);
+	}
+
+	// ===== Lado do produtor (filósofos) =====
+
+	public boolean publicar(int tipo, int filosofo, int esq, int dir, int numero) {
+		return publicar(tipo, filosofo, esq, dir, numero, null, null);
+	}
+
+	// estadosMesa/garfosMesa != null: copia um instantâneo das primeiras colunas.
+	// Fila cheia (ou rastro encerrado): descarta e conta, qualquer que seja a política
+	public boolean publicar(int tipo, int filosofo, int esq, int dir, int numero, int[] estadosMesa,
+			boolean[] garfosMesa) {
+		if (!iniciado)
+			iniciar();
+		long seq = reservar();
+		if (seq < 0) {
+			descartados.incrementAndGet();
+			return false;
+		}
+		int i = (int) (seq & mascara);
+		this.tipo[i] = tipo;
+		this.filosofo[i] = filosofo;
+		this.esq[i] = esq;
+		this.dir[i] = dir;
+		this.numero[i] = numero;
+		this.nanos[i] = System.nanoTime();
+		if (estadosMesa != null) {
+			System.arraycopy(estadosMesa, 0, estados, i * colunas, colunas);
+			System.arraycopy(garfosMesa, 0, garfos, i * colunasGarfos, colunasGarfos);
+		}
+		publicado.set(i, seq + 1);
+		return true;
+	}
+
+	private long reservar() {
+		while (true) {
+			long seq = cauda.get();
+			if (seq - cabeca > mascara || encerrando)
+				return -1;
+			if (cauda.compareAndSet(seq, seq + 1))
+				return seq;
+		}
+	}
+
+	private synchronized void iniciar() {
+		if (iniciado || encerrando)
+			return;
+		consumidor = new Thread(this::consumir, "rastro");
+		consumidor.setDaemon(true);
+		consumidor.start();
+		iniciado = true;
+	}
+
+	// BLOQUEAR: chamado pelo filósofo antes de entrar na mesa, sem nenhuma trava na mão; espera
+	// até caber uma refeição de cada assento (ou meia fila). Se ainda assim a fila encher, os
+	// eventos a mais são descartados dentro da mesa, nunca esperados lá
+	public void aguardarVaga() {
+		if (politica != BLOQUEAR)
+			return;
+		while (iniciado && !encerrando && cauda.get() - cabeca > mascara - folga)
+			LockSupport.parkNanos(ESPERA_CONSUMIDOR_NS);
+	}
+
+	public long getPublicados() {
+		return cauda.get();
+	}
+
+	public long getDescartados() {
+		return descartados.get();
+	}
+
+	// Espera o consumidor imprimir tudo o que já foi publicado e encerra a thread
+	public void esvaziar() {
+		Thread c = desligar();
+		if (c == null)
+			return;
+		try {
+			c.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// Não aceita mais eventos; o consumidor (se existe) imprime o que falta e termina sozinho
+	public synchronized Thread desligar() {
+		encerrando = true;
+		if (consumidor != null)
+			LockSupport.unpark(consumidor);
+		return consumidor;
+	}
+
+	// A thread do consumidor ainda roda? (false antes do primeiro evento e depois de esvaziar)
+	synchronized boolean consumidorAtivo() {
+		return consumidor != null && consumidor.isAlive();
+	}
+
+	// ===== Lado do consumidor (thread "rastro") =====
+
+	private void consumir() {
+		long seq = 0;
+		while (true) {
+			int i = (int) (seq & mascara);
+			if (publicado.get(i) != seq + 1) {
+				if (encerrando && cauda.get() == seq)
+					return;
+				LockSupport.parkNanos(ESPERA_CONSUMIDOR_NS);
+				continue;
+			}
+			imprimir(i);
+			cabeca = ++seq;
+			if (atrasoMs > 0 && !encerrando) {
+				LockSupport.parkNanos(atrasoMs * 1_000_000L);
+			}
+		}
+	}
+
+	private void imprimir(int i) {
+		int f = filosofo[i] + 1;
+		switch (tipo[i]) {
+		case COMECOU_COMER -> {
+			System.out.println("\n========== Execução #" + numero[i] + " " + instante(i) + " ==========");
+			if (esq[i] == CONJUNTO)
+				System.out.printf("Filósofo %-2d parou de pensar e começou a comer (usando %d recursos)%n", f, dir[i]);
+			else
+				System.out.printf("Filósofo %-2d parou de pensar e começou a comer (usando garfos %-2d e %-2d)%n", f,
+						esq[i], dir[i]);
+			imprimirInstantaneo(i);
+		}
+		case TERMINOU -> System.out.printf("Filósofo %-2d terminou de comer e voltou a pensar%n", f);
+		case LIMITE -> System.out.println("\n========== Limite de " + Mesa.MAX_TRACE
+				+ " execuções detalhadas atingido. Trace pausado. ==========\n");
+		case ANUNCIO -> {
+			System.out.println("\n========== Execução #" + numero[i] + " " + instante(i) + " ==========");
+			System.out.printf("Filósofo %-2d parou de pensar e vai começar a comer%n", f);
+		}
+		case PEGOU_ESQUERDO -> System.out.printf("Filósofo %-2d pegou garfo %-2d (esquerdo)%n", f, esq[i]);
+		case PEGOU_DIREITO -> System.out.printf("Filósofo %-2d pegou garfo %-2d (direito)%n", f, dir[i]);
+		case COMECOU -> {
+			System.out.printf("Filósofo %-2d começou a comer%n", f);
+			imprimirInstantaneo(i);
+		}
+		case DEVOLVEU -> System.out.printf("Filósofo %-2d devolveu os garfos %d e %d à mesa%n", f, esq[i], dir[i]);
+		default -> System.out.println("Evento desconhecido: " + tipo[i]);
+		}
+	}
+
+	// momento em que o evento aconteceu (não quando foi impresso)
+	private String instante(int i) {
+		return String.format("(t=%.3f ms)", (nanos[i] - inicioNanos) / 1e6);
+	}
+
+	private void imprimirInstantaneo(int i) {
+		System.out.println(linhaEstados(estados, i * colunas, colunas, nrFilosofos, primeiro));
+		System.out.println(linhaGarfos(garfos, i * colunasGarfos, colunasGarfos, nrGarfos, primeiro, anel));
+		System.out.println();
+	}
+
+	// ===== Formatação compartilhada com Mesa.imprimeEstadosFilosofos/imprimeGarfos =====
+
+	// primeiro = id da primeira coluna; garfos voltam a 0 em `anel`
+	static String linhaEstados(int[] estados, int inicio, int mostrar, int total, int primeiro) {
+		StringBuilder sb = new StringBuilder("Filósofos  = [ ");
+		for (int k = 0; k < mostrar; ++k) {
+			String estado = switch (estados[inicio + k]) {
+			case Mesa.PENSANDO -> "PENSANDO";
+			case Mesa.COMENDO -> "COMENDO ";
+			case Mesa.FOME -> "FOME     ";
+			default -> "?";
+			};
+			sb.append(String.format("%d:%-9s ", (primeiro + k + 1), estado));
+		}
+		return omitidos(sb, total - mostrar).append("]").toString();
+	}
+
+	static String linhaGarfos(boolean[] garfos, int inicio, int mostrar, int total, int primeiro, int anel) {
+		StringBuilder sb = new StringBuilder("Garfos     = [ ");
+		for (int k = 0; k < mostrar; ++k) {
+			String estado = garfos[inicio + k] ? "LIVRE" : "OCUPADO";
+			sb.append(String.format("%d:%-8s ", (primeiro + k) % anel, estado));
+		}
+		return omitidos(sb, total - mostrar).append("]").toString();
+	}
+
+	private static StringBuilder omitidos(StringBuilder sb, int omitidos) {
+		if (omitidos > 0)
+			sb.append("… (+").append(omitidos).append(") ");
+		return sb;
+	}
+}
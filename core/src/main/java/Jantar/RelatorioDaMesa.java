@@ -0,0 +1,52 @@
+package Jantar;
+
+// Lado de quem só observa uma mesa: contadores, janelas, estado do momento e o painel final.
+// É o que MetricasAoVivo, PerfilGarfos.paraMesa e o Main leem, e tudo o que oferecem as mesas
+// sem filósofos próprios (servidor de garfos, simulação, reprodução de um log).
+// Quem roda filósofos implementa também MesaDeJantar.
+public interface RelatorioDaMesa {
+	int getNrFilosofos();
+
+	// Garfos (ou recursos do grafo) da mesa; só a MesaGrafo foge de um por assento
+	int nrGarfos();
+
+	// false quando os garfos não formam o anel (MesaGrafo): sem esquerdo/direito nem vizinhos
+	boolean isGarfosDoAnel();
+
+	long getTotalRefeicoes();
+
+	// Contadores sem trava por assento, totais e histogramas de latência
+	Metricas getMetricas();
+
+	// Cópia dos contadores (refeições, esperas, aquisições, latências) a qualquer momento
+	Metricas.Instantaneo instantaneo();
+
+	// Agregados por janela de tempo, criados no primeiro uso
+	JanelaDeslizante janelas();
+
+	// Quantos filósofos em cada estado, nos índices Mesa.PENSANDO, Mesa.COMENDO e Mesa.FOME;
+	// lido sem trava, então a foto não é atômica
+	int[] contarEstados();
+
+	int garfosEmUso();
+
+	String nomeMotor();
+
+	String nomeAdmissao();
+
+	String nomeEspera();
+
+	// Modo em lote: até getLote() refeições por aquisição (ou até o quantum, em ns; 0 = sem limite)
+	int getLote();
+
+	long getQuantumLote();
+
+	// Cala o trace das primeiras refeições (benchmarks, testes); chamar antes de começar o jantar
+	void desligarRastro();
+
+	void imprimeEstadosFilosofos();
+
+	void imprimeGarfos();
+
+	void imprimirEstatisticasFinais();
+}
@@ -0,0 +1,362 @@
+package Jantar;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// Dono dos garfos de uma mesa cujos filósofos rodam em outras JVMs (MesaRemota), num único
+// laço de Selector sem trava: só esta thread toca garfos, estados e métricas do servidor.
+// Concessão tudo-ou-nada (os dois garfos ou nenhum), então não há ciclo de espera nem mordomo.
+// Quando um assento devolve, os dois vizinhos são reavaliados, o de fome mais antiga primeiro;
+// e ninguém passa na frente de um vizinho com fome mais antiga (o mais antigo nunca cede, então
+// a cadeia de quem cede termina sempre em alguém que come ou espera um garfo ocupado).
+// Respostas vão para o buffer da conexão e saem num write por conexão a cada volta do laço
+// (acks em lote); do outro lado os pedidos chegam em pipeline, vários por read.
+// O painel do servidor (getMesa) cobre a mesa inteira no relógio do servidor; cada cliente
+// imprime o seu com a latência vista de lá (inclui a ida e volta pela rede).
+public final class ServidorGarfos {
+	static final int QUADROS_POR_LEITURA = 8_192;
+
+	private final int nrFilosofos;
+	private final Selector seletor;
+	private final ServerSocketChannel aceitador;
+	private final MesaServidor mesa;
+	private final Conexao[] dono; // conexão que hospeda cada assento (null = nenhuma ainda)
+	private final long[] fomeDesde;
+	private final List<Conexao> conexoes = new ArrayList<>();
+	private final List<Conexao> aDespachar = new ArrayList<>();
+	private volatile boolean parado;
+	private long conexoesAtendidas;
+	private long quadrosRecebidos;
+	private long quadrosEnviados;
+	private long escritas;
+
+	// Uma conexão de cliente: buffers próprios, sem compartilhar nada com as outras
+	private static final class Conexao {
+		final SocketChannel canal;
+		final SelectionKey chave;
+		final ByteBuffer entrada = ProtocoloGarfos.novoBuffer(QUADROS_POR_LEITURA);
+		ByteBuffer saida = ProtocoloGarfos.novoBuffer(256);
+		boolean saudada; // já mandou OLA com a versão certa
+		boolean naFila; // está em aDespachar
+		boolean encerrando; // fecha depois de mandar o que tem
+		boolean fechada;
+
+		Conexao(SocketChannel canal, SelectionKey chave) {
+			this.canal = canal;
+			this.chave = chave;
+		}
+	}
+
+	// Escuta só no loopback: o modo servidor é para várias JVMs na mesma máquina.
+	// porta 0 = qualquer porta livre (ver getPorta)
+	public ServidorGarfos(int nrFilosofos, int porta) throws IOException {
+		this.nrFilosofos = nrFilosofos;
+		this.mesa = new MesaServidor(nrFilosofos);
+		this.dono = new Conexao[nrFilosofos];
+		this.fomeDesde = new long[nrFilosofos];
+		this.seletor = Selector.open();
+		this.aceitador = ServerSocketChannel.open();
+		aceitador.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta));
+		aceitador.configureBlocking(false);
+		aceitador.register(seletor, SelectionKey.OP_ACCEPT);
+	}
+
+	public int getPorta() {
+		return aceitador.socket().getLocalPort();
+	}
+
+	// Painel da mesa inteira (só leitura: quem come são os clientes); leia depois de executar() voltar
+	public RelatorioDaMesa getMesa() {
+		return mesa;
+	}
+
+	// Atende no thread chamador até parar(), até passar `nanos` ou até o último cliente sair
+	public void executar(long nanos) throws IOException {
+		long fim = System.nanoTime() + nanos;
+		while (!parado) {
+			long resta = fim - System.nanoTime();
+			if (resta <= 0 || (conexoesAtendidas > 0 && conexoes.isEmpty()))
+				break;
+			seletor.select(Math.max(1L, resta / 1_000_000L));
+			Iterator<SelectionKey> chaves = seletor.selectedKeys().iterator();
+			while (chaves.hasNext()) {
+				SelectionKey chave = chaves.next();
+				chaves.remove();
+				if (!chave.isValid())
+					continue;
+				if (chave.isAcceptable()) {
+					aceitar();
+					continue;
+				}
+				Conexao c = (Conexao) chave.attachment();
+				if (chave.isReadable())
+					ler(c);
+				if (!c.fechada && chave.isValid() && chave.isWritable())
+					enfileirar(c);
+			}
+			// acks em lote: um write por conexão com tudo que a volta produziu
+			for (int i = 0; i < aDespachar.size(); i++)
+				despachar(aDespachar.get(i));
+			aDespachar.clear();
+		}
+	}
+
+	// De outra thread: o laço sai na próxima volta
+	public void parar() {
+		parado = true;
+		seletor.wakeup();
+	}
+
+	public void fechar() throws IOException {
+		for (Conexao c : new ArrayList<>(conexoes))
+			fechar(c);
+		aceitador.close();
+		seletor.close();
+	}
+
+	// ===== E/S =====
+
+	private void aceitar() throws IOException {
+		SocketChannel canal = aceitador.accept();
+		if (canal == null)
+			return;
+		canal.configureBlocking(false);
+		canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		SelectionKey chave = canal.register(seletor, SelectionKey.OP_READ);
+		Conexao c = new Conexao(canal, chave);
+		chave.attach(c);
+		conexoes.add(c);
+		conexoesAtendidas++;
+	}
+
+	private void ler(Conexao c) {
+		int lidos;
+		try {
+			lidos = c.canal.read(c.entrada);
+		} catch (IOException e) {
+			lidos = -1;
+		}
+		if (lidos < 0) {
+			fechar(c);
+			return;
+		}
+		ByteBuffer entrada = c.entrada;
+		entrada.flip();
+		while (entrada.remaining() >= ProtocoloGarfos.TAMANHO_QUADRO && !c.encerrando) {
+			quadrosRecebidos++;
+			tratar(c, entrada.getInt(), entrada.getInt());
+		}
+		entrada.compact();
+	}
+
+	private void enfileirar(Conexao c) {
+		if (!c.naFila) {
+			c.naFila = true;
+			aDespachar.add(c);
+		}
+	}
+
+	private void responder(Conexao c, int operacao, int valor) {
+		if (c.fechada)
+			return;
+		c.saida = ProtocoloGarfos.escrever(c.saida, operacao, valor);
+		quadrosEnviados++;
+		enfileirar(c);
+	}
+
+	private void despachar(Conexao c) {
+		c.naFila = false;
+		if (c.fechada)
+			return;
+		ByteBuffer saida = c.saida;
+		saida.flip();
+		try {
+			if (saida.hasRemaining()) {
+				c.canal.write(saida);
+				escritas++;
+			}
+		} catch (IOException e) {
+			fechar(c);
+			return;
+		}
+		boolean sobrou = saida.hasRemaining();
+		saida.compact();
+		if (!sobrou && c.encerrando) {
+			fechar(c);
+			return;
+		}
+		// socket cheio: o resto sai quando o Selector disser que dá para escrever
+		c.chave.interestOps(sobrou ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+	}
+
+	// Cliente saiu (ou caiu): quem esperava desiste, quem comia devolve os garfos aos vizinhos
+	private void fechar(Conexao c) {
+		if (c.fechada)
+			return;
+		c.fechada = true;
+		conexoes.remove(c);
+		c.chave.cancel();
+		try {
+			c.canal.close();
+		} catch (IOException e) {
+			// já fechado do outro lado
+		}
+		for (int f = 0; f < nrFilosofos; f++) {
+			if (dono[f] == c && mesa.filosofos[f] == Mesa.FOME)
+				mesa.filosofos[f] = Mesa.PENSANDO;
+		}
+		for (int f = 0; f < nrFilosofos; f++) {
+			if (dono[f] != c)
+				continue;
+			dono[f] = null;
+			if (mesa.filosofos[f] == Mesa.COMENDO) {
+				liberar(f);
+			} else {
+				acordarVizinhos(f); // quem cedia a vez a ele pode tentar
+			}
+		}
+	}
+
+	// ===== Protocolo =====
+
+	private void tratar(Conexao c, int operacao, int valor) {
+		if (!c.saudada && operacao != ProtocoloGarfos.OLA) {
+			recusar(c, valor);
+			return;
+		}
+		switch (operacao) {
+		case ProtocoloGarfos.OLA -> {
+			if (valor != ProtocoloGarfos.VERSAO) {
+				recusar(c, valor);
+			} else {
+				c.saudada = true;
+				responder(c, ProtocoloGarfos.BEM_VINDO, nrFilosofos);
+			}
+		}
+		case ProtocoloGarfos.PEDIR -> pedir(c, valor);
+		case ProtocoloGarfos.DEVOLVER -> devolver(c, valor);
+		case ProtocoloGarfos.CANCELAR -> cancelar(c, valor);
+		default -> recusar(c, valor);
+		}
+	}
+
+	// Erro de protocolo: avisa e encerra a conexão
+	private void recusar(Conexao c, int valor) {
+		responder(c, ProtocoloGarfos.RECUSADO, valor);
+		c.encerrando = true;
+	}
+
+	private void pedir(Conexao c, int f) {
+		// assento de outra conexão ou pedido repetido: recusa só o assento
+		if (f < 0 || f >= nrFilosofos || (dono[f] != null && dono[f] != c) || mesa.filosofos[f] != Mesa.PENSANDO) {
+			responder(c, ProtocoloGarfos.RECUSADO, f);
+			return;
+		}
+		dono[f] = c;
+		mesa.marcarFome(f);
+		fomeDesde[f] = System.nanoTime();
+		if (podeComer(f)) {
+			conceder(f, ProtocoloGarfos.CONCEDIDO);
+		} else {
+			mesa.registrarEspera(f);
+		}
+	}
+
+	private void devolver(Conexao c, int f) {
+		if (f < 0 || f >= nrFilosofos || dono[f] != c || mesa.filosofos[f] != Mesa.COMENDO) {
+			responder(c, ProtocoloGarfos.RECUSADO, f);
+			return;
+		}
+		liberar(f);
+	}
+
+	// Já concedido (os quadros se cruzaram): o cliente devolve ao receber a concessão
+	private void cancelar(Conexao c, int f) {
+		if (f < 0 || f >= nrFilosofos || dono[f] != c || mesa.filosofos[f] != Mesa.FOME)
+			return;
+		mesa.filosofos[f] = Mesa.PENSANDO;
+		responder(c, ProtocoloGarfos.CANCELADO, f);
+		acordarVizinhos(f);
+	}
+
+	private boolean podeComer(int f) {
+		return mesa.garfos[mesa.garfoEsquerdo(f)] && mesa.garfos[mesa.garfoDireito(f)]
+				&& !cede(f, (f + nrFilosofos - 1) % nrFilosofos) && !cede(f, (f + 1) % nrFilosofos);
+	}
+
+	// Vizinho com fome há mais tempo tem a vez
+	private boolean cede(int f, int vizinho) {
+		return mesa.filosofos[vizinho] == Mesa.FOME && fomeDesde[vizinho] - fomeDesde[f] < 0;
+	}
+
+	private void conceder(int f, int operacao) {
+		int esq = mesa.garfoEsquerdo(f);
+		int dir = mesa.garfoDireito(f);
+		mesa.garfos[esq] = false;
+		mesa.garfos[dir] = false;
+		mesa.filosofos[f] = Mesa.COMENDO;
+		mesa.registrarRefeicao(f, esq, dir);
+		responder(dono[f], operacao, f);
+	}
+
+	private void liberar(int f) {
+		mesa.registrarDevolucao(f);
+		mesa.filosofos[f] = Mesa.PENSANDO;
+		mesa.garfos[mesa.garfoEsquerdo(f)] = true;
+		mesa.garfos[mesa.garfoDireito(f)] = true;
+		acordarVizinhos(f);
+	}
+
+	private void acordarVizinhos(int f) {
+		int esq = (f + nrFilosofos - 1) % nrFilosofos;
+		int dir = (f + 1) % nrFilosofos;
+		if (fomeDesde[dir] - fomeDesde[esq] < 0) {
+			int t = esq;
+			esq = dir;
+			dir = t;
+		}
+		tentar(esq);
+		tentar(dir);
+	}
+
+	private void tentar(int f) {
+		if (mesa.filosofos[f] == Mesa.FOME && podeComer(f))
+			conceder(f, ProtocoloGarfos.CONCEDIDO_APOS_ESPERA);
+	}
+
+	// Só o estado, as métricas e o painel da Mesa: quem come são os clientes
+	private final class MesaServidor extends EstadoDaMesa {
+		MesaServidor(int nrFilosofos) {
+			super(nrFilosofos, nrFilosofos, 0, nrFilosofos, ADMISSAO_LIVRE, 0);
+		}
+
+		@Override
+		public String nomeMotor() {
+			return "servidor (tudo-ou-nada)";
+		}
+
+		@Override
+		public String nomeEspera() {
+			return "fila no servidor (sem giro)";
+		}
+
+		@Override
+		String[] detalhesMotor() {
+			return new String[] { String.format("Porta (loopback):              %d", getPorta()),
+					String.format("Conexões atendidas:            %d", conexoesAtendidas),
+					String.format("Quadros recebidos/enviados:    %d / %d", quadrosRecebidos, quadrosEnviados),
+					String.format("Quadros por write (acks):      %.1f",
+							escritas == 0 ? 0.0 : (double) quadrosEnviados / escritas) };
+		}
+	}
+}
@@ -0,0 +1,448 @@
+package Jantar;
+
+// Simulação por eventos discretos: a mesa roda em tempo virtual, numa thread só, sem dormir.
+// Os tempos de pensar/comer vêm da mesma CargaDeTrabalho (mesma semente = mesmos sorteios por
+// assento) e os garfos seguem a política do motor escolhido; as métricas vão para a mesma
+// Metricas, então o painel final é o mesmo. Serve para mesas de milhões de lugares ou horas
+// de jantar, que em tempo real não caberiam.
+//
+// Cada assento tem no máximo um evento pendente (fim de pensar ou fim de comer), então a fila
+// de eventos é um heap binário de n posições em arrays primitivos, ordenado por (instante,
+// assento), e o tipo do evento sai do estado do assento. Quem espera (mordomo ou garfo) não
+// tem evento: é acordado por quem libera.
+public final class SimuladorEventos {
+	// Políticas de garfos simuladas
+	public static final int GARFOS_TUDO_OU_NADA = 1; // monitor, atomica, fragmentada, alternativa
+	public static final int GARFOS_ORDENADOS = 2; // listrada: menor índice primeiro, fila FIFO por garfo
+	public static final int GARFOS_CHANDY_MISRA = 3; // garfos limpos/sujos e pedidos entre vizinhos
+
+	private final MesaVirtual mesa;
+	private final int nrFilosofos;
+	private final int politica;
+	private final String motor;
+	private final String nomeMotor;
+	private final CargaDeTrabalho.Gerador[] carga;
+
+	// Relógio virtual e fila de eventos
+	private long agora;
+	private final long[] heapInstante;
+	private final int[] heapAssento;
+	private int tamanho;
+	private long eventos;
+	private long nanosReais;
+
+	// Mordomo: vagas + fila FIFO de quem espera para entrar
+	private final boolean comMordomo;
+	private final int lugares;
+	private int vagas;
+	private int mordomoInicio = -1, mordomoFim = -1;
+	private final long[] esperaDesde;
+
+	// Encadeamento das filas (mordomo e garfos): um assento espera em uma fila por vez
+	private final int[] proximo;
+
+	// Ordenados: fila FIFO por garfo
+	private final int[] garfoInicio, garfoFim;
+
+	// Tudo-ou-nada: na devolução, o vizinho com fome há mais tempo tenta primeiro
+	private final long[] fomeDesde;
+
+	// Chandy-Misra: dono de cada garfo, sujo (já usado) e pedido pendente do outro vizinho
+	private final int[] dono;
+	private final boolean[] sujo, pedido;
+
+	// Modo em lote
+	private final int[] refeicoesNoLote;
+	private final long[] inicioLote;
+
+	public SimuladorEventos(String motor, int nrFilosofos, int admissao, CargaDeTrabalho carga) {
+		this.politica = politicaDoMotor(motor);
+		if (politica == GARFOS_CHANDY_MISRA && admissao != Mesa.ADMISSAO_LIVRE)
+			throw new IllegalArgumentException("O motor chandy não usa mordomo, só admissão livre: " + admissao);
+		this.motor = motor.toLowerCase();
+		this.nomeMotor = switch (politica) {
+		case GARFOS_ORDENADOS -> "simulado (ordenados)";
+		case GARFOS_CHANDY_MISRA -> "simulado (chandy-misra)";
+		default -> "simulado (tudo-ou-nada)";
+		};
+		this.mesa = new MesaVirtual(nrFilosofos, admissao);
+		mesa.desligarRastro();
+		this.nrFilosofos = nrFilosofos;
+		this.carga = new CargaDeTrabalho.Gerador[nrFilosofos];
+		this.heapInstante = new long[nrFilosofos];
+		this.heapAssento = new int[nrFilosofos];
+		this.comMordomo = admissao != Mesa.ADMISSAO_LIVRE;
+		this.lugares = admissao == Mesa.ADMISSAO_UNICA ? 1 : nrFilosofos - 1;
+		this.vagas = lugares;
+		this.esperaDesde = new long[nrFilosofos];
+		this.proximo = new int[nrFilosofos];
+		boolean ordenados = politica == GARFOS_ORDENADOS;
+		this.garfoInicio = ordenados ? new int[nrFilosofos] : null;
+		this.garfoFim = ordenados ? new int[nrFilosofos] : null;
+		this.fomeDesde = new long[nrFilosofos];
+		boolean chandy = politica == GARFOS_CHANDY_MISRA;
+		this.dono = chandy ? new int[nrFilosofos] : null;
+		this.sujo = chandy ? new boolean[nrFilosofos] : null;
+		this.pedido = chandy ? new boolean[nrFilosofos] : null;
+		this.refeicoesNoLote = new int[nrFilosofos];
+		this.inicioLote = new long[nrFilosofos];
+
+		for (int i = 0; i < nrFilosofos; i++) {
+			if (ordenados)
+				garfoInicio[i] = garfoFim[i] = -1;
+			if (chandy) {
+				// grafo de precedência acíclico: garfos sujos com o vizinho de menor índice
+				dono[i] = i == 0 ? 0 : i - 1;
+				sujo[i] = true;
+			}
+			this.carga[i] = carga.gerador(i);
+			agendar(i, this.carga[i].proximoPensar());
+		}
+	}
+
+	// Nome do motor (Motores.nomes()) para a política de garfos que ele implementa
+	public static int politicaDoMotor(String motor) {
+		return switch (motor.toLowerCase()) {
+		case "monitor", "atomica", "fragmentada", "alternativa" -> GARFOS_TUDO_OU_NADA;
+		case "listrada" -> GARFOS_ORDENADOS;
+		case "chandy" -> GARFOS_CHANDY_MISRA;
+		default -> throw new IllegalArgumentException(
+				"Motor sem simulação: " + motor + " (use monitor, atomica, fragmentada, alternativa, listrada ou chandy)");
+		};
+	}
+
+	// Avança o relógio virtual em `nanos`; pode ser chamado de novo para continuar o jantar
+	public void executar(long nanos) {
+		long fim = agora + nanos;
+		long inicio = System.nanoTime();
+		while (proximoEvento(fim))
+			;
+		agora = fim;
+		nanosReais += System.nanoTime() - inicio;
+	}
+
+	// Processa o próximo evento se ele cai até `fim`; os testes avançam por aqui um evento por vez
+	boolean proximoEvento(long fim) {
+		if (tamanho == 0 || heapInstante[0] > fim)
+			return false;
+		agora = heapInstante[0];
+		int filosofo = removerTopo();
+		eventos++;
+		if (mesa.filosofos[filosofo] == Mesa.COMENDO) {
+			terminarRefeicao(filosofo);
+		} else {
+			entrar(filosofo); // fim de pensar
+		}
+		return true;
+	}
+
+	// Filósofos que passaram pelo mordomo e ainda não saíram (0 sem mordomo)
+	int admitidos() {
+		return comMordomo ? lugares - vagas : 0;
+	}
+
+	public long getTempoSimulado() {
+		return agora;
+	}
+
+	public long getEventos() {
+		return eventos;
+	}
+
+	public long getNanosReais() {
+		return nanosReais;
+	}
+
+	// Painel, métricas e estado final, como nos motores com threads (só leitura: quem move os
+	// filósofos é o executar)
+	public RelatorioDaMesa getMesa() {
+		return mesa;
+	}
+
+	// ===== Ciclo do filósofo (o mesmo do Filosofos.run) =====
+
+	private void entrar(int filosofo) {
+		if (!comMordomo) {
+			pedirGarfos(filosofo);
+		} else if (vagas > 0) {
+			vagas--;
+			mesa.metricas.registrarEntrada(filosofo, 0);
+			pedirGarfos(filosofo);
+		} else {
+			mesa.registrarEspera(filosofo);
+			esperaDesde[filosofo] = agora;
+			proximo[filosofo] = -1;
+			if (mordomoFim < 0) {
+				mordomoInicio = filosofo;
+			} else {
+				proximo[mordomoFim] = filosofo;
+			}
+			mordomoFim = filosofo;
+		}
+	}
+
+	private void sair() {
+		if (!comMordomo)
+			return;
+		if (mordomoInicio < 0) {
+			vagas++;
+			return;
+		}
+		// a vaga passa direto para o primeiro da fila
+		int filosofo = mordomoInicio;
+		mordomoInicio = proximo[filosofo];
+		if (mordomoInicio < 0)
+			mordomoFim = -1;
+		mesa.metricas.registrarEntrada(filosofo, agora - esperaDesde[filosofo]);
+		pedirGarfos(filosofo);
+	}
+
+	private void pedirGarfos(int filosofo) {
+		mesa.metricas.marcarFome(filosofo, agora);
+		mesa.filosofos[filosofo] = Mesa.FOME;
+		fomeDesde[filosofo] = agora;
+		int esq = mesa.garfoEsquerdo(filosofo);
+		int dir = mesa.garfoDireito(filosofo);
+		switch (politica) {
+		case GARFOS_ORDENADOS -> {
+			if (pegarOuEnfileirar(filosofo, Math.min(esq, dir)) && pegarOuEnfileirar(filosofo, Math.max(esq, dir)))
+				comer(filosofo);
+		}
+		case GARFOS_CHANDY_MISRA -> {
+			if (dono[esq] != filosofo)
+				solicitar(filosofo, esq);
+			if (dono[dir] != filosofo)
+				solicitar(filosofo, dir);
+			if (dono[esq] == filosofo && dono[dir] == filosofo) {
+				comer(filosofo);
+			} else {
+				mesa.registrarEspera(filosofo);
+			}
+		}
+		default -> {
+			if (mesa.garfos[esq] && mesa.garfos[dir]) {
+				comer(filosofo);
+			} else {
+				mesa.registrarEspera(filosofo);
+			}
+		}
+		}
+	}
+
+	private void comer(int filosofo) {
+		int esq = mesa.garfoEsquerdo(filosofo);
+		int dir = mesa.garfoDireito(filosofo);
+		mesa.garfos[esq] = false;
+		mesa.garfos[dir] = false;
+		if (politica == GARFOS_CHANDY_MISRA) {
+			sujo[esq] = true;
+			sujo[dir] = true;
+		}
+		mesa.filosofos[filosofo] = Mesa.COMENDO;
+		mesa.metricas.registrarRefeicao(filosofo, agora);
+		refeicoesNoLote[filosofo] = 1;
+		inicioLote[filosofo] = agora;
+		agendar(filosofo, agora + carga[filosofo].proximoComer());
+	}
+
+	private void terminarRefeicao(int filosofo) {
+		// modo em lote: segue comendo sem devolver, até o lote ou o quantum acabar
+		long quantum = mesa.getQuantumLote();
+		if (refeicoesNoLote[filosofo] < mesa.getLote() && (quantum == 0 || agora - inicioLote[filosofo] < quantum)) {
+			refeicoesNoLote[filosofo]++;
+			mesa.registrarRefeicaoExtra(filosofo);
+			agendar(filosofo, agora + carga[filosofo].proximoComer());
+			return;
+		}
+		mesa.filosofos[filosofo] = Mesa.PENSANDO;
+		devolverGarfos(filosofo);
+		sair();
+		agendar(filosofo, agora + carga[filosofo].proximoPensar());
+	}
+
+	private void devolverGarfos(int filosofo) {
+		int esq = mesa.garfoEsquerdo(filosofo);
+		int dir = mesa.garfoDireito(filosofo);
+		switch (politica) {
+		case GARFOS_ORDENADOS -> {
+			liberar(Math.max(esq, dir));
+			liberar(Math.min(esq, dir));
+		}
+		case GARFOS_CHANDY_MISRA -> {
+			mesa.garfos[esq] = true;
+			mesa.garfos[dir] = true;
+			int vizEsq = atenderPedido(filosofo, esq);
+			int vizDir = atenderPedido(filosofo, dir);
+			if (vizEsq >= 0)
+				tentarComerChandy(vizEsq);
+			if (vizDir >= 0 && vizDir != vizEsq)
+				tentarComerChandy(vizDir);
+		}
+		default -> {
+			mesa.garfos[esq] = true;
+			mesa.garfos[dir] = true;
+			int a = (filosofo + nrFilosofos - 1) % nrFilosofos;
+			int b = (filosofo + 1) % nrFilosofos;
+			if (fomeDesde[b] - fomeDesde[a] < 0) {
+				int t = a;
+				a = b;
+				b = t;
+			}
+			tentarComer(a);
+			if (b != a)
+				tentarComer(b);
+		}
+		}
+	}
+
+	// ===== Tudo-ou-nada =====
+
+	private void tentarComer(int filosofo) {
+		if (mesa.filosofos[filosofo] == Mesa.FOME && mesa.garfos[mesa.garfoEsquerdo(filosofo)]
+				&& mesa.garfos[mesa.garfoDireito(filosofo)])
+			comer(filosofo);
+	}
+
+	// ===== Ordenados: um garfo por vez, fila FIFO em cada garfo =====
+
+	private boolean pegarOuEnfileirar(int filosofo, int garfo) {
+		if (mesa.garfos[garfo]) {
+			mesa.garfos[garfo] = false;
+			return true;
+		}
+		mesa.registrarEspera(filosofo);
+		proximo[filosofo] = -1;
+		if (garfoFim[garfo] < 0) {
+			garfoInicio[garfo] = filosofo;
+		} else {
+			proximo[garfoFim[garfo]] = filosofo;
+		}
+		garfoFim[garfo] = filosofo;
+		return false;
+	}
+
+	// O garfo passa direto para o primeiro da fila, que segue para o segundo garfo ou come
+	private void liberar(int garfo) {
+		int filosofo = garfoInicio[garfo];
+		if (filosofo < 0) {
+			mesa.garfos[garfo] = true;
+			return;
+		}
+		garfoInicio[garfo] = proximo[filosofo];
+		if (garfoInicio[garfo] < 0)
+			garfoFim[garfo] = -1;
+		int segundo = Math.max(mesa.garfoEsquerdo(filosofo), mesa.garfoDireito(filosofo));
+		if (garfo == segundo || pegarOuEnfileirar(filosofo, segundo))
+			comer(filosofo);
+	}
+
+	// ===== Chandy-Misra =====
+
+	// Mesmas regras do MesaChandyMisra.solicitar: entrega se o dono pensa, ou se tem fome e o
+	// garfo está sujo (e então o pede de volta); senão o pedido fica pendente
+	private void solicitar(int filosofo, int garfo) {
+		int atual = dono[garfo];
+		int estado = mesa.filosofos[atual];
+		if (estado == Mesa.PENSANDO || (estado == Mesa.FOME && sujo[garfo])) {
+			dono[garfo] = filosofo;
+			sujo[garfo] = false;
+			pedido[garfo] = estado == Mesa.FOME;
+		} else {
+			pedido[garfo] = true;
+		}
+	}
+
+	// Devolve -1 ou o vizinho que recebeu o garfo pedido
+	private int atenderPedido(int filosofo, int garfo) {
+		if (!pedido[garfo])
+			return -1;
+		int vizinho = garfo == mesa.garfoEsquerdo(filosofo) ? (filosofo + nrFilosofos - 1) % nrFilosofos
+				: (filosofo + 1) % nrFilosofos;
+		dono[garfo] = vizinho;
+		sujo[garfo] = false;
+		pedido[garfo] = false;
+		return vizinho;
+	}
+
+	private void tentarComerChandy(int filosofo) {
+		if (mesa.filosofos[filosofo] == Mesa.FOME && dono[mesa.garfoEsquerdo(filosofo)] == filosofo
+				&& dono[mesa.garfoDireito(filosofo)] == filosofo)
+			comer(filosofo);
+	}
+
+	// ===== Fila de eventos (heap binário por instante, desempate pelo assento) =====
+
+	// Tempo zero (carga "zero") vira 1 ns, senão o relógio nunca anda
+	private void agendar(int filosofo, long instante) {
+		if (instante <= agora)
+			instante = agora + 1;
+		int i = tamanho++;
+		while (i > 0) {
+			int pai = (i - 1) >>> 1;
+			if (!antes(instante, filosofo, heapInstante[pai], heapAssento[pai]))
+				break;
+			heapInstante[i] = heapInstante[pai];
+			heapAssento[i] = heapAssento[pai];
+			i = pai;
+		}
+		heapInstante[i] = instante;
+		heapAssento[i] = filosofo;
+	}
+
+	private int removerTopo() {
+		int topo = heapAssento[0];
+		int n = --tamanho;
+		long instante = heapInstante[n];
+		int filosofo = heapAssento[n];
+		int i = 0;
+		while (true) {
+			int filho = 2 * i + 1;
+			if (filho >= n)
+				break;
+			if (filho + 1 < n && antes(heapInstante[filho + 1], heapAssento[filho + 1], heapInstante[filho],
+					heapAssento[filho]))
+				filho++;
+			if (!antes(heapInstante[filho], heapAssento[filho], instante, filosofo))
+				break;
+			heapInstante[i] = heapInstante[filho];
+			heapAssento[i] = heapAssento[filho];
+			i = filho;
+		}
+		heapInstante[i] = instante;
+		heapAssento[i] = filosofo;
+		return topo;
+	}
+
+	private static boolean antes(long t1, int f1, long t2, int f2) {
+		return t1 != t2 ? t1 < t2 : f1 < f2;
+	}
+
+	// ===== Mesa do painel =====
+
+	// Guarda estado e métricas para o PainelEstatisticas; não tem ciclo de filósofo próprio
+	private final class MesaVirtual extends EstadoDaMesa {
+		MesaVirtual(int nrFilosofos, int admissao) {
+			super(nrFilosofos, nrFilosofos, 0, nrFilosofos, admissao, 0);
+		}
+
+		@Override
+		public String nomeMotor() {
+			return nomeMotor;
+		}
+
+		@Override
+		public String nomeEspera() {
+			return "tempo virtual (sem giro)";
+		}
+
+		@Override
+		String[] detalhesMotor() {
+			double segundos = nanosReais / 1e9;
+			return new String[] {
+					String.format("Motor de referência:           %s", motor),
+					String.format("Tempo simulado:                %s", HistogramaLatencia.formatar(agora)),
+					String.format("Eventos processados:           %d", eventos),
+					String.format("Eventos por segundo real:      %.0f", segundos == 0 ? 0.0 : eventos / segundos) };
+		}
+	}
+}
@@ -0,0 +1,8 @@
+/**
+ * Mesas do jantar dos filósofos (motores de garfos, rastro e estatísticas).
+ */
+module JantarDosFilosofos {
+	requires java.management; // MBean das MetricasAoVivo
+
+	exports Jantar;
+}
@@ -0,0 +1,138 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+// Gerador de carga sem mesa nem threads: reprodutível por semente e assento, sequências
+// independentes entre assentos e cada distribuição dentro dos seus parâmetros
+class CargaDeTrabalhoTest {
+	private static final long MEDIA = 1_000_000L; // 1 ms
+	private static final int AMOSTRAS = 20_000;
+
+	private static CargaDeTrabalho carga(long semente, int dist) {
+		return new CargaDeTrabalho(semente, dist, MEDIA, dist, MEDIA);
+	}
+
+	private static long[] pensares(CargaDeTrabalho carga, int filosofo, int quantos) {
+		CargaDeTrabalho.Gerador g = carga.gerador(filosofo);
+		long[] tempos = new long[quantos];
+		for (int i = 0; i < quantos; i++)
+			tempos[i] = g.proximoPensar();
+		return tempos;
+	}
+
+	@Test
+	void mesmaSementeEMesmoAssentoMesmaSequencia() {
+		for (int dist = CargaDeTrabalho.UNIFORME; dist <= CargaDeTrabalho.RAJADA; dist++) {
+			assertArrayEquals(pensares(carga(42L, dist), 3, 100), pensares(carga(42L, dist), 3, 100),
+					"Distribuição " + dist);
+		}
+		// o gerador de um assento não depende de outros terem sido criados antes
+		CargaDeTrabalho compartilhada = carga(42L, CargaDeTrabalho.EXPONENCIAL);
+		long[] sozinho = pensares(compartilhada, 7, 100);
+		for (int f = 0; f < 7; f++)
+			pensares(compartilhada, f, 10);
+		assertArrayEquals(sozinho, pensares(compartilhada, 7, 100));
+	}
+
+	@Test
+	void assentosESementesDiferentesDiferem() {
+		CargaDeTrabalho c = carga(42L, CargaDeTrabalho.UNIFORME);
+		long[][] porAssento = new long[8][];
+		for (int f = 0; f < porAssento.length; f++)
+			porAssento[f] = pensares(c, f, 50);
+		for (int a = 0; a < porAssento.length; a++)
+			for (int b = a + 1; b < porAssento.length; b++)
+				assertFalse(Arrays.equals(porAssento[a], porAssento[b]), "Assentos " + a + " e " + b);
+		assertFalse(Arrays.equals(porAssento[0], pensares(carga(43L, CargaDeTrabalho.UNIFORME), 0, 50)));
+	}
+
+	// Pensar e comer têm cada um o seu parâmetro
+	@Test
+	void pensarEComerIndependentes() {
+		CargaDeTrabalho c = new CargaDeTrabalho(1L, CargaDeTrabalho.ZERO, MEDIA, CargaDeTrabalho.UNIFORME, MEDIA);
+		CargaDeTrabalho.Gerador g = c.gerador(0);
+		boolean comeu = false;
+		for (int i = 0; i < 100; i++) {
+			assertEquals(0, g.proximoPensar());
+			comeu |= g.proximoComer() > 0;
+		}
+		assertTrue(comeu);
+	}
+
+	@Test
+	void zero() {
+		CargaDeTrabalho.Gerador g = carga(1L, CargaDeTrabalho.ZERO).gerador(0);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(0, g.proximoPensar());
+			assertEquals(0, g.proximoComer());
+		}
+		// média zero zera qualquer distribuição
+		CargaDeTrabalho.Gerador semMedia = new CargaDeTrabalho(1L, CargaDeTrabalho.PARETO, 0,
+				CargaDeTrabalho.EXPONENCIAL, 0).gerador(0);
+		assertEquals(0, semMedia.proximoPensar());
+		assertEquals(0, semMedia.proximoComer());
+	}
+
+	@Test
+	void uniformeEntreZeroEDuasMedias() {
+		long[] t = pensares(carga(5L, CargaDeTrabalho.UNIFORME), 0, AMOSTRAS);
+		for (long v : t)
+			assertTrue(v >= 0 && v < 2 * MEDIA, "Fora de [0, 2 x média): " + v);
+		assertEquals(MEDIA, media(t), MEDIA * 0.05);
+	}
+
+	@Test
+	void exponencialPositivaComMedia() {
+		long[] t = pensares(carga(5L, CargaDeTrabalho.EXPONENCIAL), 0, AMOSTRAS);
+		for (long v : t)
+			assertTrue(v >= 0, "Negativo: " + v);
+		assertTrue(Arrays.stream(t).max().getAsLong() > 2 * MEDIA, "Sem cauda acima de 2 x média");
+		assertEquals(MEDIA, media(t), MEDIA * 0.05);
+	}
+
+	// Pareto: nunca abaixo de x_m = média x (alfa - 1) / alfa, nunca acima do teto
+	@Test
+	void paretoEntreMinimoETeto() {
+		long[] t = pensares(carga(5L, CargaDeTrabalho.PARETO), 0, AMOSTRAS);
+		long minimo = (long) (MEDIA * (CargaDeTrabalho.ALFA_PARETO - 1) / CargaDeTrabalho.ALFA_PARETO);
+		long teto = (long) (MEDIA * CargaDeTrabalho.TETO_PARETO);
+		for (long v : t)
+			assertTrue(v > 0 && v >= minimo && v <= teto, "Fora de [x_m, teto]: " + v);
+	}
+
+	// Rajada: 10 tempos curtos e 1 longo, ciclo após ciclo
+	@Test
+	void rajadaAlternaCurtosELongo() {
+		long[] t = pensares(carga(5L, CargaDeTrabalho.RAJADA), 0, 11 * 2_000);
+		double[] somas = new double[11];
+		for (int i = 0; i < t.length; i++) {
+			assertTrue(t[i] >= 0);
+			somas[i % 11] += t[i];
+		}
+		for (int p = 0; p < 10; p++)
+			assertEquals(MEDIA / 10.0, somas[p] / 2_000, MEDIA / 10.0 * 0.15, "Posição " + p);
+		assertEquals(MEDIA * 10.0, somas[10] / 2_000, MEDIA * 10.0 * 0.15);
+	}
+
+	@Test
+	void parametrosInvalidos() {
+		assertThrows(IllegalArgumentException.class, () -> carga(1L, 0));
+		assertThrows(IllegalArgumentException.class, () -> carga(1L, CargaDeTrabalho.ZERO + 1));
+		assertThrows(IllegalArgumentException.class,
+				() -> new CargaDeTrabalho(1L, CargaDeTrabalho.UNIFORME, -1, CargaDeTrabalho.UNIFORME, MEDIA));
+		assertThrows(IllegalArgumentException.class, () -> CargaDeTrabalho.distribuicaoPorNome("normal"));
+		assertEquals(CargaDeTrabalho.PARETO, CargaDeTrabalho.distribuicaoPorNome("Pareto"));
+	}
+
+	private static double media(long[] t) {
+		return Arrays.stream(t).average().orElse(0);
+	}
+}
@@ -0,0 +1,287 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+// Teste de estresse comum a todos os motores: uma thread por assento no ciclo
+// entrar -> pegar -> comer -> devolver -> sair, sem trace, com tempos curtos e aleatórios.
+// A exclusão mútua é conferida fora do motor: cada recurso (garfo do anel ou recurso do
+// grafo) tem um dono aqui, trocado por CAS ao comer; dois assentos com o mesmo dono ao mesmo
+// tempo são dois vizinhos comendo juntos.
+final class EnsaioMesa {
+	private static final int LIVRE = -1;
+	static final long PRAZO_MS = 30_000L; // folga para a CI de uma CPU; sem deadlock termina em ms
+
+	private final MesaDeJantar mesa;
+	private final int[] inicio; // CSR: recursos[inicio[f] .. inicio[f+1]) do assento f
+	private final int[] recursos;
+	private final AtomicIntegerArray dono;
+	private final AtomicLongArray refeicoes;
+	private final AtomicReference<String> violacao = new AtomicReference<>();
+	private final AtomicReference<Throwable> falha = new AtomicReference<>();
+	private final Thread[] threads; // por assento; null = assento sem thread neste ensaio
+
+	private EnsaioMesa(MesaDeJantar mesa, int nrRecursos, int[] inicio, int[] recursos) {
+		this.mesa = mesa;
+		this.inicio = inicio;
+		this.recursos = recursos;
+		this.dono = new AtomicIntegerArray(nrRecursos);
+		for (int r = 0; r < nrRecursos; r++)
+			dono.set(r, LIVRE);
+		this.refeicoes = new AtomicLongArray(mesa.getNrFilosofos());
+		this.threads = new Thread[mesa.getNrFilosofos()];
+		mesa.desligarRastro();
+	}
+
+	// Garfos f e f+1 (mod n) de cada assento: todos os motores do anel
+	static EnsaioMesa doAnel(MesaDeJantar mesa) {
+		int n = mesa.getNrFilosofos();
+		int[] inicio = new int[n + 1];
+		int[] recursos = new int[2 * n];
+		for (int f = 0; f < n; f++) {
+			inicio[f + 1] = 2 * f + 2;
+			recursos[2 * f] = f;
+			recursos[2 * f + 1] = (f + 1) % n;
+		}
+		return new EnsaioMesa(mesa, n, inicio, recursos);
+	}
+
+	// Conjunto de recursos de cada pedido, lido do próprio grafo
+	static EnsaioMesa doGrafo(MesaGrafo mesa) {
+		GrafoConflitos g = mesa.getGrafo();
+		return new EnsaioMesa(mesa, g.nrRecursos, g.inicio, g.recursos);
+	}
+
+	// Motores que recusam o mordomo (ADMISSAO_GARCOM e ADMISSAO_UNICA)
+	static boolean semMordomo(String motor) {
+		return motor.equals("chandy");
+	}
+
+	// Qualquer motor do catálogo: o grafo pelos recursos dele, os outros pelo anel
+	static EnsaioMesa de(MesaDeJantar mesa) {
+		return mesa instanceof MesaGrafo g ? doGrafo(g) : doAnel(mesa);
+	}
+
+	// ===== Execução =====
+
+	void iniciar() {
+		iniciar(0, mesa.getNrFilosofos());
+	}
+
+	void iniciar(int primeiro, int fim) {
+		iniciar(mesa, primeiro, fim);
+	}
+
+	// Uma thread de plataforma por assento em [primeiro, fim), pedindo os garfos a `local`
+	// (outra MesaRemota ou MesaCompartilhada da mesma mesa divide os recursos deste ensaio)
+	// Todos largam juntos: com uma CPU, criar 130 threads com as primeiras já comendo é lento
+	void iniciar(MesaDeJantar local, int primeiro, int fim) {
+		local.desligarRastro();
+		CountDownLatch largada = new CountDownLatch(1);
+		for (int f = primeiro; f < fim; f++) {
+			int assento = f;
+			Thread t = new Thread(() -> jantar(local, assento, largada), "ensaio-" + (f + 1));
+			t.setDaemon(true);
+			threads[f] = t;
+			t.start();
+		}
+		largada.countDown();
+	}
+
+	private void jantar(MesaDeJantar local, int f, CountDownLatch largada) {
+		try {
+			largada.await();
+			while (!Thread.currentThread().isInterrupted()) {
+				boolean entrou = false;
+				boolean pegou = false;
+				try {
+					local.entrarNoRefeitorio(f);
+					entrou = true;
+					local.pegarGarfos(f);
+					pegou = true;
+					tomar(f);
+					LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(20_000L));
+					soltar(f);
+					refeicoes.incrementAndGet(f);
+				} finally {
+					if (pegou)
+						local.returningGarfos(f);
+					if (entrou)
+						local.sairDoRefeitorio();
+				}
+				LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(20_000L));
+			}
+		} catch (InterruptedException e) {
+			// fim normal: interrompido esperando o mordomo ou os garfos
+		} catch (Throwable e) {
+			falha.compareAndSet(null, e);
+		}
+	}
+
+	private void tomar(int f) {
+		for (int i = inicio[f]; i < inicio[f + 1]; i++) {
+			int r = recursos[i];
+			int outro = dono.compareAndExchange(r, LIVRE, f);
+			if (outro != LIVRE)
+				violacao.compareAndSet(null, "Assentos " + (outro + 1) + " e " + (f + 1) + " comendo com o recurso " + r);
+		}
+	}
+
+	private void soltar(int f) {
+		for (int i = inicio[f]; i < inicio[f + 1]; i++)
+			dono.compareAndSet(recursos[i], f, LIVRE);
+	}
+
+	// ===== Conferências =====
+
+	// Espera cada assento iniciado comer `minimo` vezes (progresso de todos, não só da mesa)
+	void aguardarRefeicoes(long minimo) {
+		for (int f = 0; f < threads.length; f++)
+			if (threads[f] != null)
+				aguardarRefeicoes(f, minimo);
+	}
+
+	void aguardarRefeicoes(int f, long minimo) {
+		long prazo = System.nanoTime() + PRAZO_MS * 1_000_000L;
+		while (refeicoes.get(f) < minimo && falha.get() == null && System.nanoTime() < prazo)
+			LockSupport.parkNanos(1_000_000L);
+		assertTrue(refeicoes.get(f) >= minimo,
+				"Assento " + (f + 1) + " comeu " + refeicoes.get(f) + " vezes de " + minimo + " em " + PRAZO_MS + " ms");
+		conferir();
+	}
+
+	// Interrompe só o assento f e espera a thread sair; os outros seguem comendo
+	void parar(int f) throws InterruptedException {
+		threads[f].interrupt();
+		threads[f].join(PRAZO_MS);
+		assertTrue(!threads[f].isAlive(), threads[f].getName() + " não terminou depois da interrupção");
+	}
+
+	// Interrompe todos (parados no mordomo, nos garfos ou comendo) e exige que todos saiam
+	void interromper() throws InterruptedException {
+		for (Thread t : threads)
+			if (t != null)
+				t.interrupt();
+		long prazo = System.nanoTime() + PRAZO_MS * 1_000_000L;
+		for (Thread t : threads) {
+			if (t == null)
+				continue;
+			t.join(Math.max(1L, (prazo - System.nanoTime()) / 1_000_000L));
+			assertTrue(!t.isAlive(), t.getName() + " não terminou depois da interrupção");
+		}
+		conferir();
+		for (int r = 0; r < dono.length(); r++)
+			assertEquals(LIVRE, dono.get(r), "Recurso " + r + " ficou com um assento depois do fim");
+		assertEquals(0, mesa.garfosEmUso(), "Garfos marcados em uso depois que todos saíram");
+	}
+
+	private void conferir() {
+		if (falha.get() != null)
+			throw new AssertionError("Um assento falhou", falha.get());
+		String v = violacao.get();
+		assertTrue(v == null, v);
+	}
+
+	long refeicoes(int f) {
+		return refeicoes.get(f);
+	}
+
+	long refeicoes() {
+		long total = 0;
+		for (int f = 0; f < refeicoes.length(); f++)
+			total += refeicoes.get(f);
+		return total;
+	}
+
+	// O assento 1 fica parado atrás do assento 0 (que está comendo, nesta thread), é
+	// interrompido ali e tem de sair sem garfos; depois o 0 devolve e o 1 ainda consegue comer
+	static void interromperNaEspera(MesaDeJantar mesa) throws InterruptedException {
+		interromperNaEspera(mesa, mesa);
+	}
+
+	// Idem com os dois assentos em mesas diferentes (dois processos da mesma mesa)
+	static void interromperNaEspera(MesaDeJantar primeiro, MesaDeJantar segundo) throws InterruptedException {
+		primeiro.desligarRastro();
+		segundo.desligarRastro();
+		primeiro.entrarNoRefeitorio(0);
+		primeiro.pegarGarfos(0);
+		AtomicReference<Object> saida = new AtomicReference<>();
+		Thread vizinho = new Thread(() -> {
+			boolean entrou = false;
+			try {
+				segundo.entrarNoRefeitorio(1);
+				entrou = true;
+				segundo.pegarGarfos(1);
+				segundo.returningGarfos(1);
+				saida.set("comeu com o vizinho comendo");
+			} catch (InterruptedException e) {
+				saida.set(e);
+			} catch (Throwable e) {
+				saida.set(e);
+			} finally {
+				if (entrou)
+					segundo.sairDoRefeitorio();
+			}
+		}, "ensaio-vizinho");
+		vizinho.setDaemon(true);
+		vizinho.start();
+		long prazo = System.nanoTime() + PRAZO_MS * 1_000_000L;
+		while (vizinho.getState() != Thread.State.WAITING && vizinho.getState() != Thread.State.TIMED_WAITING
+				&& vizinho.isAlive() && System.nanoTime() < prazo)
+			Thread.yield();
+		vizinho.interrupt();
+		vizinho.join(PRAZO_MS);
+		assertTrue(!vizinho.isAlive(), "O vizinho interrompido não saiu da espera");
+		assertTrue(saida.get() instanceof InterruptedException, "Saída do vizinho: " + saida.get());
+		primeiro.returningGarfos(0);
+		primeiro.sairDoRefeitorio();
+
+		segundo.entrarNoRefeitorio(1);
+		segundo.pegarGarfos(1);
+		segundo.returningGarfos(1);
+		segundo.sairDoRefeitorio();
+		for (MesaDeJantar mesa : new MesaDeJantar[] { primeiro, segundo })
+			assertEquals(0, mesa.garfosEmUso(), "Garfos marcados em uso depois que todos saíram");
+	}
+
+	// Uma thread que só pega e devolve os garfos do assento (sem refeitório); sai ao ser interrompida
+	static Thread esperarGarfos(MesaDeJantar mesa, int filosofo) {
+		Thread t = new Thread(() -> {
+			try {
+				mesa.pegarGarfos(filosofo);
+				mesa.returningGarfos(filosofo);
+			} catch (InterruptedException e) {
+				// fim do caso
+			}
+		}, "ensaio-" + (filosofo + 1));
+		t.setDaemon(true);
+		t.start();
+		return t;
+	}
+
+	static void aguardar(BooleanSupplier condicao, String oQue) {
+		long prazo = System.nanoTime() + PRAZO_MS * 1_000_000L;
+		while (!condicao.getAsBoolean() && System.nanoTime() < prazo)
+			Thread.yield();
+		assertTrue(condicao.getAsBoolean(), "Não deu tempo de " + oQue);
+	}
+
+	// Roteiro de cada motor: cada assento come algumas vezes e a interrupção encerra tudo
+	static void rodar(EnsaioMesa ensaio, long minimo) throws InterruptedException {
+		ensaio.iniciar();
+		try {
+			ensaio.aguardarRefeicoes(minimo);
+		} finally {
+			ensaio.interromper();
+		}
+		assertEquals(ensaio.refeicoes(), ensaio.mesa.getTotalRefeicoes(), "Refeições contadas pela mesa");
+	}
+}
@@ -0,0 +1,127 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+// Histogramas gravados à mão com valores conhecidos: percentis dentro do erro dos baldes,
+// máximo exato, mescla entre assentos e os grupos divididos acima de MAX_GRUPOS assentos
+class HistogramaLatenciaTest {
+	private static final double ERRO = 1.0 / HistogramaLatencia.SUB;
+
+	// O percentil nunca fica abaixo do valor exato nem passa dele por mais de 1/SUB
+	private static void conferirPercentil(long esperado, long[] h, double p) {
+		long lido = HistogramaLatencia.percentil(h, p);
+		assertTrue(lido >= esperado && lido <= esperado * (1 + ERRO),
+				"p" + p + ": " + lido + " para " + esperado);
+	}
+
+	// 1, 2, ..., 10 000 ns, uma vez cada
+	@Test
+	void percentisDeDistribuicaoUniforme() {
+		HistogramaLatencia histograma = new HistogramaLatencia(1);
+		for (long ns = 1; ns <= 10_000; ns++)
+			histograma.gravar(0, ns);
+		long[] h = histograma.copiar(0);
+		assertEquals(10_000, HistogramaLatencia.contagem(h));
+		assertEquals(10_000, HistogramaLatencia.maximo(h));
+		conferirPercentil(5_000, h, 50);
+		conferirPercentil(9_900, h, 99);
+		assertEquals(10_000, HistogramaLatencia.percentil(h, 100));
+		double soma = 10_000.0 * 10_001 / 2;
+		assertEquals(soma, HistogramaLatencia.soma(h), soma * ERRO / 2);
+	}
+
+	// 99 valores rápidos e um lento: p50 e p99 ficam nos rápidos, o máximo é o lento
+	@Test
+	void caudaSoNoMaximo() {
+		HistogramaLatencia histograma = new HistogramaLatencia(1);
+		for (int i = 0; i < 99; i++)
+			histograma.gravar(0, 1_000);
+		histograma.gravar(0, 5_000_000);
+		long[] h = histograma.copiar(0);
+		conferirPercentil(1_000, h, 50);
+		conferirPercentil(1_000, h, 99);
+		conferirPercentil(5_000_000, h, 99.9);
+		assertEquals(5_000_000, HistogramaLatencia.maximo(h));
+	}
+
+	@Test
+	void extremos() {
+		HistogramaLatencia histograma = new HistogramaLatencia(1);
+		assertEquals(0, HistogramaLatencia.percentil(histograma.copiar(0), 50)); // vazio
+		histograma.gravar(0, -5); // negativo conta como 0
+		histograma.gravar(0, HistogramaLatencia.MAX_NANOS * 4); // além do último balde
+		long[] h = histograma.copiar(0);
+		assertEquals(2, HistogramaLatencia.contagem(h));
+		assertEquals(0, HistogramaLatencia.percentil(h, 50));
+		assertEquals(HistogramaLatencia.MAX_NANOS * 4, HistogramaLatencia.maximo(h));
+	}
+
+	// Cada assento com a sua faixa; a mescla é a soma exata, balde a balde
+	@Test
+	void mesclaEntreAssentos() {
+		int n = 4;
+		HistogramaLatencia histograma = new HistogramaLatencia(n);
+		assertTrue(histograma.isExclusivo());
+		for (int f = 0; f < n; f++)
+			for (int i = 0; i <= f; i++)
+				histograma.gravar(f, (f + 1) * 1_000L);
+		long[] mesclado = histograma.mesclado();
+		long[] somados = HistogramaLatencia.vazio();
+		for (int f = 0; f < n; f++) {
+			long[] h = histograma.copiar(f);
+			assertEquals(f + 1, HistogramaLatencia.contagem(h));
+			assertEquals((f + 1) * 1_000L, HistogramaLatencia.maximo(h));
+			for (int b = 0; b < HistogramaLatencia.BALDES; b++)
+				somados[b] += h[b];
+		}
+		for (int b = 0; b < HistogramaLatencia.BALDES; b++)
+			assertEquals(somados[b], mesclado[b], "Balde " + b);
+		assertEquals(10, HistogramaLatencia.contagem(mesclado));
+		assertEquals(4_000, HistogramaLatencia.maximo(mesclado));
+		conferirPercentil(3_000, mesclado, 50); // 1 + 2 + 3 = 6 de 10 até 3 µs
+	}
+
+	// Acima de MAX_GRUPOS os assentos f e f + MAX_GRUPOS dividem o grupo, e a escrita
+	// atômica não perde contagem com os dois gravando ao mesmo tempo
+	@Test
+	void gruposDivididosAcimaDeMaxGrupos() throws InterruptedException {
+		int n = 2 * HistogramaLatencia.MAX_GRUPOS;
+		int vezes = 100_000;
+		HistogramaLatencia histograma = new HistogramaLatencia(n);
+		assertFalse(histograma.isExclusivo());
+		assertTrue(new HistogramaLatencia(HistogramaLatencia.MAX_GRUPOS).isExclusivo());
+		assertEquals(histograma.grupo(3), histograma.grupo(3 + HistogramaLatencia.MAX_GRUPOS));
+
+		CountDownLatch largada = new CountDownLatch(1);
+		Thread[] threads = new Thread[2];
+		for (int t = 0; t < threads.length; t++) {
+			int assento = 3 + t * HistogramaLatencia.MAX_GRUPOS;
+			long ns = (t + 1) * 500L;
+			threads[t] = new Thread(() -> {
+				try {
+					largada.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < vezes; i++)
+					histograma.gravar(assento, ns);
+			});
+			threads[t].start();
+		}
+		largada.countDown();
+		for (Thread t : threads)
+			t.join();
+
+		long[] h = histograma.copiar(histograma.grupo(3));
+		assertEquals(2L * vezes, HistogramaLatencia.contagem(h));
+		assertEquals(1_000, HistogramaLatencia.maximo(h));
+		assertEquals(2L * vezes, HistogramaLatencia.contagem(histograma.mesclado()));
+		assertEquals(0, HistogramaLatencia.contagem(histograma.copiar(histograma.grupo(4))));
+	}
+}
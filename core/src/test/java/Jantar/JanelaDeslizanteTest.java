@@ -0,0 +1,177 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Os agregados incrementais (listas por contagem, tabela de espalhamento, anel de janelas)
+// conferidos contra uma recontagem por força bruta dos mesmos eventos
+class JanelaDeslizanteTest {
+	private static final long LARGURA = 1_000_000_000L; // o relógio é passado à mão em atualizar()
+	private static final int GUARDADAS = 4; // anel pequeno: as janelas dão a volta várias vezes
+
+	@Test
+	void mesaInteira() {
+		conferir(37, 0, 37, 1);
+	}
+
+	@Test
+	void faixaDeAssentos() {
+		conferir(40, 5, 30, 2); // eventos de fora da faixa entram na fila de sujos e são ignorados
+	}
+
+	@Test
+	void umAssento() {
+		conferir(1, 0, 1, 3);
+	}
+
+	private void conferir(int n, int primeiro, int fim, long semente) {
+		Random aleatorio = new Random(semente);
+		Metricas metricas = new Metricas(n);
+		long t0 = System.nanoTime();
+		JanelaDeslizante janela = new JanelaDeslizante(metricas, primeiro, fim, LARGURA, GUARDADAS);
+		long[] refeicoes = new long[n];
+		long[] esperas = new long[n];
+		List<Long> spreads = new ArrayList<>();
+		List<Integer> paradosPorJanela = new ArrayList<>();
+
+		for (int j = 0; j < 25; j++) {
+			boolean[] comeu = new boolean[n];
+			// assentos quentes, frios e alguns que não comem na janela: spread alto e starvation
+			int eventos = aleatorio.nextInt(400);
+			for (int e = 0; e < eventos; e++) {
+				int f = aleatorio.nextInt(4) == 0 ? aleatorio.nextInt(Math.min(n, 3)) : aleatorio.nextInt(n);
+				if (aleatorio.nextInt(3) == 0 || f % 7 == 6) {
+					metricas.registrarEspera(f);
+					esperas[f]++;
+				} else {
+					metricas.marcarFome(f);
+					metricas.registrarRefeicao(f);
+					refeicoes[f]++;
+					comeu[f] = true;
+				}
+				if (aleatorio.nextInt(50) == 0) {
+					janela.atualizar(t0 + j * LARGURA + LARGURA / 2); // lê no meio da janela, sem fechar
+					conferirAgregados(janela, refeicoes, esperas, primeiro, fim);
+				}
+			}
+			janela.atualizar(t0 + (j + 1) * LARGURA + LARGURA / 2); // absorve e fecha a janela j
+			conferirAgregados(janela, refeicoes, esperas, primeiro, fim);
+
+			long min = Long.MAX_VALUE, max = 0;
+			int parados = 0;
+			for (int f = primeiro; f < fim; f++) {
+				min = Math.min(min, refeicoes[f]);
+				max = Math.max(max, refeicoes[f]);
+				if (!comeu[f])
+					parados++;
+			}
+			spreads.add(max - min);
+			paradosPorJanela.add(parados);
+			assertEquals(j + 1, janela.getJanelasFechadas());
+			assertEquals(max - min, janela.spread(), "spread da janela " + j);
+			assertEquals(parados, janela.parados(), "parados da janela " + j);
+
+			int de = Math.max(0, spreads.size() - GUARDADAS);
+			long maiorSpread = 0;
+			int comParados = 0;
+			for (int k = de; k < spreads.size(); k++) {
+				maiorSpread = Math.max(maiorSpread, spreads.get(k));
+				if (paradosPorJanela.get(k) > 0)
+					comParados++;
+			}
+			assertEquals(maiorSpread, janela.maiorSpread(), "maior spread até a janela " + j);
+			assertEquals(comParados, janela.janelasComParados(), "janelas com parados até a janela " + j);
+		}
+	}
+
+	private static void conferirAgregados(JanelaDeslizante janela, long[] refeicoes, long[] esperas, int primeiro,
+			int fim) {
+		long min = Long.MAX_VALUE, max = 0, totalRefeicoes = 0, totalEsperas = 0;
+		int starvation = 0;
+		for (int f = primeiro; f < fim; f++) {
+			min = Math.min(min, refeicoes[f]);
+			max = Math.max(max, refeicoes[f]);
+			totalRefeicoes += refeicoes[f];
+			totalEsperas += esperas[f];
+			if (esperas[f] > refeicoes[f] * JanelaDeslizante.FATOR_STARVATION)
+				starvation++;
+		}
+		assertEquals(min, janela.getMinimo(), "mínimo");
+		assertEquals(max, janela.getMaximo(), "máximo");
+		assertEquals(min, refeicoes[janela.assentoMinimo()], "assento do mínimo");
+		assertEquals(max, refeicoes[janela.assentoMaximo()], "assento do máximo");
+		assertEquals(totalRefeicoes, janela.getTotalRefeicoes(), "total de refeições");
+		assertEquals(totalEsperas, janela.getTotalEsperas(), "total de esperas");
+		assertEquals(starvation, janela.getAssentosEmStarvation(), "assentos em starvation");
+	}
+
+	// Vários produtores (um por assento, como na mesa) e um consumidor lendo a fila de sujos ao
+	// mesmo tempo: no fim nenhuma refeição pode ter ficado fora dos agregados
+	@Test
+	void produtoresConcorrentes() throws InterruptedException {
+		int n = 8;
+		Metricas metricas = new Metricas(n);
+		JanelaDeslizante janela = new JanelaDeslizante(metricas, 0, n, LARGURA, GUARDADAS);
+		Thread[] assentos = new Thread[n];
+		for (int f = 0; f < n; f++) {
+			int assento = f;
+			assentos[f] = new Thread(() -> {
+				for (int i = 0; i < 20_000 * (assento + 1); i++) {
+					if (i % 5 == 0)
+						metricas.registrarEspera(assento);
+					metricas.marcarFome(assento);
+					metricas.registrarRefeicao(assento);
+				}
+			});
+			assentos[f].start();
+		}
+		boolean vivos = true;
+		while (vivos) {
+			janela.atualizar(System.nanoTime());
+			vivos = false;
+			for (Thread t : assentos)
+				vivos |= t.isAlive();
+		}
+		for (Thread t : assentos)
+			t.join();
+		janela.atualizar(System.nanoTime());
+		long[] refeicoes = new long[n];
+		long[] esperas = new long[n];
+		for (int f = 0; f < n; f++) {
+			refeicoes[f] = metricas.refeicoes(f);
+			esperas[f] = metricas.esperas(f);
+		}
+		assertEquals(20_000L, janela.getMinimo());
+		assertEquals(20_000L * n, janela.getMaximo());
+		conferirAgregados(janela, refeicoes, esperas, 0, n);
+	}
+
+	// Sem janela anexada ninguém enfileira; o que foi contado antes dela entra na primeira leitura
+	@Test
+	void semJanelaNaoHaFila() {
+		int n = 6;
+		Metricas metricas = new Metricas(n);
+		for (int f = 0; f < n; f++) {
+			metricas.registrarEspera(f);
+			for (int i = 0; i <= f; i++) {
+				metricas.marcarFome(f);
+				metricas.registrarRefeicao(f);
+			}
+		}
+		assertEquals(-1, metricas.proximoSujo());
+
+		JanelaDeslizante janela = new JanelaDeslizante(metricas, 0, n, LARGURA, GUARDADAS);
+		metricas.registrarEspera(0);
+		janela.atualizar(System.nanoTime());
+		assertEquals(n * (n + 1) / 2, janela.getTotalRefeicoes());
+		assertEquals(n + 1, janela.getTotalEsperas());
+		assertEquals(1L, janela.getMinimo());
+		assertEquals(n, janela.getMaximo());
+		assertEquals(-1, metricas.proximoSujo());
+	}
+}
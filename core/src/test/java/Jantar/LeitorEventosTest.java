@@ -0,0 +1,89 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Grava um jantar de verdade (EnsaioMesa) no GravadorEventos, relê com o LeitorEventos e
+// compara a reprodução com a mesa ao vivo: refeições, esperas e aquisições por assento,
+// contagens dos histogramas e, no anel, a linha do tempo de cada garfo
+class LeitorEventosTest {
+	private static final long CAPACIDADE = 1L << 20; // folga: nenhum evento descartado
+
+	@TempDir
+	Path pasta;
+
+	// Mordomo clássico: há esperas na entrada e nos garfos
+	@Test
+	void anelReproduzOJantar() throws InterruptedException {
+		int n = 5;
+		Mesa mesa = new Mesa(n, Mesa.ADMISSAO_GARCOM);
+		Path arquivo = pasta.resolve("anel.log");
+		GravadorEventos gravador = new GravadorEventos(arquivo, n, mesa.getAdmissao(), "monitor", true, CAPACIDADE);
+		LeitorEventos leitor = gravarEReler(mesa, EnsaioMesa.doAnel(mesa), gravador, arquivo);
+
+		assertTrue(leitor.isGarfosDoAnel());
+		assertEquals(0, leitor.getSobreposicoes(), "Dois vizinhos com o mesmo garfo no log");
+		Metricas.Instantaneo aoVivo = mesa.instantaneo();
+		for (int g = 0; g < n; g++) {
+			// cada garfo é do assento g (esquerdo) e do g-1 (direito)
+			long posses = aoVivo.aquisicoes[g] + aoVivo.aquisicoes[(g + n - 1) % n];
+			assertEquals(posses, leitor.usos(g), "Posses do garfo " + g);
+		}
+	}
+
+	// O arranjo vem do cabeçalho, não do nome (que agora passa dos 12 bytes antigos)
+	@Test
+	void grafoSemGarfosNoLog() throws InterruptedException {
+		GrafoConflitos grafo = GrafoConflitos.aleatorio(12, 10, 4, 7L);
+		MesaGrafo mesa = new MesaGrafo(grafo, Mesa.ADMISSAO_LIVRE, MesaGrafo.AQUISICAO_CAS);
+		Path arquivo = pasta.resolve("grafo.log");
+		String motor = "grafo-cas-com-nome-comprido";
+		GravadorEventos gravador = new GravadorEventos(arquivo, grafo.nrPedidos, mesa.getAdmissao(), motor, false,
+				CAPACIDADE);
+		LeitorEventos leitor = gravarEReler(mesa, EnsaioMesa.doGrafo(mesa), gravador, arquivo);
+
+		assertFalse(leitor.isGarfosDoAnel());
+		assertEquals(motor, leitor.getMotor());
+		assertEquals(0, leitor.usos(0));
+	}
+
+	@Test
+	void nomeDoMotorNaoDecideOArranjo() {
+		Path arquivo = pasta.resolve("vazio.log");
+		new GravadorEventos(arquivo, 5, Mesa.ADMISSAO_LIVRE, "grafo", true, 16).fechar();
+		LeitorEventos leitor = new LeitorEventos(arquivo);
+		assertTrue(leitor.isGarfosDoAnel());
+		assertEquals(0, leitor.reproduzir().getTotalRefeicoes());
+	}
+
+	private static LeitorEventos gravarEReler(Mesa mesa, EnsaioMesa ensaio, GravadorEventos gravador, Path arquivo)
+			throws InterruptedException {
+		mesa.setGravador(gravador);
+		EnsaioMesa.rodar(ensaio, 50);
+		gravador.fechar();
+		assertEquals(0, gravador.getDescartados());
+
+		LeitorEventos leitor = new LeitorEventos(arquivo);
+		assertEquals(mesa.getNrFilosofos(), leitor.getNrFilosofos());
+		Metricas.Instantaneo aoVivo = mesa.instantaneo();
+		Metricas.Instantaneo reproduzido = leitor.reproduzir().instantaneo();
+		assertArrayEquals(aoVivo.refeicoes, reproduzido.refeicoes, "Refeições por assento");
+		assertArrayEquals(aoVivo.esperas, reproduzido.esperas, "Esperas por assento");
+		assertArrayEquals(aoVivo.aquisicoes, reproduzido.aquisicoes, "Aquisições por assento");
+		assertEquals(aoVivo.totalRefeicoes, reproduzido.totalRefeicoes);
+		assertEquals(aoVivo.totalEsperas, reproduzido.totalEsperas);
+		// os instantes do log não são os mesmos nanoTime da mesa: só as contagens batem
+		assertEquals(HistogramaLatencia.contagem(aoVivo.latenciaGarfos),
+				HistogramaLatencia.contagem(reproduzido.latenciaGarfos), "Latências FOME → COMENDO");
+		assertEquals(HistogramaLatencia.contagem(aoVivo.latenciaEntrada),
+				HistogramaLatencia.contagem(reproduzido.latenciaEntrada), "Latências do mordomo");
+		return leitor;
+	}
+}
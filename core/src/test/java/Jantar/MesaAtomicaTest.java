@@ -0,0 +1,60 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+// Com n = 130 a máscara passa de um único long para várias palavras: os casos põem o
+// tudo-ou-nada nas fronteiras 63/64 e 127/128 e na volta do anel
+class MesaAtomicaTest {
+	// Assento b com os garfos em palavras diferentes (63/64, 127/128 e a volta 129/0): com o
+	// assento b+1 comendo para sempre, b só faz o tudo-ou-nada passageiro (marca b, falha em
+	// b+1, desfaz). O vizinho b-1 que estacionar por ver essa marca precisa ser acordado por
+	// quem desfez; senão os dois dormem com o garfo b livre. Depois b para e b-1 segue sozinho.
+	@Test
+	void desfazerEntrePalavrasAcordaOVizinho() throws InterruptedException {
+		int n = 130;
+		for (int b : new int[] { 63, 127, n - 1 }) {
+			MesaAtomica mesa = new MesaAtomica(n, Mesa.ADMISSAO_LIVRE);
+			EnsaioMesa ensaio = EnsaioMesa.doAnel(mesa);
+			int antes = (b + n - 1) % n, depois = (b + 1) % n;
+			mesa.pegarGarfos(depois);
+			ensaio.iniciar(antes, antes + 1);
+			ensaio.iniciar(b, b + 1);
+			ensaio.aguardarRefeicoes(antes, 3_000);
+			ensaio.parar(b);
+			long comidas = ensaio.refeicoes(antes);
+			ensaio.aguardarRefeicoes(antes, comidas + 500);
+			mesa.returningGarfos(depois);
+			ensaio.interromper();
+		}
+	}
+
+	// O mesmo sem depender de escalonamento: b-1 estaciona atrás de b-2 (nesta thread), e a
+	// tentativa de b (que falha em b+1, também desta thread) tem de acordá-lo ao desfazer a
+	// marca no garfo b. O acordar sobra (b-2 ainda come), e b-1 conta uma espera a mais
+	@Test
+	void desfazerEntrePalavrasAvisaQuemEstacionou() throws InterruptedException {
+		int n = 130;
+		for (int b : new int[] { 63, 127, n - 1 }) {
+			MesaAtomica mesa = new MesaAtomica(n, Mesa.ADMISSAO_LIVRE);
+			mesa.desligarRastro();
+			mesa.setEspera(Mesa.ESPERA_BLOQUEANTE);
+			int antes = (b + n - 1) % n, depois = (b + 1) % n;
+			mesa.pegarGarfos((b + n - 2) % n);
+			mesa.pegarGarfos(depois);
+			Thread esquerdo = EnsaioMesa.esperarGarfos(mesa, antes);
+			EnsaioMesa.aguardar(() -> esquerdo.getState() == Thread.State.WAITING, "assento " + (antes + 1) + " estacionar");
+			Thread meio = EnsaioMesa.esperarGarfos(mesa, b);
+			EnsaioMesa.aguardar(() -> mesa.instantaneo().esperas[antes] >= 2,
+					"assento " + (b + 1) + " acordar o " + (antes + 1) + " ao desfazer a marca (b = " + b + ")");
+			esquerdo.interrupt();
+			meio.interrupt();
+			esquerdo.join(EnsaioMesa.PRAZO_MS);
+			meio.join(EnsaioMesa.PRAZO_MS);
+			mesa.returningGarfos((b + n - 2) % n);
+			mesa.returningGarfos(depois);
+			assertEquals(0, mesa.garfosEmUso());
+		}
+	}
+}
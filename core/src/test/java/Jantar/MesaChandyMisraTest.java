@@ -0,0 +1,57 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+// Garfos limpos e sujos: dono e estado de cada garfo no começo e depois de cada pedido
+class MesaChandyMisraTest {
+	// Grafo de precedência inicial: todo garfo sujo com o vizinho de menor índice (o garfo 0,
+	// entre N-1 e 0, fica com o 0), então ninguém começa esperando por um ciclo
+	@Test
+	void donosIniciaisSemCiclo() {
+		int n = 5;
+		MesaChandyMisra mesa = new MesaChandyMisra(n, Mesa.ADMISSAO_LIVRE);
+		for (int g = 0; g < n; g++) {
+			assertEquals(g == 0 ? 0 : g - 1, mesa.donoDoGarfo(g), "Dono inicial do garfo " + g);
+			assertTrue(mesa.garfoSujo(g), "Garfo " + g + " começa limpo");
+		}
+	}
+
+	// Quem está com fome entrega o garfo sujo que já tem (e o pede de volta); o limpo, não.
+	// O assento 1 fica com o garfo 1 sujo esperando o 2, que está com o 2 comendo (nesta
+	// thread): o 0 pede o garfo 1 e come. O garfo volta limpo ao 1, e aí o 0, com fome de
+	// novo, espera até o 1 comer.
+	@Test
+	void garfoSujoPassaAdianteLimpoNao() throws InterruptedException {
+		int n = 5;
+		MesaChandyMisra mesa = new MesaChandyMisra(n, Mesa.ADMISSAO_LIVRE);
+		mesa.desligarRastro();
+		mesa.setEspera(Mesa.ESPERA_BLOQUEANTE);
+		mesa.pegarGarfos(1);
+		mesa.returningGarfos(1);
+		mesa.pegarGarfos(2);
+		assertEquals(1, mesa.donoDoGarfo(1));
+		assertTrue(mesa.garfoSujo(1));
+
+		Thread um = EnsaioMesa.esperarGarfos(mesa, 1);
+		EnsaioMesa.aguardar(() -> um.getState() == Thread.State.WAITING, "o assento 2 esperar o garfo 2");
+		Thread zero = EnsaioMesa.esperarGarfos(mesa, 0);
+		zero.join(EnsaioMesa.PRAZO_MS);
+		assertTrue(!zero.isAlive(), "O assento 2, com fome, segurou o garfo 1 sujo");
+		assertEquals(1, mesa.donoDoGarfo(1), "O garfo 1 não voltou ao assento 2");
+		assertTrue(!mesa.garfoSujo(1));
+
+		Thread denovo = EnsaioMesa.esperarGarfos(mesa, 0);
+		EnsaioMesa.aguardar(() -> denovo.getState() == Thread.State.WAITING, "o assento 1 esperar o garfo 1 limpo");
+		assertEquals(1, mesa.donoDoGarfo(1), "O assento 2 entregou o garfo 1 limpo");
+
+		mesa.returningGarfos(2);
+		um.join(EnsaioMesa.PRAZO_MS);
+		denovo.join(EnsaioMesa.PRAZO_MS);
+		assertTrue(!um.isAlive() && !denovo.isAlive(), "Os assentos 1 e 2 não comeram depois que o 3 devolveu");
+		assertEquals(5, mesa.getTotalRefeicoes());
+		assertEquals(0, mesa.garfosEmUso());
+	}
+}
@@ -0,0 +1,134 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Duas MesaCompartilhada sobre o mesmo arquivo fazem o papel de duas JVMs: os assentos da
+// fronteira entre elas só se veem pela página mapeada (espera por tempo, sem unpark).
+// n = 130 põe as fronteiras de palavra 63/64 e 127/128 na máscara de garfos do arquivo
+class MesaCompartilhadaTest {
+	@TempDir
+	Path pasta;
+
+	@Test
+	void doisFilosofos() throws InterruptedException {
+		MesaCompartilhada mesa = new MesaCompartilhada(pasta.resolve("mesa"), 2, 0, 2);
+		try {
+			EnsaioMesa.rodar(EnsaioMesa.doAnel(mesa), 200);
+		} finally {
+			mesa.fechar();
+		}
+	}
+
+	@Test
+	void doisProcessos() throws InterruptedException {
+		rodarEmDois(5, 3, 100);
+	}
+
+	@Test
+	void doisProcessosComVariasPalavras() throws InterruptedException {
+		rodarEmDois(130, 64, 5);
+	}
+
+	private void rodarEmDois(int n, int corte, long minimo) throws InterruptedException {
+		Path arquivo = pasta.resolve("mesa-" + n);
+		MesaCompartilhada a = new MesaCompartilhada(arquivo, n, 0, corte);
+		MesaCompartilhada b = new MesaCompartilhada(arquivo, n, corte, n - corte);
+		try {
+			// o heap só tem os assentos da faixa e os garfos deles; b fecha o anel no garfo 0
+			assertEquals(corte, a.filosofos.length);
+			assertEquals(corte + 1, a.garfos.length);
+			assertEquals(n - corte, b.filosofos.length);
+			assertEquals(n - corte + 1, b.garfos.length);
+			EnsaioMesa ensaio = EnsaioMesa.doAnel(a);
+			ensaio.iniciar(a, 0, corte);
+			ensaio.iniciar(b, corte, n);
+			try {
+				ensaio.aguardarRefeicoes(minimo);
+			} finally {
+				ensaio.interromper();
+			}
+			// cada processo só tem registro dos próprios assentos; os do outro leem 0
+			for (int f = 0; f < n; f++) {
+				assertEquals(f < corte ? ensaio.refeicoes(f) : 0, a.getMetricas().refeicoes(f), "Processo a, assento " + (f + 1));
+				assertEquals(f < corte ? 0 : ensaio.refeicoes(f), b.getMetricas().refeicoes(f), "Processo b, assento " + (f + 1));
+			}
+		} finally {
+			a.fechar();
+			b.fechar();
+		}
+	}
+
+	// Quem criou o arquivo morreu antes de terminar o cabeçalho: os outros desistem no prazo
+	@Test
+	void cabecalhoQueNuncaTerminaEstouraOPrazo() throws IOException {
+		Path arquivo = pasta.resolve("mesa");
+		ByteBuffer magico = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+		magico.putLong(MesaCompartilhada.INICIANDO);
+		Files.write(arquivo, magico.array());
+		assertThrows(IllegalStateException.class, () -> new MesaCompartilhada(arquivo, 5, 0, 5));
+	}
+
+	@Test
+	void interrupcaoNaEspera() throws InterruptedException {
+		MesaCompartilhada mesa = new MesaCompartilhada(pasta.resolve("mesa"), 5, 0, 5);
+		try {
+			EnsaioMesa.interromperNaEspera(mesa);
+		} finally {
+			mesa.fechar();
+		}
+	}
+
+	@Test
+	void interrupcaoNaFronteiraEntreProcessos() throws InterruptedException {
+		Path arquivo = pasta.resolve("mesa");
+		MesaCompartilhada a = new MesaCompartilhada(arquivo, 5, 0, 1);
+		MesaCompartilhada b = new MesaCompartilhada(arquivo, 5, 1, 4);
+		try {
+			EnsaioMesa.interromperNaEspera(a, b);
+		} finally {
+			a.fechar();
+			b.fechar();
+		}
+	}
+
+	// O desfazer entre palavras da MesaAtomica, agora na página mapeada: b-1 (local) estaciona
+	// sem prazo atrás de b-2, e a tentativa de b que falha em b+1 tem de dar unpark nele
+	@Test
+	void desfazerEntrePalavrasAvisaQuemEstacionou() throws InterruptedException {
+		int n = 130;
+		for (int b : new int[] { 63, 127, n - 1 }) {
+			MesaCompartilhada mesa = new MesaCompartilhada(pasta.resolve("mesa-" + b), n, 0, n);
+			try {
+				mesa.desligarRastro();
+				mesa.setEspera(Mesa.ESPERA_BLOQUEANTE);
+				int antes = (b + n - 1) % n, depois = (b + 1) % n;
+				mesa.pegarGarfos((b + n - 2) % n);
+				mesa.pegarGarfos(depois);
+				Thread esquerdo = EnsaioMesa.esperarGarfos(mesa, antes);
+				EnsaioMesa.aguardar(() -> esquerdo.getState() == Thread.State.WAITING, "assento " + (antes + 1) + " estacionar");
+				Thread meio = EnsaioMesa.esperarGarfos(mesa, b);
+				EnsaioMesa.aguardar(() -> mesa.instantaneo().esperas[antes] >= 2,
+						"assento " + (b + 1) + " acordar o " + (antes + 1) + " ao desfazer a marca (b = " + b + ")");
+				esquerdo.interrupt();
+				meio.interrupt();
+				esquerdo.join(EnsaioMesa.PRAZO_MS);
+				meio.join(EnsaioMesa.PRAZO_MS);
+				mesa.returningGarfos((b + n - 2) % n);
+				mesa.returningGarfos(depois);
+				assertEquals(0, mesa.garfosEmUso());
+			} finally {
+				mesa.fechar();
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+// Os casos variam onde caem as bordas: um fragmento só (como a Mesa), fragmentos de um
+// garfo (todo assento é borda), e n = 130, que passa de TAMANHO_MAXIMO_FRAGMENTO
+class MesaFragmentadaTest {
+	// n, K, refeições mínimas por assento; a interrupção cai dentro de um fragmento (K = 1) ou na
+	// borda entre os assentos 0 e 1 (K = 2 com n = 2)
+	@ParameterizedTest
+	@CsvSource({ "5, 1, 200", "2, 2, 200", "7, 3, 200", "130, 3, 5" })
+	void bordasEntreFragmentos(int n, int fragmentos, long minimo) throws InterruptedException {
+		EnsaioMesa.rodar(EnsaioMesa.doAnel(new MesaFragmentada(n, Mesa.ADMISSAO_LIVRE, fragmentos)), minimo);
+		EnsaioMesa.interromperNaEspera(new MesaFragmentada(n, Mesa.ADMISSAO_LIVRE, fragmentos));
+	}
+
+	// K dado é respeitado, mesmo abaixo do padrão (um fragmento de 130 garfos) e quando n não
+	// divide por K (tamanhos 3, 3, 2, 2 para n = 10, K = 4); fora de 1..n é recusado
+	@Test
+	void respeitaONumeroDeFragmentos() {
+		assertEquals(1, new MesaFragmentada(130, Mesa.ADMISSAO_LIVRE, 1).getNrFragmentos());
+		MesaFragmentada mesa = new MesaFragmentada(10, Mesa.ADMISSAO_LIVRE, 4);
+		assertEquals(4, mesa.getNrFragmentos());
+		int[] fragmento = { 0, 0, 0, 1, 1, 1, 2, 2, 3, 3 };
+		int[] local = { 0, 1, 2, 0, 1, 2, 0, 1, 0, 1 };
+		for (int g = 0; g < 10; g++) {
+			assertEquals(fragmento[g], mesa.fragmentoDoGarfo(g), "Fragmento do garfo " + g);
+			assertEquals(local[g], mesa.indiceLocal(g), "Índice local do garfo " + g);
+		}
+		assertThrows(IllegalArgumentException.class, () -> new MesaFragmentada(5, Mesa.ADMISSAO_LIVRE, 0));
+		assertThrows(IllegalArgumentException.class, () -> new MesaFragmentada(5, Mesa.ADMISSAO_LIVRE, 6));
+	}
+
+	// Sem K, nenhum fragmento passa de TAMANHO_MAXIMO_FRAGMENTO garfos
+	@Test
+	void padraoLimitaOTamanhoDoFragmento() {
+		int n = 10_000;
+		MesaFragmentada mesa = new MesaFragmentada(n, Mesa.ADMISSAO_LIVRE, MesaFragmentada.fragmentosPadrao(n));
+		assertTrue(mesa.getNrFragmentos() >= (n + MesaFragmentada.TAMANHO_MAXIMO_FRAGMENTO - 1)
+				/ MesaFragmentada.TAMANHO_MAXIMO_FRAGMENTO);
+		assertEquals(mesa.getNrFragmentos() - 1, mesa.fragmentoDoGarfo(n - 1));
+		assertTrue(MesaFragmentada.fragmentosPadrao(5) <= 5);
+	}
+
+	// n = 6 em dois fragmentos de 3: o assento 3 (garfos 2 e 3) atravessa a borda. Com o
+	// assento 4 comendo (nesta thread) ele segura o garfo 2 e para no 3, prendendo o assento 2;
+	// interrompido, tem de soltar o garfo 2 no outro fragmento para o 2 comer
+	@Test
+	void assentoNaBordaSoltaOPrimeiroGarfo() throws InterruptedException {
+		MesaFragmentada mesa = new MesaFragmentada(6, Mesa.ADMISSAO_LIVRE, 2);
+		mesa.desligarRastro();
+		mesa.setEspera(Mesa.ESPERA_BLOQUEANTE);
+		assertEquals(2, mesa.getNrFragmentos());
+		assertTrue(mesa.fragmentoDoGarfo(2) != mesa.fragmentoDoGarfo(3));
+		mesa.pegarGarfos(3);
+
+		Thread borda = EnsaioMesa.esperarGarfos(mesa, 2);
+		EnsaioMesa.aguardar(() -> borda.getState() == Thread.State.WAITING, "o assento 3 parar no garfo 3");
+		assertEquals(1, mesa.instantaneo().esperas[2]);
+		Thread vizinho = EnsaioMesa.esperarGarfos(mesa, 1);
+		EnsaioMesa.aguardar(() -> vizinho.getState() == Thread.State.WAITING, "o assento 2 esperar o garfo 2");
+
+		borda.interrupt();
+		borda.join(EnsaioMesa.PRAZO_MS);
+		vizinho.join(EnsaioMesa.PRAZO_MS);
+		assertTrue(!vizinho.isAlive(), "O assento 3 interrompido não soltou o garfo 2");
+		mesa.returningGarfos(3);
+		assertEquals(2, mesa.getTotalRefeicoes());
+		assertEquals(0, mesa.garfosEmUso());
+	}
+
+	// A volta do anel também é borda: o assento 6 (garfos 5 e 0) espera o garfo 0 sem pegar o
+	// 5, e o assento 5 come mesmo com o 1 comendo
+	@Test
+	void bordaDaVoltaPegaOGarfoZeroPrimeiro() throws InterruptedException {
+		MesaFragmentada mesa = new MesaFragmentada(6, Mesa.ADMISSAO_LIVRE, 2);
+		mesa.desligarRastro();
+		mesa.setEspera(Mesa.ESPERA_BLOQUEANTE);
+		mesa.pegarGarfos(0);
+		Thread ultimo = EnsaioMesa.esperarGarfos(mesa, 5);
+		EnsaioMesa.aguardar(() -> ultimo.getState() == Thread.State.WAITING, "o assento 6 esperar o garfo 0");
+		Thread penultimo = EnsaioMesa.esperarGarfos(mesa, 4);
+		penultimo.join(EnsaioMesa.PRAZO_MS);
+		assertTrue(!penultimo.isAlive(), "O assento 5 ficou preso atrás do 6");
+
+		mesa.returningGarfos(0);
+		ultimo.join(EnsaioMesa.PRAZO_MS);
+		assertTrue(!ultimo.isAlive(), "O assento 6 não comeu depois que o garfo 0 voltou");
+		assertEquals(3, mesa.getTotalRefeicoes());
+		assertEquals(0, mesa.garfosEmUso());
+	}
+}
@@ -0,0 +1,72 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+// Grafos além do anel (que o MotoresTest já roda), cada um nos dois modos de aquisição; a
+// exclusão é conferida por recurso do grafo, então dois assentos que dividem qualquer recurso
+// não podem comer juntos
+class MesaGrafoTest {
+	private static final int[] AQUISICOES = { MesaGrafo.AQUISICAO_ORDENADA, MesaGrafo.AQUISICAO_CAS };
+
+	private static void rodar(GrafoConflitos grafo, int admissao, long minimo) throws InterruptedException {
+		for (int aquisicao : AQUISICOES)
+			EnsaioMesa.rodar(EnsaioMesa.doGrafo(new MesaGrafo(grafo, admissao, aquisicao)), minimo);
+	}
+
+	@Test
+	void aleatorioDenso() throws InterruptedException {
+		rodar(GrafoConflitos.aleatorio(12, 10, 4, 7L), Mesa.ADMISSAO_LIVRE, 50);
+	}
+
+	@Test
+	void aleatorioEmVariasPalavras() throws InterruptedException {
+		rodar(GrafoConflitos.aleatorio(40, 200, 6, 11L), Mesa.ADMISSAO_LIVRE, 20);
+	}
+
+	// Os assentos 0 e 1 dividem só o recurso 128, e cada um tem recursos em três palavras
+	private static GrafoConflitos tresPalavras() {
+		return new GrafoConflitos(130, new int[] { 0, 3, 6, 8 }, new int[] { 0, 64, 128, 63, 128, 129, 1, 65 });
+	}
+
+	@Test
+	void interrupcaoNaEspera() throws InterruptedException {
+		for (int aquisicao : AQUISICOES)
+			EnsaioMesa.interromperNaEspera(new MesaGrafo(tresPalavras(), Mesa.ADMISSAO_LIVRE, aquisicao));
+	}
+
+	// Os ganchos da Mesa (aqui o PerfilGarfos) recebem o conjunto inteiro de cada assento, pelo
+	// recursoDoAssento: posses em todos os recursos de quem comeu e o bloqueio no recurso disputado
+	@Test
+	void perfilVeOConjuntoDoAssento() throws InterruptedException {
+		for (int aquisicao : AQUISICOES) {
+			MesaGrafo mesa = new MesaGrafo(tresPalavras(), Mesa.ADMISSAO_LIVRE, aquisicao);
+			mesa.desligarRastro();
+			PerfilGarfos perfil = PerfilGarfos.paraMesa(mesa);
+			mesa.setPerfil(perfil);
+			mesa.pegarGarfos(2);
+			mesa.returningGarfos(2);
+			mesa.pegarGarfos(0);
+			Thread vizinho = EnsaioMesa.esperarGarfos(mesa, 1);
+			EnsaioMesa.aguardar(() -> perfil.bloqueios(128) > 0, "o assento 2 esperar pelo recurso 128");
+			mesa.returningGarfos(0);
+			vizinho.join(EnsaioMesa.PRAZO_MS);
+			assertEquals(Thread.State.TERMINATED, vizinho.getState());
+
+			for (int r : new int[] { 0, 64, 1, 65, 63, 129 })
+				assertEquals(1, perfil.posses(r), "Posses do recurso " + r);
+			assertEquals(2, perfil.posses(128));
+			assertEquals(1, perfil.bloqueios(128)); // o único do assento 2 que estava com outro
+			assertEquals(0, perfil.bloqueios(63) + perfil.bloqueios(129));
+			assertEquals(0, mesa.garfosEmUso());
+		}
+	}
+
+	@Test
+	void soEsperaBloqueante() {
+		MesaGrafo mesa = new MesaGrafo(GrafoConflitos.anel(5), Mesa.ADMISSAO_LIVRE, MesaGrafo.AQUISICAO_CAS);
+		assertThrows(IllegalArgumentException.class, () -> mesa.setEspera(Mesa.ESPERA_ADAPTATIVA));
+	}
+}
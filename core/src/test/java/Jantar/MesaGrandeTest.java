@@ -0,0 +1,49 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+// Cada motor numa mesa de 100 mil lugares: construção, a volta do anel (o direito do último é o
+// garfo 0) e o painel final. Threads só numa janela de assentos que desliza pela mesa, passando
+// pela volta do anel, por fronteiras de palavra (64) e pelo meio
+class MesaGrandeTest {
+	private static final int N = 100_000;
+	private static final int JANELA = 16;
+	private static final int[] INICIOS = { N - JANELA / 2, 64 - JANELA / 2, N / 2 };
+
+	static Iterable<String> motores() {
+		return Motores.nomes();
+	}
+
+	@ParameterizedTest
+	@MethodSource("motores")
+	void cemMilLugares(String motor) throws InterruptedException {
+		MesaDeJantar mesa = Motores.criar(motor, N,
+				EnsaioMesa.semMordomo(motor) ? Mesa.ADMISSAO_LIVRE : Mesa.ADMISSAO_GARCOM);
+		assertEquals(N, mesa.getNrFilosofos());
+		if (mesa.isGarfosDoAnel()) {
+			EstadoDaMesa estado = (EstadoDaMesa) mesa;
+			assertEquals(N - 1, estado.garfoEsquerdo(N - 1));
+			assertEquals(0, estado.garfoDireito(N - 1));
+		}
+
+		for (int inicio : INICIOS) {
+			EnsaioMesa ensaio = EnsaioMesa.de(mesa);
+			int fim = inicio + JANELA;
+			if (fim > N) { // a janela passa da volta: [inicio, N) e [0, resto)
+				ensaio.iniciar(inicio, N);
+				ensaio.iniciar(0, fim - N);
+			} else {
+				ensaio.iniciar(inicio, fim);
+			}
+			try {
+				ensaio.aguardarRefeicoes(20);
+			} finally {
+				ensaio.interromper();
+			}
+		}
+		mesa.imprimirEstatisticasFinais();
+	}
+}
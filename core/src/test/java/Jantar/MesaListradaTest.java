@@ -0,0 +1,36 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+// Uma trava por garfo em ordem de índice: sem mordomo não pode haver ciclo de espera,
+// inclusive no assento N-1, que pega o garfo 0 primeiro
+class MesaListradaTest {
+	// Assento N-1 (garfos N-1 e 0) parado atrás do assento 0: esperou pelo garfo 0 sem ter
+	// pegado o N-1, então o assento N-2 come por cima dele. Pegando na ordem do anel, os
+	// dois ficariam presos atrás do 0
+	@Test
+	void ultimoAssentoPegaOGarfoZeroPrimeiro() throws InterruptedException {
+		int n = 5;
+		MesaListrada mesa = new MesaListrada(n, Mesa.ADMISSAO_LIVRE);
+		mesa.desligarRastro();
+		mesa.setEspera(Mesa.ESPERA_BLOQUEANTE);
+		mesa.pegarGarfos(0);
+		Thread ultimo = EnsaioMesa.esperarGarfos(mesa, n - 1);
+		EnsaioMesa.aguardar(() -> ultimo.getState() == Thread.State.WAITING, "o assento " + n + " esperar o garfo 0");
+		assertTrue(mesa.garfos[n - 1], "O assento " + n + " pegou o garfo " + (n - 1) + " antes do 0");
+
+		Thread penultimo = EnsaioMesa.esperarGarfos(mesa, n - 2);
+		penultimo.join(EnsaioMesa.PRAZO_MS);
+		assertTrue(!penultimo.isAlive(), "O assento " + (n - 1) + " ficou preso atrás do " + n);
+		assertEquals(2, mesa.getTotalRefeicoes()); // o 0 (nesta thread) e o N-2
+
+		mesa.returningGarfos(0);
+		ultimo.join(EnsaioMesa.PRAZO_MS);
+		assertTrue(!ultimo.isAlive(), "O assento " + n + " não comeu depois que o garfo 0 voltou");
+		assertEquals(3, mesa.getTotalRefeicoes());
+		assertEquals(0, mesa.garfosEmUso());
+	}
+}
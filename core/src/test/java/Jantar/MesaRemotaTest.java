@@ -0,0 +1,99 @@
+package Jantar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+// ServidorGarfos no loopback, numa thread deste teste, com uma ou duas MesaRemota dividindo
+// os assentos: a exclusão é conferida entre conexões, não só dentro de uma
+class MesaRemotaTest {
+	private static final String LOCAL = InetAddress.getLoopbackAddress().getHostAddress();
+
+	private ServidorGarfos servidor;
+	private Thread atendente;
+
+	private int servir(int nrFilosofos) throws IOException {
+		servidor = new ServidorGarfos(nrFilosofos, 0);
+		servidor.getMesa().desligarRastro();
+		atendente = new Thread(() -> {
+			try {
+				servidor.executar(EnsaioMesa.PRAZO_MS * 1_000_000L);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, "servidor-garfos");
+		atendente.setDaemon(true);
+		atendente.start();
+		return servidor.getPorta();
+	}
+
+	@AfterEach
+	void encerrar() throws IOException, InterruptedException {
+		servidor.parar();
+		atendente.join(EnsaioMesa.PRAZO_MS);
+		servidor.fechar();
+	}
+
+	@Test
+	void doisFilosofos() throws IOException, InterruptedException {
+		MesaRemota mesa = MesaRemota.conectar(LOCAL, servir(2), 0, 2);
+		try {
+			EnsaioMesa.rodar(EnsaioMesa.doAnel(mesa), 100);
+		} finally {
+			mesa.fechar();
+		}
+	}
+
+	@Test
+	void duasConexoes() throws IOException, InterruptedException {
+		int porta = servir(5);
+		MesaRemota a = MesaRemota.conectar(LOCAL, porta, 0, 3);
+		MesaRemota b = MesaRemota.conectar(LOCAL, porta, 3, 2);
+		try {
+			EnsaioMesa ensaio = EnsaioMesa.doAnel(a);
+			ensaio.iniciar(a, 0, 3);
+			ensaio.iniciar(b, 3, 5);
+			try {
+				ensaio.aguardarRefeicoes(100);
+			} finally {
+				ensaio.interromper();
+			}
+		} finally {
+			a.fechar();
+			b.fechar();
+		}
+	}
+
+	@Test
+	void mesaGrandeEmDuasConexoes() throws IOException, InterruptedException {
+		int porta = servir(130);
+		MesaRemota a = MesaRemota.conectar(LOCAL, porta, 0, 65);
+		MesaRemota b = MesaRemota.conectar(LOCAL, porta, 65, 65);
+		try {
+			EnsaioMesa ensaio = EnsaioMesa.doAnel(a);
+			ensaio.iniciar(a, 0, 65);
+			ensaio.iniciar(b, 65, 130);
+			try {
+				ensaio.aguardarRefeicoes(5);
+			} finally {
+				ensaio.interromper();
+			}
+		} finally {
+			a.fechar();
+			b.fechar();
+		}
+	}
+
+	@Test
+	void interrupcaoNaEspera() throws IOException, InterruptedException {
+		MesaRemota mesa = MesaRemota.conectar(LOCAL, servir(5), 0, 5);
+		try {
+			EnsaioMesa.interromperNaEspera(mesa);
+		} finally {
+			mesa.fechar();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+// Casos próprios do monitor da Mesa (e da variante didática): o mordomo clássico, o prazo de
+// justiça, os modos de espera aceitos e o rastro. O jantar com threads fica no MotoresTest
+class MesaTest {
+	private static Mesa comEspera(Mesa mesa, int espera) {
+		mesa.setEspera(espera);
+		return mesa;
+	}
+
+	// Mordomo clássico: com N-1 assentos lá dentro o último fica na porta (uma espera) até
+	// alguém sair, e então entra e come
+	@Test
+	void garcomAdmiteNMenosUm() throws InterruptedException {
+		int n = 5;
+		Mesa mesa = new Mesa(n, Mesa.ADMISSAO_GARCOM);
+		mesa.desligarRastro();
+		for (int f = 0; f < n - 1; f++)
+			mesa.entrarNoRefeitorio(f);
+		AtomicBoolean comeu = new AtomicBoolean();
+		Thread ultimo = new Thread(() -> {
+			try {
+				mesa.entrarNoRefeitorio(n - 1);
+				mesa.pegarGarfos(n - 1);
+				mesa.returningGarfos(n - 1);
+				mesa.sairDoRefeitorio();
+				comeu.set(true);
+			} catch (InterruptedException e) {
+				// falha abaixo
+			}
+		}, "ensaio-" + n);
+		ultimo.setDaemon(true);
+		ultimo.start();
+		EnsaioMesa.aguardar(() -> ultimo.getState() == Thread.State.WAITING, "o assento " + n + " parar na porta");
+		assertEquals(1, mesa.instantaneo().esperas[n - 1]);
+		assertEquals(0, mesa.getTotalRefeicoes());
+
+		mesa.sairDoRefeitorio();
+		ultimo.join(EnsaioMesa.PRAZO_MS);
+		assertTrue(comeu.get(), "O assento " + n + " não entrou depois que uma vaga abriu");
+		for (int f = 1; f < n - 1; f++)
+			mesa.sairDoRefeitorio();
+		assertEquals(1, mesa.getTotalRefeicoes());
+	}
+
+	// Prazo de 20 ms: o assento 1 espera o 0 (nesta thread) até virar prioritário, quando troca
+	// o awaitNanos pelo await sem prazo (WAITING). A refeição dele conta como após o prazo, com a
+	// espera inteira na máxima; a do assento 2, logo depois e sem disputa, não mexe em nada.
+	@Test
+	void prazoDeJustica() throws InterruptedException {
+		long prazo = TimeUnit.MILLISECONDS.toNanos(20);
+		Mesa mesa = comEspera(new Mesa(3, Mesa.ADMISSAO_LIVRE), Mesa.ESPERA_BLOQUEANTE);
+		mesa.desligarRastro();
+		mesa.setPrazoJustica(prazo);
+		mesa.pegarGarfos(0);
+		long inicio = System.nanoTime();
+		Thread vizinho = new Thread(() -> {
+			try {
+				mesa.pegarGarfos(1);
+				mesa.returningGarfos(1);
+			} catch (InterruptedException e) {
+				// só se o caso estourar o prazo
+			}
+		}, "ensaio-prazo");
+		vizinho.setDaemon(true);
+		vizinho.start();
+		long limite = System.nanoTime() + EnsaioMesa.PRAZO_MS * 1_000_000L;
+		while (vizinho.getState() != Thread.State.WAITING && vizinho.isAlive() && System.nanoTime() < limite)
+			Thread.yield();
+		assertEquals(Thread.State.WAITING, vizinho.getState(), "O vizinho não passou a esperar sem prazo");
+		assertEquals(0, mesa.getRefeicoesAposPrazo());
+		mesa.returningGarfos(0);
+		vizinho.join(EnsaioMesa.PRAZO_MS);
+		long esperaTotal = System.nanoTime() - inicio;
+		assertTrue(!vizinho.isAlive(), "O vizinho não comeu depois dos garfos devolvidos");
+
+		assertEquals(1, mesa.getRefeicoesAposPrazo());
+		long maxima = mesa.getEsperaMaximaNanos();
+		assertTrue(maxima > prazo && maxima <= esperaTotal, "Espera máxima de " + maxima + " ns com prazo de " + prazo);
+
+		mesa.pegarGarfos(2);
+		mesa.returningGarfos(2);
+		assertEquals(1, mesa.getRefeicoesAposPrazo());
+		assertEquals(maxima, mesa.getEsperaMaximaNanos());
+		assertEquals(0, mesa.garfosEmUso());
+	}
+
+	// Só o pegarGarfos do monitor sabe cumprir o prazo; os outros motores recusam, mas aceitam 0.
+	// Um motor novo derivado da Mesa também nasce sem prazo, sem precisar sobrescrever nada
+	@Test
+	void prazoSoNoMonitor() {
+		MesaAtomica atomica = new MesaAtomica(5, Mesa.ADMISSAO_LIVRE);
+		assertThrows(IllegalStateException.class, () -> atomica.setPrazoJustica(1_000_000L));
+		atomica.setPrazoJustica(0);
+		assertEquals(0, atomica.getPrazoJustica());
+		assertEquals(0, atomica.detalhesJustica().length);
+		assertThrows(IllegalStateException.class, () -> new MesaAlternativa(5).setPrazoJustica(1_000_000L));
+		Mesa derivada = new Mesa(5, Mesa.ADMISSAO_LIVRE) {
+		};
+		assertThrows(IllegalStateException.class, () -> derivada.setPrazoJustica(1_000_000L));
+		assertEquals(0, derivada.detalhesJustica().length);
+		assertThrows(IllegalArgumentException.class, () -> new Mesa(5, Mesa.ADMISSAO_LIVRE).setPrazoJustica(-1));
+	}
+
+	// A alternativa não tem fase de giro: nasce bloqueante e recusa a adaptativa
+	@Test
+	void alternativaSoTemEsperaBloqueante() {
+		MesaAlternativa mesa = new MesaAlternativa(5);
+		assertEquals(Mesa.ESPERA_BLOQUEANTE, mesa.getEspera());
+		assertThrows(IllegalArgumentException.class, () -> mesa.setEspera(Mesa.ESPERA_ADAPTATIVA));
+		mesa.setEspera(Mesa.ESPERA_BLOQUEANTE);
+	}
+
+	// Depois do aviso de limite ninguém mais publica: o consumidor do rastro imprime o que falta
+	// e termina, em vez de acordar a cada 1 ms até o fim do programa
+	@Test
+	void rastroParaDepoisDoLimite() throws InterruptedException {
+		PrintStream saida = System.out;
+		ByteArrayOutputStream impresso = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(impresso, true));
+		try {
+			Mesa mesa = new Mesa(2, Mesa.ADMISSAO_LIVRE);
+			for (int i = 0; i < Mesa.MAX_TRACE + 5; i++) {
+				mesa.pegarGarfos(i % 2);
+				mesa.returningGarfos(i % 2);
+			}
+			EnsaioMesa.aguardar(() -> !mesa.rastro.consumidorAtivo(), "o consumidor do rastro terminar");
+		} finally {
+			System.setOut(saida);
+		}
+		assertTrue(impresso.toString().contains("Limite de " + Mesa.MAX_TRACE), "Aviso de limite não impresso");
+	}
+}
@@ -0,0 +1,141 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+// Métricas ao vivo de uma mesa alimentada nesta thread (refeições sem disputa): leitura pelo
+// servidor JMX da plataforma, formato texto do Prometheus e ciclo encerrar/iniciar
+class MetricasAoVivoTest {
+	private static final int REFEICOES = 3;
+
+	// Cada assento come REFEICOES vezes, um por vez
+	private static Mesa mesaServida(int n) throws InterruptedException {
+		Mesa mesa = new Mesa(n, Mesa.ADMISSAO_LIVRE);
+		mesa.desligarRastro();
+		for (int r = 0; r < REFEICOES; r++) {
+			for (int f = 0; f < n; f++) {
+				mesa.pegarGarfos(f);
+				mesa.returningGarfos(f);
+			}
+		}
+		return mesa;
+	}
+
+	@Test
+	void atributosPeloServidorJmx() throws Exception {
+		Mesa mesa = mesaServida(5);
+		MetricasAoVivo aoVivo = new MetricasAoVivo(mesa, 60_000L);
+		ObjectName nome = new ObjectName(aoVivo.iniciar());
+		MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+		try {
+			assertTrue(servidor.isRegistered(nome));
+			assertEquals(mesa.nomeMotor(), servidor.getAttribute(nome, "Motor"));
+			assertEquals(5, servidor.getAttribute(nome, "NrFilosofos"));
+			assertEquals(5L * REFEICOES, servidor.getAttribute(nome, "TotalRefeicoes"));
+			assertEquals(5L * REFEICOES, servidor.getAttribute(nome, "TotalAquisicoes"));
+			assertEquals(0L, servidor.getAttribute(nome, "TotalEsperas"));
+			assertEquals(0, servidor.getAttribute(nome, "Comendo"));
+			assertTrue((long) servidor.getAttribute(nome, "LatenciaP99Nanos") >= 0);
+			assertEquals((long) REFEICOES, servidor.invoke(nome, "refeicoesDoFilosofo", new Object[] { 2 },
+					new String[] { int.class.getName() }));
+		} finally {
+			aoVivo.encerrar();
+		}
+		assertFalse(servidor.isRegistered(nome));
+	}
+
+	@Test
+	void textoNoFormatoDeExposicao() throws InterruptedException {
+		String texto = new MetricasAoVivo(mesaServida(5)).textoPrometheus();
+		conferirFormato(texto);
+		assertTrue(texto.contains("jantar_refeicoes_total " + 5 * REFEICOES + "\n"));
+		assertTrue(texto.contains("jantar_filosofo_refeicoes_total{filosofo=\"5\"} " + REFEICOES + "\n"));
+		assertEquals(5, contar(texto, "jantar_filosofo_esperas_total{"));
+	}
+
+	// Acima de MAX_FILOSOFOS_EXPOSTOS só os totais vão para o Prometheus
+	@Test
+	void semSeriesPorFilosofoEmMesaGrande() throws InterruptedException {
+		int n = MetricasAoVivo.MAX_FILOSOFOS_EXPOSTOS + 1;
+		String texto = new MetricasAoVivo(mesaServida(n)).textoPrometheus();
+		conferirFormato(texto);
+		assertTrue(texto.contains("jantar_refeicoes_total " + (long) n * REFEICOES + "\n"));
+		assertFalse(texto.contains("jantar_filosofo_"), "Séries por filósofo com " + n + " assentos");
+	}
+
+	@Test
+	void encerrarEIniciarRegistraNomeNovo() throws Exception {
+		MetricasAoVivo aoVivo = new MetricasAoVivo(mesaServida(5), 60_000L);
+		MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+		ObjectName primeiro = new ObjectName(aoVivo.iniciar());
+		assertEquals(primeiro.toString(), aoVivo.iniciar()); // já iniciado: o mesmo nome
+		aoVivo.encerrar();
+		ObjectName segundo = new ObjectName(aoVivo.iniciar());
+		try {
+			assertNotEquals(primeiro, segundo);
+			assertFalse(servidor.isRegistered(primeiro));
+			assertTrue(servidor.isRegistered(segundo));
+			assertEquals(5L * REFEICOES, servidor.getAttribute(segundo, "TotalRefeicoes"));
+		} finally {
+			aoVivo.encerrar();
+		}
+		assertFalse(servidor.isRegistered(segundo));
+	}
+
+	// HELP e TYPE antes da primeira amostra de cada família; amostras `nome{rótulos} valor`;
+	// todo summary com _sum e _count
+	private static void conferirFormato(String texto) {
+		assertTrue(texto.endsWith("\n"));
+		Set<String> comHelp = new HashSet<>();
+		Set<String> comType = new HashSet<>();
+		Set<String> resumos = new HashSet<>();
+		Set<String> amostradas = new HashSet<>();
+		for (String linha : texto.split("\n")) {
+			String[] partes = linha.split(" ", 4);
+			if (linha.startsWith("# HELP ")) {
+				assertTrue(comHelp.add(partes[2]), "HELP repetido: " + linha);
+				assertFalse(amostradas.contains(partes[2]), "HELP depois das amostras: " + linha);
+			} else if (linha.startsWith("# TYPE ")) {
+				assertTrue(comHelp.contains(partes[2]), "TYPE sem HELP antes: " + linha);
+				assertTrue(comType.add(partes[2]), "TYPE repetido: " + linha);
+				assertTrue(Set.of("counter", "gauge", "summary").contains(partes[3]), linha);
+				if (partes[3].equals("summary"))
+					resumos.add(partes[2]);
+			} else {
+				String serie = linha.substring(0, linha.lastIndexOf(' '));
+				Double.parseDouble(linha.substring(linha.lastIndexOf(' ') + 1));
+				String familia = serie.contains("{") ? serie.substring(0, serie.indexOf('{')) : serie;
+				if (familia.endsWith("_sum") || familia.endsWith("_count")) {
+					String base = familia.substring(0, familia.lastIndexOf('_'));
+					if (resumos.contains(base))
+						familia = base;
+				}
+				assertTrue(comType.contains(familia), "Amostra sem HELP/TYPE antes: " + linha);
+				amostradas.add(familia);
+			}
+		}
+		for (String r : resumos) {
+			assertTrue(texto.contains("\n" + r + "_sum "), r + " sem _sum");
+			assertTrue(texto.contains("\n" + r + "_count "), r + " sem _count");
+		}
+		assertEquals(comType, amostradas, "Família sem amostras");
+	}
+
+	private static int contar(String texto, String trecho) {
+		int n = 0;
+		for (int i = texto.indexOf(trecho); i >= 0; i = texto.indexOf(trecho, i + 1))
+			n++;
+		return n;
+	}
+}
@@ -0,0 +1,113 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+// Contadores por assento com um escritor por assento, todos ao mesmo tempo: nenhuma contagem
+// se perde e a soma dos registros bate com os LongAdder. Numa faixa da mesa (primeiro > 0)
+// os assentos de fora leem 0
+class MetricasTest {
+	private static final int N = 8;
+	private static final int VEZES = 50_000;
+
+	// Assento f: VEZES x (f + 1) refeições, metade delas extras de lote, e uma espera a cada 3
+	private static void escrever(Metricas m, int f) {
+		for (int i = 0; i < VEZES * (f + 1); i++) {
+			if (i % 3 == 0)
+				m.registrarEspera(f);
+			m.marcarFome(f);
+			if (i % 2 == 0)
+				m.registrarRefeicao(f);
+			else
+				m.registrarRefeicaoExtra(f);
+		}
+	}
+
+	private static void escritoresConcorrentes(Metricas m, int primeiro, int fim) throws InterruptedException {
+		CountDownLatch largada = new CountDownLatch(1);
+		Thread[] threads = new Thread[fim - primeiro];
+		for (int f = primeiro; f < fim; f++) {
+			int assento = f;
+			threads[f - primeiro] = new Thread(() -> {
+				try {
+					largada.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				escrever(m, assento);
+			}, "escritor-" + (f + 1));
+			threads[f - primeiro].start();
+		}
+		largada.countDown();
+		for (Thread t : threads)
+			t.join();
+	}
+
+	private static long refeicoesEsperadas(int f) {
+		return (long) VEZES * (f + 1);
+	}
+
+	@Test
+	void escritoresConcorrentesBatemComOsTotais() throws InterruptedException {
+		Metricas m = new Metricas(N);
+		escritoresConcorrentes(m, 0, N);
+
+		long refeicoes = 0, esperas = 0, aquisicoes = 0;
+		for (int f = 0; f < N; f++) {
+			long r = refeicoesEsperadas(f);
+			assertEquals(r, m.refeicoes(f), "Refeições do assento " + (f + 1));
+			assertEquals((r + 1) / 2, m.aquisicoes(f), "Aquisições do assento " + (f + 1));
+			assertEquals((r + 2) / 3, m.esperas(f), "Esperas do assento " + (f + 1));
+			assertEquals((r + 1) / 2, HistogramaLatencia.contagem(m.latenciaGarfos(f)));
+			refeicoes += m.refeicoes(f);
+			esperas += m.esperas(f);
+			aquisicoes += m.aquisicoes(f);
+		}
+		assertEquals(refeicoes, m.getTotalRefeicoes());
+		assertEquals(esperas, m.getTotalEsperas());
+		assertEquals(aquisicoes, m.getTotalAquisicoes());
+
+		Metricas.Instantaneo i = m.instantaneo();
+		assertEquals(m.getTotalRefeicoes(), i.totalRefeicoes);
+		assertEquals(m.getTotalEsperas(), i.totalEsperas);
+		assertEquals(m.getTotalAquisicoes(), i.totalAquisicoes);
+		assertEquals(aquisicoes, HistogramaLatencia.contagem(i.latenciaGarfos));
+	}
+
+	// Só [3, 6) desta JVM: os vetores do instantâneo cobrem a mesa toda, com 0 fora da faixa
+	@Test
+	void faixaLeZeroForaDosAssentosLocais() throws InterruptedException {
+		int primeiro = 3, fim = 6;
+		Metricas m = new Metricas(N, primeiro, fim);
+		escritoresConcorrentes(m, primeiro, fim);
+
+		Metricas.Instantaneo i = m.instantaneo();
+		assertEquals(N, i.nrFilosofos);
+		assertEquals(N, i.refeicoes.length);
+		long total = 0;
+		for (int f = 0; f < N; f++) {
+			long esperado = f >= primeiro && f < fim ? refeicoesEsperadas(f) : 0;
+			assertEquals(esperado, i.refeicoes[f], "Refeições do assento " + (f + 1));
+			assertEquals(esperado, m.refeicoes(f));
+			if (esperado == 0) {
+				assertEquals(0, i.esperas[f]);
+				assertEquals(0, i.aquisicoes[f]);
+				assertEquals(0, HistogramaLatencia.contagem(m.latenciaGarfos(f)));
+			}
+			total += esperado;
+		}
+		assertEquals(total, i.totalRefeicoes);
+		assertEquals(total, m.getTotalRefeicoes());
+	}
+
+	@Test
+	void faixaForaDaMesa() {
+		assertThrows(IllegalArgumentException.class, () -> new Metricas(N, -1, N));
+		assertThrows(IllegalArgumentException.class, () -> new Metricas(N, 4, 4));
+		assertThrows(IllegalArgumentException.class, () -> new Metricas(N, 0, N + 1));
+	}
+}
@@ -0,0 +1,88 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+// Modo em lote: até `lote` refeições por aquisição dos garfos. Com threads de verdade
+// (Filosofos numa Mesa) confere o limite por assento; o corte pelo quantum, que depende do
+// relógio, é conferido no simulador, onde o tempo é virtual e o jantar é sempre o mesmo
+class ModoEmLoteTest {
+	private static final int N = 5;
+	private static final int LOTE = 4;
+	private static final long DURACAO = 2_000_000_000L; // 2 s virtuais
+
+	@Test
+	void ateLoteRefeicoesPorAquisicao() throws InterruptedException {
+		Mesa mesa = new Mesa(N, Mesa.ADMISSAO_GARCOM);
+		mesa.desligarRastro();
+		mesa.setLote(LOTE, 0);
+		CargaDeTrabalho carga = new CargaDeTrabalho(7L, CargaDeTrabalho.ZERO, 0, CargaDeTrabalho.UNIFORME, 20_000L);
+		Thread[] threads = new Thread[N];
+		for (int f = 0; f < N; f++) {
+			threads[f] = new Thread(new Filosofos("Filósofo " + (f + 1), mesa, f, carga), "lote-" + (f + 1));
+			threads[f].setDaemon(true);
+			threads[f].start();
+		}
+		try {
+			EnsaioMesa.aguardar(() -> mesa.getTotalRefeicoes() >= 50L * N, "comer em lote");
+		} finally {
+			for (Thread t : threads)
+				t.interrupt();
+			for (Thread t : threads)
+				t.join(EnsaioMesa.PRAZO_MS);
+		}
+
+		Metricas.Instantaneo m = mesa.instantaneo();
+		for (int f = 0; f < N; f++) {
+			assertTrue(m.aquisicoes[f] <= m.refeicoes[f] && m.refeicoes[f] <= (long) LOTE * m.aquisicoes[f],
+					"Assento " + (f + 1) + ": " + m.refeicoes[f] + " refeições em " + m.aquisicoes[f] + " aquisições");
+		}
+		assertTrue(m.totalAquisicoes < m.totalRefeicoes,
+				m.totalRefeicoes + " refeições em " + m.totalAquisicoes + " aquisições");
+		assertEquals(0, mesa.garfosEmUso());
+	}
+
+	// Sem quantum o lote só acaba cheio (o último de cada assento pode ficar pela metade)
+	@Test
+	void loteCheioSemQuantum() {
+		Metricas.Instantaneo m = simular(LOTE, 0);
+		for (int f = 0; f < N; f++) {
+			assertTrue(m.refeicoes[f] > (long) LOTE * (m.aquisicoes[f] - 1)
+					&& m.refeicoes[f] <= (long) LOTE * m.aquisicoes[f],
+					"Assento " + (f + 1) + ": " + m.refeicoes[f] + " refeições em " + m.aquisicoes[f] + " aquisições");
+		}
+	}
+
+	// Quantum de 1 ns: qualquer refeição já o esgota, então o lote para na primeira
+	@Test
+	void quantumCortaOLote() {
+		Metricas.Instantaneo m = simular(LOTE, 1);
+		assertTrue(m.totalRefeicoes > 0);
+		assertEquals(m.totalAquisicoes, m.totalRefeicoes);
+
+		// quantum de uma refeição média: lotes mais curtos que LOTE, mas nem todos de uma só
+		Metricas.Instantaneo meio = simular(LOTE, 1_000_000L);
+		assertTrue(meio.totalAquisicoes < meio.totalRefeicoes
+				&& meio.totalRefeicoes < (long) LOTE * (meio.totalAquisicoes - N),
+				meio.totalRefeicoes + " refeições em " + meio.totalAquisicoes + " aquisições");
+	}
+
+	@Test
+	void loteInvalido() {
+		Mesa mesa = new Mesa(N, Mesa.ADMISSAO_GARCOM);
+		assertThrows(IllegalArgumentException.class, () -> mesa.setLote(0, 0));
+		assertThrows(IllegalArgumentException.class, () -> mesa.setLote(LOTE, -1));
+	}
+
+	private static Metricas.Instantaneo simular(int lote, long quantumNanos) {
+		CargaDeTrabalho carga = new CargaDeTrabalho(1234L, CargaDeTrabalho.EXPONENCIAL, 1_000_000L,
+				CargaDeTrabalho.EXPONENCIAL, 1_000_000L);
+		SimuladorEventos simulador = new SimuladorEventos("monitor", N, Mesa.ADMISSAO_GARCOM, carga);
+		((EstadoDaMesa) simulador.getMesa()).setLote(lote, quantumNanos);
+		simulador.executar(DURACAO);
+		return simulador.getMesa().instantaneo();
+	}
+}
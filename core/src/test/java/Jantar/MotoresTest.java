@@ -0,0 +1,82 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+// Roteiro comum a todos os motores do catálogo (Motores.nomes()): uma thread por assento em
+// n = 2 (os dois garfos são dos dois assentos), 5 e 130 (várias palavras de máscara, vários
+// fragmentos, muitos pedidos guardados), com cada política de admissão e nos dois modos de
+// espera; e a interrupção de quem espera pelo mordomo ou pelos garfos. Os casos próprios de
+// cada motor ficam na classe de teste dele. O chandy recusa o mordomo: só os casos livres
+class MotoresTest {
+	static Iterable<String> motores() {
+		return Motores.nomes();
+	}
+
+	// motor, n, admissão, refeições mínimas por assento
+	static Stream<Arguments> jantares() {
+		return Motores.nomes().stream().flatMap(motor -> Stream.of(
+				Arguments.of(motor, 2, Mesa.ADMISSAO_LIVRE, 200),
+				Arguments.of(motor, 2, Mesa.ADMISSAO_GARCOM, 200),
+				Arguments.of(motor, 5, Mesa.ADMISSAO_LIVRE, 200),
+				Arguments.of(motor, 5, Mesa.ADMISSAO_GARCOM, 200),
+				Arguments.of(motor, 5, Mesa.ADMISSAO_UNICA, 100),
+				Arguments.of(motor, 130, Mesa.ADMISSAO_LIVRE, 5),
+				Arguments.of(motor, 130, Mesa.ADMISSAO_GARCOM, 5)))
+				.filter(MotoresTest::admite);
+	}
+
+	// motor, n, admissão; com n = 2 e mordomo a única vaga é do assento 0, e o 1 para na porta
+	static Stream<Arguments> interrupcoes() {
+		return Motores.nomes().stream().flatMap(motor -> Stream.of(
+				Arguments.of(motor, 2, Mesa.ADMISSAO_GARCOM),
+				Arguments.of(motor, 2, Mesa.ADMISSAO_LIVRE),
+				Arguments.of(motor, 5, Mesa.ADMISSAO_LIVRE),
+				Arguments.of(motor, 130, Mesa.ADMISSAO_LIVRE)))
+				.filter(MotoresTest::admite);
+	}
+
+	private static boolean admite(Arguments caso) {
+		Object[] a = caso.get();
+		return (int) a[2] == Mesa.ADMISSAO_LIVRE || !EnsaioMesa.semMordomo((String) a[0]);
+	}
+
+	@Test
+	void chandyRecusaMordomo() {
+		assertThrows(IllegalArgumentException.class, () -> Motores.criar("chandy", 5, Mesa.ADMISSAO_GARCOM));
+		assertThrows(IllegalArgumentException.class, () -> Motores.criar("chandy", 5, Mesa.ADMISSAO_UNICA));
+	}
+
+	// O padrão é a espera adaptativa onde o motor a tem; este força a bloqueante
+	private static MesaDeJantar bloqueante(MesaDeJantar mesa) {
+		if (mesa instanceof Mesa m)
+			m.setEspera(Mesa.ESPERA_BLOQUEANTE);
+		return mesa;
+	}
+
+	@ParameterizedTest
+	@MethodSource("jantares")
+	void todosComemEVizinhosNuncaJuntos(String motor, int n, int admissao, long minimo)
+			throws InterruptedException {
+		EnsaioMesa.rodar(EnsaioMesa.de(Motores.criar(motor, n, admissao)), minimo);
+	}
+
+	@ParameterizedTest
+	@MethodSource("motores")
+	void esperaBloqueante(String motor) throws InterruptedException {
+		EnsaioMesa.rodar(EnsaioMesa.de(bloqueante(Motores.criar(motor, 5, Mesa.ADMISSAO_LIVRE))), 200);
+		EnsaioMesa.interromperNaEspera(bloqueante(Motores.criar(motor, 5, Mesa.ADMISSAO_LIVRE)));
+	}
+
+	@ParameterizedTest
+	@MethodSource("interrupcoes")
+	void interrupcaoNaEspera(String motor, int n, int admissao) throws InterruptedException {
+		EnsaioMesa.interromperNaEspera(Motores.criar(motor, n, admissao));
+	}
+}
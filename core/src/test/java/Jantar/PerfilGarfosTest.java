@@ -0,0 +1,150 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Perfil alimentado à mão (pegouGarfo/devolveuGarfo com instantes escolhidos), sem mesa nem
+// threads: amostragem, posses e tempos de posse, passagens entre assentos e o CSV
+class PerfilGarfosTest {
+	private static final String CABECALHO = "garfo,posses,posse_total_ns,posse_max_ns,posse_media_ns,ocupacao,"
+			+ "bloqueios,repetiu,adiante,atras,outro";
+
+	@TempDir
+	Path pasta;
+
+	// Uma posse do garfo pelo assento, de `de` a `ate` (ns)
+	private static void posse(PerfilGarfos perfil, int filosofo, int garfo, long de, long ate) {
+		perfil.pegouGarfo(filosofo, garfo, de);
+		perfil.devolveuGarfo(garfo, ate);
+	}
+
+	private List<String> csv(PerfilGarfos perfil) throws IOException {
+		Path arquivo = pasta.resolve("perfil.csv");
+		perfil.escreverCsv(arquivo);
+		return Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+	}
+
+	// Colunas numéricas da linha do garfo (a coluna ocupacao, fracionária, vira -1)
+	private long[] linha(PerfilGarfos perfil, int garfo) throws IOException {
+		for (String l : csv(perfil)) {
+			String[] campos = l.split(",");
+			if (campos[0].equals(String.valueOf(garfo))) {
+				long[] valores = new long[campos.length];
+				for (int i = 0; i < campos.length; i++)
+					valores[i] = campos[i].contains(".") ? -1 : Long.parseLong(campos[i]);
+				return valores;
+			}
+		}
+		throw new AssertionError("Garfo " + garfo + " fora do CSV");
+	}
+
+	@Test
+	void amostraArredondaParaPotenciaDeDois() {
+		assertEquals(1, new PerfilGarfos(64, 64, 1).getAmostra());
+		assertEquals(4, new PerfilGarfos(64, 64, 3).getAmostra());
+		assertEquals(16, new PerfilGarfos(64, 64, 16).getAmostra());
+		assertEquals(32, new PerfilGarfos(64, 64, 17).getAmostra());
+		assertEquals(16, new PerfilGarfos(64, 64, 3).getPerfilados());
+		assertEquals(3, new PerfilGarfos(10, 10, 4).getPerfilados()); // garfos 0, 4 e 8
+	}
+
+	// Com amostra 4 só os garfos 0, 4, 8, ... contam; os outros não tocam em registro nenhum
+	@Test
+	void soGarfosDaAmostraContam() {
+		PerfilGarfos perfil = new PerfilGarfos(16, 16, 3);
+		for (int g = 0; g < 16; g++)
+			posse(perfil, g, g, 100, 200);
+		for (int g = 0; g < 16; g += 4) {
+			assertEquals(1, perfil.posses(g), "Posses do garfo " + g);
+			assertEquals(100, perfil.posseMaxima(g));
+		}
+		perfil.pegouGarfo(1, 1, 300); // fora da amostra: não mexe no registro do garfo 0
+		perfil.esperouGarfo(2, 1);
+		assertEquals(1, perfil.posses(0));
+		assertEquals(0, perfil.bloqueios(0));
+	}
+
+	@Test
+	void possesETempoDePosse() throws IOException {
+		PerfilGarfos perfil = new PerfilGarfos(5, 5, 1);
+		posse(perfil, 0, 1, 1_000, 1_050); // 50
+		posse(perfil, 1, 1, 2_000, 2_300); // 300
+		posse(perfil, 0, 1, 3_000, 3_100); // 100
+		assertEquals(3, perfil.posses(1));
+		assertEquals(300, perfil.posseMaxima(1));
+		long[] l = linha(perfil, 1);
+		assertEquals(3, l[1]);
+		assertEquals(450, l[2]); // total
+		assertEquals(300, l[3]); // máximo
+		assertEquals(150, l[4]); // média
+		assertEquals(0, perfil.posses(0));
+	}
+
+	// Bloqueio só conta se o garfo está com outro assento
+	@Test
+	void bloqueiosSoComOutroDono() {
+		PerfilGarfos perfil = new PerfilGarfos(5, 5, 1);
+		perfil.esperouGarfo(1, 1); // livre
+		perfil.pegouGarfo(0, 1, 10);
+		perfil.esperouGarfo(0, 1); // o próprio dono
+		perfil.esperouGarfo(1, 1);
+		perfil.esperouGarfo(1, 1);
+		perfil.devolveuGarfo(1, 20);
+		perfil.esperouGarfo(1, 1); // livre de novo
+		assertEquals(2, perfil.bloqueios(1));
+	}
+
+	// Garfo 0 do anel de 5: é do assento 4 (direito) e do 0 (esquerdo), então 4 → 0 é a volta
+	// do anel, ADIANTE, e 0 → 4 é ATRAS
+	@Test
+	void passagensNoAnelComAVolta() throws IOException {
+		PerfilGarfos perfil = new PerfilGarfos(5, 5, 1);
+		int[] donos = { 4, 4, 0, 4, 0, 0, 2 };
+		for (int i = 0; i < donos.length; i++)
+			posse(perfil, donos[i], 0, 10L * i, 10L * i + 5);
+		long[] l = linha(perfil, 0);
+		// repetiu, adiante, atras, outro
+		assertArrayEquals(new long[] { 2, 2, 1, 1 }, new long[] { l[7], l[8], l[9], l[10] });
+
+		perfil = new PerfilGarfos(5, 5, 1);
+		int[] meio = { 2, 3, 2, 2 }; // garfo 3: 2 → 3 adiante, 3 → 2 atrás, 2 → 2 repetiu
+		for (int i = 0; i < meio.length; i++)
+			posse(perfil, meio[i], 3, 10L * i, 10L * i + 5);
+		l = linha(perfil, 3);
+		assertArrayEquals(new long[] { 1, 1, 1, 0 }, new long[] { l[7], l[8], l[9], l[10] });
+	}
+
+	// Sem anel (MesaGrafo) toda troca de assento é OUTRO, mesmo entre ids vizinhos
+	@Test
+	void passagensForaDoAnel() throws IOException {
+		PerfilGarfos perfil = new PerfilGarfos(5, 3, 1, false);
+		int[] donos = { 1, 2, 1, 1 };
+		for (int i = 0; i < donos.length; i++)
+			posse(perfil, donos[i], 2, 10L * i, 10L * i + 5);
+		long[] l = linha(perfil, 2);
+		assertArrayEquals(new long[] { 1, 0, 0, 2 }, new long[] { l[7], l[8], l[9], l[10] });
+	}
+
+	@Test
+	void csvTemCabecalhoEUmaLinhaPorGarfoPerfilado() throws IOException {
+		PerfilGarfos perfil = new PerfilGarfos(100, 100, 8);
+		List<String> linhas = csv(perfil);
+		assertEquals(CABECALHO, linhas.get(0));
+		assertEquals(perfil.getPerfilados() + 1, linhas.size());
+		assertEquals(13, perfil.getPerfilados()); // 0, 8, ..., 96
+		for (int k = 1; k < linhas.size(); k++) {
+			String[] campos = linhas.get(k).split(",");
+			assertEquals(CABECALHO.split(",").length, campos.length);
+			assertEquals(String.valueOf((k - 1) * 8), campos[0]);
+		}
+	}
+}
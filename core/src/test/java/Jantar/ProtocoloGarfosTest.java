@@ -0,0 +1,69 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Ida e volta dos quadros: escrever() dobrando o buffer várias vezes e a leitura em pedaços
+// arbitrários com flip/compact, do jeito que ServidorGarfos e MesaRemota leem do socket
+class ProtocoloGarfosTest {
+	private static final int QUADROS = 10_000;
+
+	@Test
+	void idaEVoltaComCrescimentoELeituraEmPedacos() {
+		Random aleatorio = new Random(42);
+		int[] operacoes = new int[QUADROS];
+		int[] valores = new int[QUADROS];
+		ByteBuffer saida = ProtocoloGarfos.novoBuffer(1);
+		for (int i = 0; i < QUADROS; i++) {
+			operacoes[i] = 1 + aleatorio.nextInt(15);
+			valores[i] = i % 3 == 0 ? -i : aleatorio.nextInt(Integer.MAX_VALUE); // negativos e valores altos
+			saida = ProtocoloGarfos.escrever(saida, operacoes[i], valores[i]);
+		}
+		assertEquals(QUADROS * ProtocoloGarfos.TAMANHO_QUADRO, saida.position());
+		assertEquals(ByteOrder.LITTLE_ENDIAN, saida.order());
+		saida.flip();
+		byte[] fio = new byte[saida.remaining()];
+		saida.get(fio);
+		assertEquals(operacoes[0], fio[0], "operação do primeiro quadro fora do byte menos significativo");
+
+		ByteBuffer entrada = ProtocoloGarfos.novoBuffer(16);
+		int lidos = 0;
+		int pos = 0;
+		while (pos < fio.length) {
+			int pedaco = Math.min(Math.min(1 + aleatorio.nextInt(37), entrada.remaining()), fio.length - pos);
+			entrada.put(fio, pos, pedaco);
+			pos += pedaco;
+			entrada.flip();
+			while (entrada.remaining() >= ProtocoloGarfos.TAMANHO_QUADRO) {
+				assertEquals(operacoes[lidos], entrada.getInt(), "operação do quadro " + lidos);
+				assertEquals(valores[lidos], entrada.getInt(), "valor do quadro " + lidos);
+				lidos++;
+			}
+			entrada.compact();
+		}
+		assertEquals(QUADROS, lidos);
+		assertEquals(0, entrada.position(), "sobrou meio quadro");
+	}
+
+	@Test
+	void crescerPreservaQuadrosJaEscritos() {
+		ByteBuffer saida = ProtocoloGarfos.novoBuffer(2);
+		saida = ProtocoloGarfos.escrever(saida, ProtocoloGarfos.PEDIR, 7);
+		saida = ProtocoloGarfos.escrever(saida, ProtocoloGarfos.DEVOLVER, 8);
+		saida = ProtocoloGarfos.escrever(saida, ProtocoloGarfos.CANCELAR, 9);
+		assertEquals(4 * ProtocoloGarfos.TAMANHO_QUADRO, saida.capacity());
+		saida.flip();
+		assertEquals(ProtocoloGarfos.PEDIR, saida.getInt());
+		assertEquals(7, saida.getInt());
+		assertEquals(ProtocoloGarfos.DEVOLVER, saida.getInt());
+		assertEquals(8, saida.getInt());
+		assertEquals(ProtocoloGarfos.CANCELAR, saida.getInt());
+		assertEquals(9, saida.getInt());
+		assertEquals(0, saida.remaining());
+	}
+}
@@ -0,0 +1,79 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// O simulador é determinístico: mesma carga (semente fixa) e mesmo motor dão o mesmo jantar,
+// evento por evento. Conferido também a cada evento: dois vizinhos nunca comem juntos e o
+// mordomo nunca deixa mais de N-1 filósofos à mesa (o chandy, que recusa o mordomo, roda livre)
+class SimuladorEventosTest {
+	private static final int N = 7;
+	private static final long SEMENTE = 1234L;
+	private static final long DURACAO = 2_000_000_000L; // 2 s virtuais
+
+	private static CargaDeTrabalho carga() {
+		return new CargaDeTrabalho(SEMENTE, CargaDeTrabalho.EXPONENCIAL, 1_000_000L, CargaDeTrabalho.EXPONENCIAL,
+				1_000_000L);
+	}
+
+	private static int admissao(String motor) {
+		return EnsaioMesa.semMordomo(motor) ? Mesa.ADMISSAO_LIVRE : Mesa.ADMISSAO_GARCOM;
+	}
+
+	@Test
+	void chandyRecusaMordomo() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new SimuladorEventos("chandy", N, Mesa.ADMISSAO_GARCOM, carga()));
+	}
+
+	// Um motor de cada política de garfos
+	@ParameterizedTest
+	@ValueSource(strings = { "monitor", "listrada", "chandy" })
+	void mesmaSementeMesmoJantar(String motor) {
+		SimuladorEventos primeiro = new SimuladorEventos(motor, N, admissao(motor), carga());
+		SimuladorEventos segundo = new SimuladorEventos(motor, N, admissao(motor), carga());
+		primeiro.executar(DURACAO);
+		segundo.executar(DURACAO);
+
+		Metricas.Instantaneo a = primeiro.getMesa().instantaneo();
+		Metricas.Instantaneo b = segundo.getMesa().instantaneo();
+		assertTrue(a.totalRefeicoes > 0, "Ninguém comeu em " + DURACAO + " ns virtuais");
+		assertEquals(primeiro.getEventos(), segundo.getEventos());
+		assertArrayEquals(a.refeicoes, b.refeicoes);
+		assertArrayEquals(a.esperas, b.esperas);
+		assertArrayEquals(a.aquisicoes, b.aquisicoes);
+		assertEquals(a.totalEsperas, b.totalEsperas);
+		assertArrayEquals(a.latenciaGarfos, b.latenciaGarfos);
+		assertArrayEquals(a.latenciaEntrada, b.latenciaEntrada);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "monitor", "listrada", "chandy" })
+	void vizinhosNuncaComemJuntosEMordomoAdmiteNoMaximoNMenos1(String motor) {
+		boolean comMordomo = admissao(motor) == Mesa.ADMISSAO_GARCOM;
+		SimuladorEventos simulador = new SimuladorEventos(motor, N, admissao(motor), carga());
+		int[] estados = ((EstadoDaMesa) simulador.getMesa()).filosofos;
+		int maiorAdmissao = 0;
+		while (simulador.proximoEvento(DURACAO)) {
+			for (int f = 0; f < N; f++)
+				assertTrue(estados[f] != Mesa.COMENDO || estados[(f + 1) % N] != Mesa.COMENDO,
+						"Assentos " + f + " e " + (f + 1) % N + " comendo juntos no evento " + simulador.getEventos());
+			if (!comMordomo)
+				continue;
+			int[] contagens = simulador.getMesa().contarEstados();
+			int aMesa = contagens[Mesa.COMENDO] + contagens[Mesa.FOME];
+			assertTrue(simulador.admitidos() <= N - 1, "Mordomo admitiu " + simulador.admitidos());
+			assertTrue(aMesa <= simulador.admitidos(), aMesa + " à mesa sem passar pelo mordomo");
+			maiorAdmissao = Math.max(maiorAdmissao, simulador.admitidos());
+		}
+		assertTrue(simulador.getMesa().getTotalRefeicoes() > 0);
+		if (comMordomo)
+			assertEquals(N - 1, maiorAdmissao, "Com comer tão longo quanto pensar a mesa deveria lotar");
+	}
+}
@@ -0,0 +1,57 @@
+package Jantar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+// Modo jantar.threads=virtual: uma thread virtual por assento, muito mais assentos que
+// carregadoras. Quem espera garfo ou mordomo tem de liberar a carregadora (ReentrantLock e
+// Semaphore, nada de synchronized/wait); senão as carregadoras presas param a mesa toda.
+// Com espera bloqueante quase todos estacionam na condição do assento: quem devolve acorda só
+// os vizinhos, senão cada refeição acordaria os milhares que esperam
+class ThreadsVirtuaisTest {
+	private static final int N = 10_000;
+	private static final int REFEICOES = 3;
+
+	@ParameterizedTest
+	@CsvSource({ "monitor, adaptativa", "monitor, bloqueante", "alternativa, bloqueante" })
+	void todosOsAssentosComem(String motor, String espera) throws InterruptedException {
+		assertTrue(N > 10 * Runtime.getRuntime().availableProcessors(), "Poucos assentos para as carregadoras");
+		MesaDeJantar mesa = Motores.criar(motor, N, Mesa.ADMISSAO_GARCOM);
+		mesa.desligarRastro();
+		((Mesa) mesa).setEspera(Mesa.esperaPorNome(espera));
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int f = 0; f < N; f++) {
+				int assento = f;
+				executor.submit(() -> {
+					for (int i = 0; i < REFEICOES; i++) {
+						mesa.entrarNoRefeitorio(assento);
+						try {
+							mesa.pegarGarfos(assento);
+							LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(20_000L));
+							mesa.returningGarfos(assento);
+						} finally {
+							mesa.sairDoRefeitorio();
+						}
+					}
+					return null;
+				});
+			}
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(EnsaioMesa.PRAZO_MS, TimeUnit.MILLISECONDS),
+					"Threads virtuais sem progresso: " + mesa.getTotalRefeicoes() + " refeições de " + N * REFEICOES);
+		}
+		Metricas.Instantaneo m = mesa.instantaneo();
+		for (int f = 0; f < N; f++)
+			assertEquals(REFEICOES, m.refeicoes[f], "Refeições do assento " + (f + 1));
+		assertEquals(0, mesa.garfosEmUso());
+	}
+}
@@ -1,8 +0,0 @@
-/**
- * 
- */
-/**
- * 
- */
-module JantarDosFilosofos {
-}
\ No newline at end of file